@@ -23,6 +23,7 @@ import android.view.Window;
 import android.view.WindowManager;
 import android.widget.RelativeLayout;
 
+import com.badlogic.gdx.Application;
 import com.badlogic.gdx.backends.android.AndroidApplication;
 import com.badlogic.gdx.backends.android.AndroidApplicationConfiguration;
 import com.unocode.earthlingrun.android.R;
@@ -30,6 +31,7 @@ import com.unocode.earthlingrun.EarthlingRun;
 import com.unocode.earthlingrun.android.BuildConfig;
 import com.unocode.earthlingrun.utils.Constants;
 import com.unocode.earthlingrun.utils.GameEventListener;
+import com.unocode.earthlingrun.utils.GameLog;
 import com.unocode.earthlingrun.utils.GameManager;
 //import com.google.android.gms.ads.AdRequest;
 //import com.google.android.gms.ads.AdSize;
@@ -65,6 +67,11 @@ public class AndroidLauncher extends AndroidApplication implements GameHelper.Ga
 
         AndroidApplicationConfiguration config = new AndroidApplicationConfiguration();
 
+        // Gameplay logging is only compiled into debug builds
+        if (BuildConfig.DEBUG) {
+            GameLog.setLevel(Application.LOG_DEBUG);
+        }
+
         // Game view
         View gameView = initializeForView(new EarthlingRun(this), config);
         layout.addView(gameView);
@@ -236,88 +243,9 @@ public class AndroidLauncher extends AndroidApplication implements GameHelper.Ga
     }
 
     @Override
-    public String getGettingStartedAchievementId() {
-        return getString(R.string.achievement_getting_started);
-    }
-
-    @Override
-    public String getLikeARoverAchievementId() {
-        return getString(R.string.achievement_like_a_rover);
-    }
-
-    @Override
-    public String getSpiritAchievementId() {
-        return getString(R.string.achievement_spirit);
-    }
-
-    @Override
-    public String getCuriosityAchievementId() {
-        return getString(R.string.achievement_curiosity);
-    }
-
-    @Override
-    public String get5kClubAchievementId() {
-        return getString(R.string.achievement_5k_club);
-    }
-
-    @Override
-    public String get10kClubAchievementId() {
-        return getString(R.string.achievement_10k_club);
-    }
-
-    @Override
-    public String get25kClubAchievementId() {
-        return getString(R.string.achievement_25k_club);
-    }
-
-    @Override
-    public String get50kClubAchievementId() {
-        return getString(R.string.achievement_50k_club);
-    }
-
-    @Override
-    public String get10JumpStreetAchievementId() {
-        return getString(R.string.achievement_10_jump_street);
-    }
-
-    @Override
-    public String get100JumpStreetAchievementId() {
-        return getString(R.string.achievement_100_jump_street);
-    }
-
-    @Override
-    public String get500JumpStreetAchievementId() {
-        return getString(R.string.achievement_500_jump_street);
-    }
-
-    @Override
-    public String get10DoubleJumpStreetAchievementId() {
-        return getString(R.string.achievement_10_jump_street);
-    }
-
-    @Override
-    public String get100DoubleJumpStreetAchievementId() {
-        return getString(R.string.achievement_100_jump_street);
-    }
-
-    @Override
-    public String get500DoubleJumpStreetAchievementId() {
-        return getString(R.string.achievement_500_jump_street);
-    }
-
-    @Override
-    public String get10PowerStompStreetAchievementId() {
-        return getString(R.string.achievement_10_jump_street);
-    }
-
-    @Override
-    public String get100PowerStompStreetAchievementId() {
-        return getString(R.string.achievement_100_jump_street);
-    }
-
-    @Override
-    public String get500PowerStompStreetAchievementId() {
-        return getString(R.string.achievement_500_jump_street);
+    public String getAchievementId(String key) {
+        int resourceId = getResources().getIdentifier(key, "string", getPackageName());
+        return resourceId != 0 ? getString(resourceId) : null;
     }
 
     private String getAdMobUnitId() {
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.benchmarks;
+
+import com.unocode.earthlingrun.benchmarks.headless.HeadlessGame;
+import com.unocode.earthlingrun.utils.AssetsManager;
+import com.unocode.earthlingrun.utils.Constants;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Actors look up their textures and animations by ID when they're created, which happens for
+ * every enemy and on every restart
+ */
+@State(Scope.Thread)
+public class AssetLookupBenchmark {
+
+    private static final String[] TEXTURE_IDS = {
+            Constants.BACKGROUND_ASSETS_ID,
+            Constants.GROUND_ASSETS_ID,
+            Constants.RUNNER_JUMPING_ASSETS_ID,
+            Constants.RUNNER_DODGING_ASSETS_ID,
+            Constants.RUNNER_HIT_ASSETS_ID
+    };
+
+    private static final String[] ANIMATION_IDS = {
+            Constants.RUNNER_RUNNING_ASSETS_ID,
+            Constants.RUNNING_SMALL_ENEMY_ASSETS_ID,
+            Constants.RUNNING_BIG_ENEMY_ASSETS_ID,
+            Constants.RUNNING_LONG_ENEMY_ASSETS_ID,
+            Constants.RUNNING_WIDE_ENEMY_ASSETS_ID,
+            Constants.FLYING_SMALL_ENEMY_ASSETS_ID,
+            Constants.FLYING_WIDE_ENEMY_ASSETS_ID
+    };
+
+    @Setup
+    public void setUp() {
+        HeadlessGame.init();
+    }
+
+    @Benchmark
+    public void textureRegions(Blackhole blackhole) {
+        for (String id : TEXTURE_IDS) {
+            blackhole.consume(AssetsManager.getTextureRegion(id));
+        }
+    }
+
+    @Benchmark
+    public void animations(Blackhole blackhole) {
+        for (String id : ANIMATION_IDS) {
+            blackhole.consume(AssetsManager.getAnimation(id));
+        }
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.benchmarks;
+
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.World;
+import com.unocode.earthlingrun.utils.BodyUtils;
+import com.unocode.earthlingrun.utils.ObstacleGenerator;
+import com.unocode.earthlingrun.utils.RandomUtils;
+import com.unocode.earthlingrun.utils.WorldUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The type checks run for every body on every frame and for both bodies of every contact
+ */
+@State(Scope.Thread)
+public class BodyUtilsBenchmark {
+
+    private static final int ENEMY_COUNT = 4;
+
+    private World world;
+    private Body[] bodies;
+
+    @Setup
+    public void setUp() {
+        RandomUtils.setSeed(42L);
+        ObstacleGenerator obstacleGenerator = new ObstacleGenerator();
+        world = WorldUtils.createWorld();
+        bodies = new Body[ENEMY_COUNT + 2];
+        bodies[0] = WorldUtils.createGround(world);
+        bodies[1] = WorldUtils.createRunner(world);
+        for (int i = 0; i < ENEMY_COUNT; i++) {
+            bodies[i + 2] = WorldUtils.createEnemy(world, obstacleGenerator.next());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        WorldUtils.disposeWorld(world);
+    }
+
+    @Benchmark
+    public void bodyInBounds(Blackhole blackhole) {
+        for (Body body : bodies) {
+            blackhole.consume(BodyUtils.bodyInBounds(body));
+        }
+    }
+
+    @Benchmark
+    public void bodyIsEnemy(Blackhole blackhole) {
+        for (Body body : bodies) {
+            blackhole.consume(BodyUtils.bodyIsEnemy(body));
+        }
+    }
+
+    @Benchmark
+    public void bodyIsRunner(Blackhole blackhole) {
+        for (Body body : bodies) {
+            blackhole.consume(BodyUtils.bodyIsRunner(body));
+        }
+    }
+
+    @Benchmark
+    public void bodyIsGround(Blackhole blackhole) {
+        for (Body body : bodies) {
+            blackhole.consume(BodyUtils.bodyIsGround(body));
+        }
+    }
+
+}
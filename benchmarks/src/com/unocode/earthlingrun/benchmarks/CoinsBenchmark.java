@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.benchmarks;
+
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Rectangle;
+import com.unocode.earthlingrun.actors.Coins;
+import com.unocode.earthlingrun.benchmarks.headless.HeadlessGame;
+import com.unocode.earthlingrun.utils.Constants;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * A full coin pool moved, tested against the runner and drawn, as on every frame of a run with
+ * hundreds of coins on screen
+ */
+@State(Scope.Thread)
+public class CoinsBenchmark {
+
+    private static final float TIME_STEP = 1 / 60f;
+    private static final int ROWS = 8;
+
+    private Coins coins;
+    private SpriteBatch batch;
+    // Out of reach of every coin, so none is ever collected
+    private final Rectangle runnerBounds = new Rectangle(-10, -10, 1, 2);
+
+    @Setup
+    public void setUp() {
+        HeadlessGame.init();
+        coins = new Coins(Constants.COIN_POOL_SIZE);
+        // Static coins, so the pool stays full
+        for (int row = 0; coins.getSize() < coins.getCapacity(); row++) {
+            coins.placeRow(0, Constants.GROUND_WIDTH, 2 + row % ROWS * 0.5f, 0);
+        }
+        batch = new SpriteBatch();
+    }
+
+    @TearDown
+    public void tearDown() {
+        batch.dispose();
+    }
+
+    @Benchmark
+    public int stepAndCollect() {
+        coins.step(TIME_STEP);
+        return coins.collect(runnerBounds);
+    }
+
+    @Benchmark
+    public int drawCalls() {
+        batch.begin();
+        coins.draw(batch, 1f);
+        batch.end();
+        return batch.renderCalls;
+    }
+
+}
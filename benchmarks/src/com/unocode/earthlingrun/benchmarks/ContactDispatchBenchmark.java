@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.benchmarks;
+
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.World;
+import com.unocode.earthlingrun.benchmarks.headless.HeadlessGame;
+import com.unocode.earthlingrun.stages.GameStage;
+import com.unocode.earthlingrun.utils.Constants;
+import com.unocode.earthlingrun.utils.WorldUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Contacts delivered from Box2D to {@link GameStage#beginContact} itself. The stage listens to a
+ * world of its own here, with a row of runners and the ground, and is in a run so each landing
+ * reaches its runner. Every invocation lifts the runners off the ground and puts them back, so
+ * each step begins or ends one contact per runner.
+ */
+@State(Scope.Thread)
+public class ContactDispatchBenchmark {
+
+    private static final float LIFT = 5f;
+
+    @Param({ "1", "8" })
+    public int runners;
+
+    private GameStage stage;
+    private World world;
+    private Body[] bodies;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        stage = HeadlessGame.createStage();
+        HeadlessGame.startRun(stage);
+        world = WorldUtils.createWorld();
+        world.setGravity(world.getGravity().setZero());
+        world.setContactListener(stage);
+        WorldUtils.createGround(world);
+        bodies = new Body[runners];
+        for (int i = 0; i < runners; i++) {
+            bodies[i] = WorldUtils.createRunner(world);
+            bodies[i].setTransform(Constants.RUNNER_X + i * 2 * Constants.RUNNER_WIDTH,
+                    Constants.RUNNER_Y, 0);
+        }
+        step();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        WorldUtils.disposeWorld(world);
+        stage.dispose();
+    }
+
+    @Benchmark
+    public World liftAndLand() {
+        move(LIFT);
+        step();
+        move(-LIFT);
+        step();
+        return world;
+    }
+
+    private void step() {
+        world.step(Constants.PHYSICS_TIME_STEP, Constants.PHYSICS_VELOCITY_ITERATIONS,
+                Constants.PHYSICS_POSITION_ITERATIONS);
+    }
+
+    private void move(float dy) {
+        for (Body body : bodies) {
+            body.setTransform(body.getPosition().x, body.getPosition().y + dy, 0);
+            body.setLinearVelocity(0, 0);
+        }
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.benchmarks;
+
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.World;
+import com.unocode.earthlingrun.utils.ObstacleGenerator;
+import com.unocode.earthlingrun.utils.RandomUtils;
+import com.unocode.earthlingrun.utils.WorldUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Enemy spawning as the game does it: the next {@link com.unocode.earthlingrun.enums.EnemyType}
+ * from an {@link ObstacleGenerator}, a body definition, a shape and a fixture. Each body is destroyed right away so the world
+ * doesn't grow over the iteration.
+ */
+@State(Scope.Thread)
+public class CreateEnemyBenchmark {
+
+    private static final long SEED = 42L;
+
+    private final ObstacleGenerator obstacleGenerator = new ObstacleGenerator();
+    private World world;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        RandomUtils.setSeed(SEED);
+        obstacleGenerator.reset();
+        world = WorldUtils.createWorld();
+        WorldUtils.createGround(world);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        WorldUtils.disposeWorld(world);
+    }
+
+    @Benchmark
+    public Object createAndDestroyEnemy() {
+        Body body = WorldUtils.createEnemy(world, obstacleGenerator.next());
+        Object userData = body.getUserData();
+        WorldUtils.destroyBody(world, body);
+        return userData;
+    }
+
+}
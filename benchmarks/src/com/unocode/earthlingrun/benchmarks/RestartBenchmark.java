@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.benchmarks;
+
+import com.unocode.earthlingrun.benchmarks.headless.HeadlessGame;
+import com.unocode.earthlingrun.enums.GameState;
+import com.unocode.earthlingrun.stages.GameStage;
+import com.unocode.earthlingrun.utils.GameManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The "die, tap, retry" loop: the time between pressing the start button on the game over menu
+ * and the new run being ready. Each invocation first plays the previous run out until the runner
+ * dies and its results are committed, which isn't measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RestartBenchmark {
+
+    private static final float TICK_DELTA = 1 / 60f;
+
+    private GameStage stage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        stage = HeadlessGame.createStage();
+    }
+
+    @Setup(Level.Invocation)
+    public void endRun() {
+        while (GameManager.getInstance().getGameState() != GameState.OVER ||
+                stage.getRoot().hasActions()) {
+            stage.draw();
+            stage.act(TICK_DELTA);
+        }
+    }
+
+    @Benchmark
+    public GameStage restart() {
+        HeadlessGame.startRun(stage);
+        return stage;
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.benchmarks;
+
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Rectangle;
+import com.unocode.earthlingrun.actors.Score;
+import com.unocode.earthlingrun.benchmarks.headless.HeadlessGame;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * The score label is formatted whenever the score changes and laid out on every frame of a run
+ */
+@State(Scope.Thread)
+public class ScoreFormatBenchmark {
+
+    // Well below where the float score stops changing by a coin
+    private static final int MAX_SCORE = 1000000;
+
+    private Score score;
+    private SpriteBatch batch;
+
+    @Setup
+    public void setUp() {
+        HeadlessGame.init();
+        score = new Score(new Rectangle(0, 400, 780, 80));
+        // Score only draws once it's above zero
+        score.addTime(1f);
+        batch = new SpriteBatch();
+    }
+
+    @TearDown
+    public void tearDown() {
+        batch.dispose();
+    }
+
+    /**
+     * A coin changes the score, so every call rebuilds the text
+     */
+    @Benchmark
+    public CharSequence formatText() {
+        if (score.getScore() > MAX_SCORE) {
+            score.reset();
+        }
+        score.addCoins(1);
+        return score.getText();
+    }
+
+    @Benchmark
+    public SpriteBatch drawScore() {
+        batch.begin();
+        score.draw(batch, 1f);
+        batch.end();
+        return batch;
+    }
+
+}
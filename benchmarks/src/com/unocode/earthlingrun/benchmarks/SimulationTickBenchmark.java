@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.benchmarks;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.unocode.earthlingrun.benchmarks.headless.HeadlessGame;
+import com.unocode.earthlingrun.controllers.HeuristicBot;
+import com.unocode.earthlingrun.enums.GameState;
+import com.unocode.earthlingrun.enums.PhysicsProfile;
+import com.unocode.earthlingrun.stages.GameStage;
+import com.unocode.earthlingrun.utils.GameManager;
+import com.unocode.earthlingrun.utils.PhysicsStepController;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * One 60 Hz frame of a run, through {@link GameStage#act(float, long)} itself: actors, bounds
+ * checks, spawning, input and the fixed-step physics loop. {@link HeuristicBot} plays, so runs
+ * last; when one ends anyway a new one is started within the invocation. Each
+ * {@link PhysicsProfile} is measured separately.
+ */
+@State(Scope.Thread)
+public class SimulationTickBenchmark {
+
+    private static final float TICK_DELTA = 1 / 60f;
+    private static final long TICK_NANOS = 1000000000L / 60;
+    private static final long SEED = 42L;
+
+    @Param({ "HIGH", "MEDIUM", "LOW" })
+    public PhysicsProfile profile;
+
+    private GameStage stage;
+    private long frame;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        PhysicsStepController.getInstance().setProfile(profile);
+        stage = HeadlessGame.createStage();
+        stage.setController(new HeuristicBot());
+        MathUtils.random.setSeed(SEED);
+        HeadlessGame.startRun(stage);
+        frame = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        stage.dispose();
+    }
+
+    @Benchmark
+    public GameStage tick() {
+        if (GameManager.getInstance().getGameState() != GameState.RUNNING) {
+            HeadlessGame.startRun(stage);
+        }
+        frame++;
+        stage.act(TICK_DELTA, frame * TICK_NANOS);
+        return stage;
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.benchmarks.harness;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Reads the JVM's count of bytes allocated by the current thread. The count is exact for the
+ * thread's own allocations and unaffected by other threads or by garbage collection.
+ */
+public class AllocationCounter {
+
+    private final com.sun.management.ThreadMXBean threadBean;
+    private final long threadId;
+    private final long overhead;
+
+    public AllocationCounter() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            throw new GdxRuntimeException("This JVM can't count allocated bytes per thread");
+        }
+        threadBean = (com.sun.management.ThreadMXBean) bean;
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        threadId = Thread.currentThread().getId();
+        overhead = measureOverhead();
+    }
+
+    /**
+     * @return bytes allocated by this thread so far
+     */
+    public long read() {
+        return threadBean.getThreadAllocatedBytes(threadId);
+    }
+
+    /**
+     * @return bytes allocated between two reads, less whatever the reads allocate themselves
+     */
+    public long since(long start) {
+        return Math.max(0, read() - start - overhead);
+    }
+
+    private long measureOverhead() {
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < 1000; i++) {
+            long start = read();
+            min = Math.min(min, read() - start);
+        }
+        return min;
+    }
+
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.benchmarks.harness;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.unocode.earthlingrun.benchmarks.headless.HeadlessGame;
+import com.unocode.earthlingrun.enums.GameState;
+import com.unocode.earthlingrun.metrics.Box2DTracker;
+import com.unocode.earthlingrun.metrics.FrameMetrics;
+import com.unocode.earthlingrun.stages.GameStage;
+import com.unocode.earthlingrun.utils.GameManager;
+
+/**
+ * Plays the game headlessly for a fixed number of ticks after a warm-up and fails if gameplay
+ * allocates more heap than its budget allows.
+ * <p/>
+ * Ticks are split in two kinds. Steady ticks, where nothing is spawned and the game state doesn't
+ * change, should not allocate at all. At most {@code allocation.allocatingTicks} of them (10 by
+ * default) may allocate anything, and none more than {@code allocation.steadyBudget} bytes (4096
+ * by default). Counting the ticks rather than the bytes catches an allocation however rarely it
+ * recurs: 16 bytes every 128 ticks makes over a hundred allocating ticks in a measurement.
+ * <p/>
+ * The one known allocation in steady ticks isn't the game's: when the JIT replaces a method's
+ * code, e.g. moving it to its optimizing tier, the method runs interpreted for a few calls and
+ * allocates what escape analysis removed from the compiled code, up to a few hundred bytes. After
+ * the default warm-up that happens on zero to five ticks of a measurement.
+ * <p/>
+ * Event ticks, which start or end a run or spawn actors or bodies, are held to
+ * {@code allocation.eventBudget} bytes each. Runs are restarted between ticks, so the stage
+ * rebuild itself is never measured.
+ * <p/>
+ * All settings are system properties: {@code allocation.warmUpTicks}, {@code allocation.ticks},
+ * {@code allocation.allocatingTicks}, {@code allocation.steadyBudget} and
+ * {@code allocation.eventBudget}.
+ */
+public class AllocationHarness {
+
+    private static final float TICK_DELTA = 1 / 60f;
+    private static final int MAX_REPORTED_TICKS = 10;
+
+    private final GameStage stage;
+    private final AllocationCounter counter;
+
+    private long steadyTicks;
+    private long allocatingTicks;
+    private long steadyBytes;
+    private long steadyMax;
+    private long eventTicks;
+    private long eventBytes;
+    private long eventMax;
+    private int reportedTicks;
+
+    public AllocationHarness(GameStage stage) {
+        this.stage = stage;
+        counter = new AllocationCounter();
+    }
+
+    public static void main(String[] args) {
+        int warmUpTicks = Integer.getInteger("allocation.warmUpTicks", 40000);
+        int ticks = Integer.getInteger("allocation.ticks", 20000);
+        int allocatingTicks = Integer.getInteger("allocation.allocatingTicks", 10);
+        long steadyBudget = Long.getLong("allocation.steadyBudget", 4096);
+        long eventBudget = Long.getLong("allocation.eventBudget", 64 * 1024);
+
+        AllocationHarness harness = new AllocationHarness(HeadlessGame.createStage());
+        harness.run(warmUpTicks, eventBudget, false);
+        harness.reset();
+        harness.run(ticks, eventBudget, true);
+        System.out.println(harness.report());
+
+        boolean passed = true;
+        if (harness.allocatingTicks > allocatingTicks) {
+            System.out.println(harness.allocatingTicks + " steady ticks allocated, at most " +
+                    allocatingTicks + " may");
+            passed = false;
+        }
+        if (harness.steadyMax > steadyBudget) {
+            System.out.println("A steady tick allocated " + harness.steadyMax +
+                    " bytes, budget is " + steadyBudget);
+            passed = false;
+        }
+        if (harness.eventMax > eventBudget) {
+            System.out.println("An event tick allocated " + harness.eventMax +
+                    " bytes, budget is " + eventBudget);
+            passed = false;
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Runs the given number of ticks. When verbose, the first few steady ticks that allocate and
+     * event ticks that go over the event budget are printed
+     */
+    public void run(int ticks, long eventBudget, boolean verbose) {
+        for (int i = 0; i < ticks; i++) {
+            // The first tick of a run still pays for the stage rebuild, so it counts as an event
+            boolean restarted = false;
+            if (GameManager.getInstance().getGameState() != GameState.RUNNING) {
+                HeadlessGame.startRun(stage);
+                restarted = true;
+            }
+
+            GameState stateBefore = GameManager.getInstance().getGameState();
+            int actorsBefore = stage.getActorCount();
+            long bodiesBefore = Box2DTracker.BODIES.get();
+
+            long start = counter.read();
+            tick();
+            long bytes = counter.since(start);
+
+            boolean event = restarted || stage.getActorCount() > actorsBefore ||
+                    Box2DTracker.BODIES.get() > bodiesBefore ||
+                    GameManager.getInstance().getGameState() != stateBefore;
+            if (event) {
+                eventTicks++;
+                eventBytes += bytes;
+                eventMax = Math.max(eventMax, bytes);
+            } else {
+                steadyTicks++;
+                steadyBytes += bytes;
+                steadyMax = Math.max(steadyMax, bytes);
+                if (bytes > 0) {
+                    allocatingTicks++;
+                }
+            }
+
+            if (verbose && (event ? bytes > eventBudget : bytes > 0) &&
+                    reportedTicks < MAX_REPORTED_TICKS) {
+                System.out.println((event ? "Event" : "Steady") + " tick " + i + " allocated " +
+                        bytes + " bytes");
+                reportedTicks++;
+            }
+        }
+    }
+
+    public void reset() {
+        steadyTicks = allocatingTicks = steadyBytes = steadyMax = 0;
+        eventTicks = eventBytes = eventMax = 0;
+        reportedTicks = 0;
+    }
+
+    public String report() {
+        return "Steady ticks: " + steadyTicks + ", " + allocatingTicks + " allocating, " +
+                steadyBytes + " bytes in total, " + steadyMax + " max\n" +
+                "Event ticks: " + eventTicks + ", " + eventBytes + " bytes in total, " + eventMax +
+                " max";
+    }
+
+    /**
+     * Mirrors {@link com.unocode.earthlingrun.screens.GameScreen#render(float)}
+     */
+    private void tick() {
+        long frameStart = TimeUtils.nanoTime();
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+        stage.draw();
+        stage.act(TICK_DELTA);
+        FrameMetrics.recordFrame(TICK_DELTA, TimeUtils.nanoTime() - frameStart);
+    }
+
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.unocode.earthlingrun.benchmarks.harness;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.unocode.earthlingrun.actors.Runner;
+import com.unocode.earthlingrun.benchmarks.headless.HeadlessGame;
+import com.unocode.earthlingrun.benchmarks.headless.RunPlayer;
+import com.unocode.earthlingrun.controllers.Observation;
+import com.unocode.earthlingrun.controllers.RunnerController;
+import com.unocode.earthlingrun.enums.EnemyType;
+import com.unocode.earthlingrun.enums.PhysicsProfile;
+import com.unocode.earthlingrun.simulation.BatchedRuns;
+import com.unocode.earthlingrun.utils.Constants;
+import com.unocode.earthlingrun.utils.Difficulty;
+import com.unocode.earthlingrun.utils.DifficultyCurve;
+import com.unocode.earthlingrun.utils.GameManager;
+import com.unocode.earthlingrun.utils.ObstacleSpacing;
+import com.unocode.earthlingrun.utils.PhysicsStepController;
+
+/**
+ * Checks {@link BatchedRuns} against the stage and against itself:
+ * <ul>
+ * <li>{@code batch.seeds} seeds are played on the stage and in a batch by a player that jumps
+ * but never dodges, so he dies on the first flying enemy he meets. A seed diverges when the two
+ * deaths are more than {@code batch.frameTolerance} frames apart, and the check fails when more
+ * than {@code batch.maxDivergence} of the seeds diverge.</li>
+ * <li>{@code batch.runs} runs are played for {@code batch.seconds} by a player that jumps and
+ * dodges like {@link com.unocode.earthlingrun.controllers.HeuristicBot}, on
+ * {@code batch.threads} threads, the processor count but at least two by default. Every run
+ * must last and the calling thread must not allocate every step. With
+ * {@code batch.minStepsPerSecond} set, the batch must also manage that many run steps per second;
+ * the speed is machine dependent, so it's only printed otherwise.</li>
+ * <li>The same runs on a single thread must end exactly the same.</li>
+ * </ul>
+ */
+public class BatchedRunsCheck {
+
+    private static final PhysicsProfile PROFILE = PhysicsProfile.HIGH;
+    private static final float RUNNER_FRONT = Constants.RUNNER_X +
+            Math.max(Constants.RUNNER_WIDTH, Constants.RUNNER_HEIGHT) / 2;
+    private static final EnemyType[] ENEMY_TYPES = EnemyType.values();
+    private static final int MAX_FRAMES = 60 * 60;
+    // The smallest object there is. The JIT may allocate a little on its own now and then
+    private static final int MAX_BYTES_PER_STEP = 16;
+
+    private final DifficultyCurve curve;
+    private final Difficulty difficulty = new Difficulty();
+    private final AllocationCounter allocations = new AllocationCounter();
+    // Bytes the calling thread allocated while the last play stepped the batch
+    private long allocated;
+
+    public BatchedRunsCheck() {
+        HeadlessGame.init();
+        curve = GameManager.getInstance().getDifficultyCurve();
+    }
+
+    public static void main(String[] args) {
+        int seeds = Integer.getInteger("batch.seeds", 50);
+        int frameTolerance = Integer.getInteger("batch.frameTolerance", 5);
+        double maxDivergence = Double.parseDouble(System.getProperty("batch.maxDivergence",
+                "0.1"));
+        int runs = Integer.getInteger("batch.runs", 1024);
+        int seconds = Integer.getInteger("batch.seconds", 60);
+        // At least two, so the worker threads are always exercised
+        int threads = Integer.getInteger("batch.threads",
+                Math.max(2, Runtime.getRuntime().availableProcessors()));
+        Long minStepsPerSecond = Long.getLong("batch.minStepsPerSecond");
+
+        BatchedRunsCheck check = new BatchedRunsCheck();
+        boolean passed = true;
+
+        int divergent = check.compareWithStage(seeds, frameTolerance);
+        System.out.println(divergent + " of " + seeds + " seeds diverge from the stage");
+        if ((double) divergent / seeds > maxDivergence) {
+            passed = false;
+        }
+
+        int steps = seconds * PROFILE.getStepsPerSecond();
+        BatchedRuns batch = new BatchedRuns(check.curve, PROFILE, runs, threads);
+        // Warms the JIT up so it doesn't allocate while compiling
+        check.play(batch, steps / 4);
+        long nanos = check.play(batch, steps);
+        long allocated = check.allocated;
+        batch.close();
+        double stepsPerSecond = (double) runs * steps * 1e9 / nanos;
+        int died = count(batch.getDone());
+        System.out.println(String.format("%d runs on %d threads: %d died within %d seconds, " +
+                "%.0f run steps/s, %d bytes allocated over %d steps", runs, threads, died,
+                seconds, stepsPerSecond, allocated, steps));
+        if (minStepsPerSecond != null && stepsPerSecond < minStepsPerSecond) {
+            System.out.println("The batch steps too slowly, minimum " + minStepsPerSecond +
+                    " run steps/s");
+            passed = false;
+        }
+        if (died > 0 || allocated >= (long) steps * MAX_BYTES_PER_STEP) {
+            passed = false;
+        }
+
+        BatchedRuns single = new BatchedRuns(check.curve, PROFILE, runs, 1);
+        check.play(single, steps);
+        int different = 0;
+        for (int i = 0; i < runs; i++) {
+            if (single.getScores()[i] != batch.getScores()[i] ||
+                    single.getDone()[i] != batch.getDone()[i]) {
+                different++;
+            }
+        }
+        System.out.println(different + " of " + runs + " runs end differently on one thread");
+        if (different > 0) {
+            passed = false;
+        }
+
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * @return how many seeds the batch and the stage don't end alike
+     */
+    private int compareWithStage(int seeds, int frameTolerance) {
+        PhysicsStepController.getInstance().setProfile(PROFILE);
+        RunPlayer player = new RunPlayer();
+        RunPlayer.Result result = new RunPlayer.Result();
+        BatchedRuns batch = new BatchedRuns(curve, PROFILE, 1, 1);
+        float[] observation = new float[BatchedRuns.OBSERVATION_SIZE];
+        int[] actions = new int[1];
+        RunnerController jumper = new PolicyController(false);
+
+        int divergent = 0;
+        for (long seed = 1; seed <= seeds; seed++) {
+            player.play(seed, jumper, MAX_FRAMES, result);
+
+            // The stage draws its run seed the same way
+            MathUtils.random.setSeed(seed);
+            batch.reset(0, MathUtils.random.nextLong());
+            int steps = MAX_FRAMES * PROFILE.getStepsPerSecond() / 60;
+            for (int step = 0; step < steps && !batch.getDone()[0]; step++) {
+                batch.observe(observation);
+                actions[0] = decide(observation, 0, batch.getTimes()[0], false);
+                batch.step(actions);
+            }
+
+            float frames = batch.getTimes()[0] * 60;
+            boolean matches = batch.getDone()[0] == (result.getKiller() != null) &&
+                    Math.abs(frames - result.getFrames()) <= frameTolerance;
+            if (!matches) {
+                System.out.println("Seed " + seed + " diverges: stage " + result + ", batch " +
+                        (batch.getDone()[0] ? "hit" : "survived") + " after " +
+                        Math.round(frames) + " frames");
+                divergent++;
+            }
+        }
+        batch.close();
+        return divergent;
+    }
+
+    /**
+     * Plays every run of the batch, seeded 1 to n, for the given steps
+     *
+     * @return the nanoseconds spent stepping
+     */
+    private long play(BatchedRuns batch, int steps) {
+        long[] seeds = new long[batch.getCount()];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = i + 1;
+        }
+        batch.reset(seeds);
+        float[] observations = new float[batch.getCount() * BatchedRuns.OBSERVATION_SIZE];
+        int[] actions = new int[batch.getCount()];
+
+        long nanos = 0;
+        long allocationStart = allocations.read();
+        for (int step = 0; step < steps; step++) {
+            batch.observe(observations);
+            for (int i = 0; i < actions.length; i++) {
+                actions[i] = decide(observations, i * BatchedRuns.OBSERVATION_SIZE,
+                        batch.getTimes()[i], true);
+            }
+            long start = System.nanoTime();
+            batch.step(actions);
+            nanos += System.nanoTime() - start;
+        }
+        allocated = allocations.since(allocationStart);
+        return nanos;
+    }
+
+    /**
+     * The batch's side of the player
+     */
+    private int decide(float[] observations, int offset, float time, boolean dodges) {
+        int type = (int) observations[offset + 5];
+        return decide(type < 0 ? null : ENEMY_TYPES[type], observations[offset + 6],
+                observations[offset + 4], observations[offset + 2] > 0,
+                observations[offset + 3] > 0, curve.sample(time, difficulty), dodges);
+    }
+
+    /**
+     * Moves as late as {@link ObstacleSpacing} allows for the nearest enemy
+     *
+     * @return one of the BatchedRuns.ACTION_ constants
+     */
+    private static int decide(EnemyType enemyType, float frontX, float speed, boolean jumping,
+            boolean dodging, Difficulty difficulty, boolean dodges) {
+        if (enemyType == null) {
+            return dodging ? BatchedRuns.ACTION_STOP_DODGE : BatchedRuns.ACTION_NONE;
+        }
+        float distance = frontX - RUNNER_FRONT;
+        float stepDistance = speed * PROFILE.getTimeStep();
+        if (enemyType.isFlying()) {
+            if (dodges && !dodging && !jumping && distance <= stepDistance * 2) {
+                return BatchedRuns.ACTION_DODGE;
+            }
+            return BatchedRuns.ACTION_NONE;
+        }
+        if (dodging) {
+            return BatchedRuns.ACTION_STOP_DODGE;
+        }
+        float riseDistance = ObstacleSpacing.getRiseTime(enemyType, difficulty) * speed;
+        if (!jumping && distance - stepDistance < riseDistance) {
+            return BatchedRuns.ACTION_JUMP;
+        }
+        return BatchedRuns.ACTION_NONE;
+    }
+
+    private static int count(boolean[] values) {
+        int count = 0;
+        for (boolean value : values) {
+            if (value) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * The stage's side of the player
+     */
+    private static class PolicyController implements RunnerController {
+
+        private final boolean dodges;
+
+        PolicyController(boolean dodges) {
+            this.dodges = dodges;
+        }
+
+        @Override
+        public void reset() {
+        }
+
+        @Override
+        public void control(Runner runner, Observation observation, long stepEndNanos) {
+            boolean found = observation.getEnemyCount() > 0;
+            int action = decide(found ? observation.getEnemyType(0) : null,
+                    found ? observation.getEnemyFrontX(0) : 0,
+                    ObstacleSpacing.getSpeed(observation.getDifficulty()),
+                    observation.isJumping(), observation.isDodging(),
+                    observation.getDifficulty(), dodges);
+            switch (action) {
+                case BatchedRuns.ACTION_JUMP:
+                    runner.jump();
+                    break;
+                case BatchedRuns.ACTION_DODGE:
+                    runner.dodge();
+                    break;
+                case BatchedRuns.ACTION_STOP_DODGE:
+                    runner.stopDodge();
+                    break;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.benchmarks.harness;
+
+import com.unocode.earthlingrun.benchmarks.headless.HeadlessGame;
+import com.unocode.earthlingrun.benchmarks.headless.RunPlayer;
+import com.unocode.earthlingrun.controllers.HeuristicBot;
+
+/**
+ * Hands the game to {@link HeuristicBot} for a number of seeded runs, as a smoke test of the
+ * whole stage. The bot plays the way the obstacle spacing expects, so every run must last
+ * {@code bot.seconds}; a death means the stage spawned something the generator didn't mean to.
+ * <p/>
+ * The speed it plays at is printed, but only checked when {@code bot.minTicksPerSecond} is set,
+ * since a floor measured on one machine doesn't hold on another.
+ * <p/>
+ * {@code bot.seeds} sets how many runs are played, seeded 1 to n.
+ */
+public class BotCheck {
+
+    public static void main(String[] args) {
+        int seeds = Integer.getInteger("bot.seeds", 10);
+        int seconds = Integer.getInteger("bot.seconds", 120);
+        Integer minTicksPerSecond = Integer.getInteger("bot.minTicksPerSecond");
+        int maxFrames = seconds * 60;
+
+        HeadlessGame.init();
+        RunPlayer player = new RunPlayer();
+        RunPlayer.Result result = new RunPlayer.Result();
+        HeuristicBot bot = new HeuristicBot();
+
+        boolean passed = true;
+        long ticks = 0;
+        long start = System.nanoTime();
+        for (int seed = 1; seed <= seeds; seed++) {
+            player.play(seed, bot, maxFrames, result);
+            ticks += result.getFrames();
+            System.out.println("Seed " + seed + ": " + result);
+            if (result.getKiller() != null) {
+                passed = false;
+            }
+        }
+        double ticksPerSecond = ticks * 1e9 / (System.nanoTime() - start);
+
+        System.out.println(String.format("%.0f ticks/s", ticksPerSecond));
+        if (!passed) {
+            System.out.println("The bot died before " + seconds + " seconds");
+        }
+        if (minTicksPerSecond != null && ticksPerSecond < minTicksPerSecond) {
+            System.out.println("The bot plays too slowly, minimum " + minTicksPerSecond +
+                    " ticks/s");
+            passed = false;
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.benchmarks.harness;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.unocode.earthlingrun.benchmarks.headless.InputTrack;
+import com.unocode.earthlingrun.benchmarks.headless.RunPlayer;
+import com.unocode.earthlingrun.enums.EnemyType;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * A recorded run: the seed and touches needed to replay it, and how it ended. Stored as plain
+ * text, one {@code key value...} pair per line, so a changed outcome shows up clearly in a diff
+ */
+public class GoldenRun {
+
+    private long seed;
+    private final InputTrack track = new InputTrack();
+    private final RunPlayer.Result expected = new RunPlayer.Result();
+
+    public GoldenRun(long seed) {
+        this.seed = seed;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public InputTrack getTrack() {
+        return track;
+    }
+
+    public RunPlayer.Result getExpected() {
+        return expected;
+    }
+
+    public static GoldenRun read(File file) {
+        GoldenRun run = new GoldenRun(0);
+        int frames = 0;
+        int score = 0;
+        EnemyType killer = null;
+
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new FileReader(file));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\\s+");
+                if (fields[0].equals("seed")) {
+                    run.seed = Long.parseLong(fields[1]);
+                } else if (fields[0].equals("frames")) {
+                    frames = Integer.parseInt(fields[1]);
+                } else if (fields[0].equals("score")) {
+                    score = Integer.parseInt(fields[1]);
+                } else if (fields[0].equals("killer")) {
+                    killer = fields[1].equals("none") ? null : EnemyType.valueOf(fields[1]);
+                } else if (fields[0].equals("input")) {
+                    run.track.add(Integer.parseInt(fields[1]),
+                            InputTrack.Action.valueOf(fields[2]));
+                } else {
+                    throw new GdxRuntimeException("Unknown key in " + file + ": " + line);
+                }
+            }
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't read " + file, e);
+        } finally {
+            close(reader);
+        }
+
+        run.expected.set(frames, score, killer);
+        return run;
+    }
+
+    public void write(File file) {
+        PrintWriter writer = null;
+        try {
+            writer = new PrintWriter(new FileWriter(file));
+            writer.println("# Recorded by GoldenRunSuite, replaying it must end the same way");
+            writer.println("seed " + seed);
+            writer.println("frames " + expected.getFrames());
+            writer.println("score " + expected.getScore());
+            writer.println("killer " + (expected.getKiller() == null ? "none" :
+                    expected.getKiller().name()));
+            for (int i = 0; i < track.size(); i++) {
+                writer.println("input " + track.getFrame(i) + " " + track.getAction(i).name());
+            }
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't write " + file, e);
+        } finally {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+
+    private static void close(BufferedReader reader) {
+        if (reader == null) {
+            return;
+        }
+        try {
+            reader.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.benchmarks.harness;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.unocode.earthlingrun.benchmarks.headless.InputTrack;
+import com.unocode.earthlingrun.benchmarks.headless.RunPlayer;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Replays the recorded runs in {@code golden.dir} and fails if any of them ends differently. A run
+ * must die on the same frame, to the same enemy type and with the same score it was recorded with.
+ * <p/>
+ * With {@code golden.throughput} set, it also fails if the simulation got slower. Speed is measured
+ * in simulation ticks per second over {@code golden.passes} passes after a warm-up pass, keeping
+ * the fastest one. Each pass replays the suite until enough ticks were played to time it reliably.
+ * It fails when it falls more than {@code golden.maxSlowdown} (a fraction, 0.2 by default) below
+ * the baseline in {@code throughput.properties}. The baseline depends on the machine, so this is
+ * only meaningful on the machine that recorded it, and is left out of the outcome check for that
+ * reason. Every result is also written to {@code golden.report} as JSON.
+ * <p/>
+ * With {@code golden.record} set, {@code golden.runs} new runs are recorded from random touches
+ * instead, replacing the existing ones, and the baseline is measured again. With
+ * {@code golden.updateBaseline} set, only the baseline is.
+ */
+public class GoldenRunSuite {
+
+    private static final int MAX_FRAMES = 60 * 60;
+    private static final int JUMP_CHANCE = 20;
+    private static final int DODGE_CHANCE = 60;
+    private static final int DODGE_FRAMES = 30;
+    private static final long MIN_PASS_TICKS = 30000;
+    private static final String RUN_FILE_FORMAT = "run_%03d.txt";
+    private static final String RUN_FILE_SUFFIX = ".txt";
+    private static final String BASELINE_FILE = "throughput.properties";
+    private static final String BASELINE_KEY = "ticksPerSecond";
+
+    private final RunPlayer player = new RunPlayer();
+    private final RunPlayer.Result result = new RunPlayer.Result();
+
+    public static void main(String[] args) {
+        File directory = new File(System.getProperty("golden.dir", "golden"));
+        int passes = Integer.getInteger("golden.passes", 5);
+        double maxSlowdown = Double.parseDouble(System.getProperty("golden.maxSlowdown", "0.2"));
+        String report = System.getProperty("golden.report");
+
+        boolean recording = Boolean.getBoolean("golden.record");
+        boolean updatingBaseline = recording || Boolean.getBoolean("golden.updateBaseline");
+
+        GoldenRunSuite suite = new GoldenRunSuite();
+        if (recording) {
+            suite.record(directory, Integer.getInteger("golden.runs", 20));
+        }
+
+        Array<GoldenRun> runs = load(directory);
+        int mismatches = suite.verify(runs);
+        System.out.println((runs.size - mismatches) + " of " + runs.size + " golden runs match");
+
+        boolean passed = mismatches == 0;
+        if (!updatingBaseline && !Boolean.getBoolean("golden.throughput")) {
+            if (report != null) {
+                writeReport(new File(report), runs.size, mismatches);
+            }
+            System.exit(passed ? 0 : 1);
+        }
+
+        // The first pass warms the JIT up
+        suite.measure(runs);
+        double ticksPerSecond = 0;
+        for (int i = 0; i < passes; i++) {
+            ticksPerSecond = Math.max(ticksPerSecond, suite.measure(runs));
+        }
+
+        File baselineFile = new File(directory, BASELINE_FILE);
+        if (updatingBaseline) {
+            writeBaseline(baselineFile, ticksPerSecond);
+        }
+        double baseline = readBaseline(baselineFile);
+        double slowdown = 1 - ticksPerSecond / baseline;
+        System.out.println(String.format("%.0f ticks/s, baseline %.0f ticks/s (%+.1f%%)",
+                ticksPerSecond, baseline, -slowdown * 100));
+
+        if (report != null) {
+            writeReport(new File(report), runs.size, mismatches, ticksPerSecond, baseline);
+        }
+
+        if (slowdown > maxSlowdown) {
+            System.out.println(String.format("Simulation is %.1f%% slower than its baseline, " +
+                    "%.1f%% is allowed", slowdown * 100, maxSlowdown * 100));
+            passed = false;
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Replaces the runs in the given directory with new runs played from random touches
+     */
+    public void record(File directory, int count) {
+        directory.mkdirs();
+        for (File file : listRunFiles(directory)) {
+            file.delete();
+        }
+
+        for (int i = 1; i <= count; i++) {
+            InputTrack played = InputTrack.random(i, MAX_FRAMES, JUMP_CHANCE, DODGE_CHANCE,
+                    DODGE_FRAMES);
+            player.play(i, played, MAX_FRAMES, result);
+
+            // Touches after the run ended were never applied
+            GoldenRun run = new GoldenRun(i);
+            for (int j = 0; j < played.size() && played.getFrame(j) < result.getFrames(); j++) {
+                run.getTrack().add(played.getFrame(j), played.getAction(j));
+            }
+            run.getExpected().set(result.getFrames(), result.getScore(), result.getKiller());
+            run.write(new File(directory, String.format(RUN_FILE_FORMAT, i)));
+            System.out.println("Recorded seed " + i + ": " + result);
+        }
+    }
+
+    /**
+     * @return the number of runs that didn't end the way they were recorded
+     */
+    public int verify(Array<GoldenRun> runs) {
+        int mismatches = 0;
+        for (GoldenRun run : runs) {
+            player.play(run.getSeed(), run.getTrack(), MAX_FRAMES, result);
+            if (!result.isSameAs(run.getExpected())) {
+                System.out.println("Seed " + run.getSeed() + " " + result + ", expected " +
+                        run.getExpected());
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+
+    /**
+     * Replays every run, as many times as needed to play at least {@code MIN_PASS_TICKS} ticks
+     *
+     * @return the simulation ticks played per second
+     */
+    public double measure(Array<GoldenRun> runs) {
+        long ticks = 0;
+        long start = System.nanoTime();
+        while (ticks < MIN_PASS_TICKS) {
+            for (GoldenRun run : runs) {
+                player.play(run.getSeed(), run.getTrack(), MAX_FRAMES, result);
+                ticks += result.getFrames();
+            }
+        }
+        return ticks / ((System.nanoTime() - start) / 1e9);
+    }
+
+    static Array<GoldenRun> load(File directory) {
+        File[] files = listRunFiles(directory);
+        if (files.length == 0) {
+            throw new GdxRuntimeException("No golden runs in " + directory.getAbsolutePath() +
+                    ", record them with -Dgolden.record=true");
+        }
+        Arrays.sort(files);
+
+        Array<GoldenRun> runs = new Array<GoldenRun>(files.length);
+        for (File file : files) {
+            runs.add(GoldenRun.read(file));
+        }
+        return runs;
+    }
+
+    private static File[] listRunFiles(File directory) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return new File[0];
+        }
+
+        Array<File> runFiles = new Array<File>(File.class);
+        for (File file : files) {
+            if (file.getName().endsWith(RUN_FILE_SUFFIX)) {
+                runFiles.add(file);
+            }
+        }
+        return runFiles.toArray();
+    }
+
+    private static double readBaseline(File file) {
+        Properties properties = new Properties();
+        FileReader reader = null;
+        try {
+            reader = new FileReader(file);
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't read the baseline in " + file +
+                    ", record it with -Dgolden.updateBaseline=true", e);
+        } finally {
+            close(reader);
+        }
+        return Double.parseDouble(properties.getProperty(BASELINE_KEY));
+    }
+
+    private static void writeBaseline(File file, double ticksPerSecond) {
+        write(file, "# Simulation ticks per second measured by GoldenRunSuite\n" + BASELINE_KEY +
+                "=" + Math.round(ticksPerSecond) + "\n");
+    }
+
+    private static void writeReport(File file, int runs, int mismatches) {
+        file.getParentFile().mkdirs();
+        write(file, String.format("{\"runs\":%d,\"mismatches\":%d}\n", runs, mismatches));
+    }
+
+    private static void writeReport(File file, int runs, int mismatches, double ticksPerSecond,
+            double baseline) {
+        file.getParentFile().mkdirs();
+        write(file, String.format("{\"runs\":%d,\"mismatches\":%d,\"ticksPerSecond\":%.0f," +
+                "\"baselineTicksPerSecond\":%.0f}\n", runs, mismatches, ticksPerSecond, baseline));
+    }
+
+    private static void write(File file, String text) {
+        PrintWriter writer = null;
+        try {
+            writer = new PrintWriter(new FileWriter(file));
+            writer.print(text);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't write " + file, e);
+        } finally {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+
+    private static void close(FileReader reader) {
+        if (reader == null) {
+            return;
+        }
+        try {
+            reader.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+}
@@ -0,0 +1,399 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.benchmarks.harness;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.Contact;
+import com.badlogic.gdx.physics.box2d.ContactImpulse;
+import com.badlogic.gdx.physics.box2d.ContactListener;
+import com.badlogic.gdx.physics.box2d.Manifold;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.unocode.earthlingrun.actors.Enemies;
+import com.unocode.earthlingrun.actors.Runner;
+import com.unocode.earthlingrun.benchmarks.headless.HeadlessGame;
+import com.unocode.earthlingrun.box2d.EnemyUserData;
+import com.unocode.earthlingrun.box2d.RunnerUserData;
+import com.unocode.earthlingrun.enums.EnemyType;
+import com.unocode.earthlingrun.enums.ObstaclePattern;
+import com.unocode.earthlingrun.enums.PhysicsProfile;
+import com.unocode.earthlingrun.stages.GameStage;
+import com.unocode.earthlingrun.utils.BodyUtils;
+import com.unocode.earthlingrun.utils.Constants;
+import com.unocode.earthlingrun.utils.Difficulty;
+import com.unocode.earthlingrun.utils.DifficultyCurve;
+import com.unocode.earthlingrun.utils.GameManager;
+import com.unocode.earthlingrun.utils.ObstacleGenerator;
+import com.unocode.earthlingrun.utils.ObstacleSpacing;
+import com.unocode.earthlingrun.utils.PhysicsStepController;
+import com.unocode.earthlingrun.utils.RandomUtils;
+import com.unocode.earthlingrun.utils.WorldUtils;
+
+/**
+ * Checks offline that everything the obstacle generator can produce is survivable. At every
+ * keyframe of the difficulty curve it lays out every pattern followed by every pattern, spaced the
+ * way the stage spaces them, plus a long stream straight from {@link ObstacleGenerator}, and
+ * plays them in a real Box2D
+ * world with a player that moves as late as {@link ObstacleSpacing} allows: he jumps once an
+ * enemy is his rise time away, lies down just before a flying enemy arrives and gets up once it
+ * has passed. Any hit fails the check and names the enemies that caused it.
+ * <p/>
+ * Between keyframes it only checks that every enemy can still be jumped or dodged at all.
+ * <p/>
+ * It then plays the stage itself up the curve and on at its top, with the runner floating out of
+ * the enemies' way, and fails if the stage spawns an enemy closer to the one before it than
+ * {@link ObstacleSpacing} allows, including when that enemy has already left the world.
+ * <p/>
+ * {@code obstacles.streamLength} sets how many generated enemies are played per keyframe and
+ * {@code obstacles.stageSpawns} how many enemies the stage spawns at the top of the curve.
+ */
+public class ObstaclePatternCheck {
+
+    private static final long SEED = 0x0B57AC1EL;
+    private static final float TICK_DELTA = 1 / 60f;
+    // Well above the highest enemy, where the runner floats while the stage plays
+    private static final float FLOAT_HEIGHT = 10f;
+    // The first enemy starts this far in front of the runner
+    private static final float RUN_UP = 10f;
+    private static final float RUNNER_FRONT = Constants.RUNNER_X +
+            Math.max(Constants.RUNNER_WIDTH, Constants.RUNNER_HEIGHT) / 2;
+    private static final float RUNNER_BACK = Constants.RUNNER_X -
+            Math.max(Constants.RUNNER_WIDTH, Constants.RUNNER_HEIGHT) / 2;
+
+    private final PhysicsProfile profile = PhysicsProfile.HIGH;
+    private final Array<EnemyType> sequence = new Array<EnemyType>();
+    // The gap in front of each enemy of the sequence, in world units
+    private final FloatArray gaps = new FloatArray();
+    private final FloatArray fronts = new FloatArray();
+    private final Array<Body> enemies = new Array<Body>();
+    private final Vector2 impulse = new Vector2();
+
+    private World world;
+    private Body runner;
+    private boolean hit;
+    private boolean grounded;
+    private boolean dodging;
+    private EnemyType killer;
+    private int killerIndex;
+
+    public static void main(String[] args) {
+        int streamLength = Integer.getInteger("obstacles.streamLength", 200);
+        int stageSpawns = Integer.getInteger("obstacles.stageSpawns", 100);
+
+        HeadlessGame.init();
+        ObstaclePatternCheck check = new ObstaclePatternCheck();
+        ObstaclePattern[] patterns = ObstaclePattern.values();
+        DifficultyCurve curve = GameManager.getInstance().getDifficultyCurve();
+        Difficulty difficulty = new Difficulty();
+        int failures = 0;
+        int played = 0;
+        for (int sample = 0; sample < curve.getSampleCount(); sample++) {
+            curve.get(sample, difficulty);
+            for (EnemyType enemyType : EnemyType.values()) {
+                if (!ObstacleSpacing.isPassable(enemyType, difficulty)) {
+                    System.out.println("Sample " + sample + ": " + enemyType +
+                            " can't be passed at all");
+                    failures++;
+                }
+            }
+        }
+
+        for (int keyframe = 0; keyframe < curve.getKeyframeCount(); keyframe++) {
+            curve.sample(curve.getKeyframeTime(keyframe), difficulty);
+            String name = "Level " + difficulty.getLevel();
+
+            for (ObstaclePattern first : patterns) {
+                for (ObstaclePattern second : patterns) {
+                    check.clear();
+                    check.layOut(first, difficulty);
+                    check.layOut(second, difficulty);
+                    played++;
+                    if (!check.play(difficulty)) {
+                        System.out.println(name + ": " + first + " then " + second +
+                                " hits the runner at enemy " + check.killerIndex + " (" +
+                                check.killer + ")");
+                        failures++;
+                    }
+                }
+            }
+
+            RandomUtils.setSeed(SEED);
+            ObstacleGenerator generator = new ObstacleGenerator();
+            check.clear();
+            for (int i = 0; i < streamLength; i++) {
+                check.gaps.add(generator.getNextGap(difficulty));
+                check.sequence.add(generator.next());
+            }
+            played++;
+            if (!check.play(difficulty)) {
+                System.out.println(name + ": the generated stream hits the runner at enemy " +
+                        check.killerIndex + " (" + check.killer + ")");
+                failures++;
+            }
+        }
+
+        played++;
+        failures += checkStageSpacing(stageSpawns);
+
+        System.out.println(played + " sequences played, " + failures + " failures");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    /**
+     * Runs the stage up the difficulty curve and on at its top until it has spawned the given
+     * number of enemies there, and measures each gap from where the enemy before it is, or would
+     * be had it stayed in the world
+     *
+     * @return how many gaps were too short
+     */
+    private static int checkStageSpacing(int spawns) {
+        GameStage stage = HeadlessGame.createStage();
+        HeadlessGame.startRun(stage);
+        Runner runner = null;
+        Enemies enemies = null;
+        for (Actor actor : stage.getActors()) {
+            if (actor instanceof Runner) {
+                runner = (Runner) actor;
+            } else if (actor instanceof Enemies) {
+                enemies = (Enemies) actor;
+            }
+        }
+        Rectangle runnerBounds = new Rectangle();
+
+        DifficultyCurve curve = GameManager.getInstance().getDifficultyCurve();
+        float top = curve.getKeyframeTime(curve.getKeyframeCount() - 1);
+        Difficulty difficulty = GameManager.getInstance().getDifficulty();
+        EnemyType lastType = null;
+        float lastBack = 0;
+        float time = 0;
+        int spawned = 0;
+        int failures = 0;
+        int maxFrames = (int) ((top + spawns * 5) / TICK_DELTA);
+        for (int frame = 0; spawned < spawns && frame < maxFrames; frame++) {
+            stage.act(TICK_DELTA);
+            time += TICK_DELTA;
+            // The runner floats above the enemies, so they pass under him and the run never ends
+            runner.setGravityScale(0);
+            if (runner.getBounds(runnerBounds).y < FLOAT_HEIGHT) {
+                runner.landed();
+                runner.jump();
+            }
+
+            // Where the last enemy is, or would be had it stayed in the world
+            float frameDistance = difficulty.getEnemyLinearVelocity().x * TICK_DELTA;
+            lastBack += frameDistance;
+            if (!enemies.hasLast()) {
+                continue;
+            }
+            float back = enemies.getLastBackX();
+            // Positions are read once a frame, so allow a frame's travel either way
+            if (lastType != null && back - lastBack < -frameDistance) {
+                lastBack = back;
+                continue;
+            }
+
+            EnemyType type = enemies.getType(enemies.getSize() - 1);
+            if (lastType != null) {
+                float gap = back - type.getWidth() - lastBack;
+                float minimum = ObstacleSpacing.getMinimumGap(lastType, type, difficulty);
+                if (gap < minimum + frameDistance) {
+                    System.out.println("Level " + difficulty.getLevel() + ": the stage spawned " +
+                            type + " " + gap + " behind " + lastType + ", which needs " +
+                            minimum);
+                    failures++;
+                }
+            }
+            lastType = type;
+            lastBack = back;
+            if (time >= top) {
+                spawned++;
+            }
+        }
+        if (spawned < spawns) {
+            System.out.println("The stage only spawned " + spawned + " of " + spawns +
+                    " enemies at the top of the curve");
+            failures++;
+        }
+        stage.dispose();
+        return failures;
+    }
+
+    private void clear() {
+        sequence.clear();
+        gaps.clear();
+    }
+
+    /**
+     * Adds the pattern's enemies to the sequence with the gaps {@link ObstacleGenerator} gives
+     * them
+     */
+    private void layOut(ObstaclePattern pattern, Difficulty difficulty) {
+        for (int i = 0; i < pattern.getLength(); i++) {
+            EnemyType enemyType = pattern.getEnemy(i);
+            float gap = pattern.getSlack(i) * ObstacleSpacing.getSpeed(difficulty);
+            if (sequence.size > 0) {
+                gap += ObstacleSpacing.getMinimumGap(sequence.peek(), enemyType, difficulty);
+            }
+            sequence.add(enemyType);
+            gaps.add(gap);
+        }
+    }
+
+    /**
+     * Lays the sequence out in a fresh world and plays it until every enemy has passed
+     *
+     * @return whether the runner made it
+     */
+    private boolean play(Difficulty difficulty) {
+        setUpWorld(difficulty);
+
+        // Where each enemy's front starts out, were they all laid out at once
+        fronts.clear();
+        float front = RUNNER_FRONT + RUN_UP;
+        for (int i = 0; i < sequence.size; i++) {
+            if (i > 0) {
+                front += sequence.get(i - 1).getWidth() + gaps.get(i);
+            }
+            fronts.add(front);
+        }
+
+        // Enemies only enter the world at the stage's spawn point, so it stays small
+        float stepDistance = ObstacleSpacing.getSpeed(difficulty) * profile.getTimeStep();
+        float travelled = 0;
+        int spawned = 0;
+        int passed = 0;
+        while (passed < sequence.size && !hit) {
+            while (spawned < sequence.size &&
+                    fronts.get(spawned) - travelled <= getSpawnFront(sequence.get(spawned))) {
+                spawn(sequence.get(spawned), fronts.get(spawned) - travelled, difficulty);
+                spawned++;
+            }
+
+            EnemyType nextType = sequence.get(passed);
+            float distance = fronts.get(passed) - travelled - RUNNER_FRONT;
+            if (distance + nextType.getWidth() < RUNNER_BACK - RUNNER_FRONT) {
+                WorldUtils.destroyBody(world, enemies.removeIndex(0));
+                passed++;
+                continue;
+            }
+            killerIndex = passed;
+            act(nextType, distance, stepDistance, difficulty);
+            world.step(profile.getTimeStep(), profile.getVelocityIterations(),
+                    profile.getPositionIterations());
+            travelled += stepDistance;
+        }
+
+        boolean survived = !hit;
+        WorldUtils.disposeWorld(world);
+        enemies.clear();
+        return survived;
+    }
+
+    private float getSpawnFront(EnemyType enemyType) {
+        return enemyType.getX() - enemyType.getWidth() / 2;
+    }
+
+    private void spawn(EnemyType enemyType, float front, Difficulty difficulty) {
+        Body enemy = WorldUtils.createEnemy(world, enemyType);
+        enemy.setTransform(front + enemyType.getWidth() / 2, enemyType.getY(), 0);
+        enemy.setLinearVelocity(difficulty.getEnemyLinearVelocity());
+        enemies.add(enemy);
+    }
+
+    /**
+     * Moves for the nearest enemy that hasn't passed the runner yet, as late as possible
+     */
+    private void act(EnemyType enemyType, float distance, float stepDistance,
+            Difficulty difficulty) {
+        RunnerUserData userData = (RunnerUserData) runner.getUserData();
+        float speed = ObstacleSpacing.getSpeed(difficulty);
+        if (enemyType.isFlying()) {
+            if (!dodging && grounded && distance <= stepDistance * 2) {
+                runner.setTransform(userData.getDodgePosition(), userData.getDodgeAngle());
+                dodging = true;
+            }
+            return;
+        }
+
+        if (dodging) {
+            runner.setTransform(userData.getRunningPosition(), 0f);
+            dodging = false;
+        }
+        float riseDistance = ObstacleSpacing.getRiseTime(enemyType, difficulty) * speed;
+        if (grounded && distance - stepDistance < riseDistance) {
+            float gravity = world.getGravity().y * runner.getGravityScale();
+            impulse.set(difficulty.getRunnerJumpingLinearImpulse());
+            impulse.y += runner.getMass() *
+                    PhysicsStepController.getInstance().getTakeOffCompensation(gravity);
+            runner.applyLinearImpulse(impulse, runner.getWorldCenter(), true);
+            grounded = false;
+        }
+    }
+
+    private void setUpWorld(Difficulty difficulty) {
+        world = WorldUtils.createWorld();
+        world.setContactListener(new RunContactListener());
+        WorldUtils.createGround(world);
+        runner = WorldUtils.createRunner(world);
+        runner.setGravityScale(difficulty.getRunnerGravityScale());
+        runner.resetMassData();
+        hit = false;
+        grounded = true;
+        dodging = false;
+        killer = null;
+        killerIndex = 0;
+    }
+
+    /**
+     * Tracks hits and landings the way the stage does
+     */
+    private class RunContactListener implements ContactListener {
+
+        @Override
+        public void beginContact(Contact contact) {
+            Body a = contact.getFixtureA().getBody();
+            Body b = contact.getFixtureB().getBody();
+            if (BodyUtils.bodyIsRunner(a) || BodyUtils.bodyIsRunner(b)) {
+                Body other = BodyUtils.bodyIsRunner(a) ? b : a;
+                if (BodyUtils.bodyIsEnemy(other)) {
+                    hit = true;
+                    killer = ((EnemyUserData) other.getUserData()).getEnemyType();
+                } else if (BodyUtils.bodyIsGround(other)) {
+                    grounded = true;
+                }
+            }
+        }
+
+        @Override
+        public void endContact(Contact contact) {
+        }
+
+        @Override
+        public void preSolve(Contact contact, Manifold oldManifold) {
+        }
+
+        @Override
+        public void postSolve(Contact contact, ContactImpulse impulse) {
+        }
+
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.benchmarks.harness;
+
+import com.unocode.earthlingrun.actors.menu.AboutButton;
+import com.unocode.earthlingrun.benchmarks.headless.HeadlessGame;
+import com.unocode.earthlingrun.enums.GameState;
+import com.unocode.earthlingrun.metrics.Box2DTracker;
+import com.unocode.earthlingrun.metrics.Gauge;
+import com.unocode.earthlingrun.stages.GameStage;
+import com.unocode.earthlingrun.utils.GameManager;
+
+/**
+ * Goes through the stage's restart paths over and over and fails if live Box2D objects pile up.
+ * Each cycle starts a run, lets the runner die, opens the about screen and goes back to the menu,
+ * which resets the stage three times. The counts after {@code leak.cycles} cycles must not be
+ * higher than after the first {@code leak.warmUpCycles}.
+ */
+public class RestartLeakCheck {
+
+    private static final float TICK_DELTA = 1 / 60f;
+    private static final int MAX_RUN_FRAMES = 60 * 60;
+
+    private static final Gauge[] TRACKED = new Gauge[] {
+            Box2DTracker.WORLDS, Box2DTracker.BODIES, Box2DTracker.FIXTURES, Box2DTracker.SHAPES,
+            Box2DTracker.NATIVE_BYTES
+    };
+    private static final String[] TRACKED_NAMES = new String[] {
+            "worlds", "bodies", "fixtures", "shapes", "estimated native bytes"
+    };
+
+    private GameStage stage;
+
+    public RestartLeakCheck() {
+        stage = HeadlessGame.createStage();
+    }
+
+    public static void main(String[] args) {
+        int warmUpCycles = Integer.getInteger("leak.warmUpCycles", 5);
+        int cycles = Integer.getInteger("leak.cycles", 200);
+
+        RestartLeakCheck check = new RestartLeakCheck();
+        for (int i = 0; i < warmUpCycles; i++) {
+            check.cycle();
+        }
+        long[] baseline = snapshot();
+        for (int i = 0; i < cycles; i++) {
+            check.cycle();
+        }
+        long[] current = snapshot();
+
+        boolean passed = true;
+        for (int i = 0; i < TRACKED.length; i++) {
+            System.out.println("Live " + TRACKED_NAMES[i] + ": " + baseline[i] + " after " +
+                    warmUpCycles + " cycles, " + current[i] + " after " + (warmUpCycles + cycles));
+            if (current[i] > baseline[i]) {
+                passed = false;
+            }
+        }
+        if (!passed) {
+            System.out.println("Box2D objects leak across restarts");
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Start, game over, about and back to the menu
+     */
+    public void cycle() {
+        HeadlessGame.startRun(stage);
+        int frame = 0;
+        while (GameManager.getInstance().getGameState() == GameState.RUNNING &&
+                frame < MAX_RUN_FRAMES) {
+            tick();
+            frame++;
+        }
+        if (GameManager.getInstance().getGameState() == GameState.RUNNING) {
+            // The runner left the screen without dying, go back to the menu through about
+            HeadlessGame.pressButton(stage, AboutButton.class);
+        }
+        tick();
+
+        HeadlessGame.pressButton(stage, AboutButton.class);
+        tick();
+        HeadlessGame.pressButton(stage, AboutButton.class);
+        tick();
+    }
+
+    private void tick() {
+        stage.draw();
+        stage.act(TICK_DELTA);
+    }
+
+    private static long[] snapshot() {
+        long[] values = new long[TRACKED.length];
+        for (int i = 0; i < TRACKED.length; i++) {
+            values[i] = TRACKED[i].get();
+        }
+        return values;
+    }
+
+}
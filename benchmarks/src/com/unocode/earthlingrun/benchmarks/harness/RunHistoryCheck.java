@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.benchmarks.harness;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.unocode.earthlingrun.benchmarks.headless.HeadlessGame;
+import com.unocode.earthlingrun.enums.EnemyType;
+import com.unocode.earthlingrun.utils.RunHistory;
+import com.unocode.earthlingrun.utils.RunRecord;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * Writes runs to a {@link RunHistory} and reads them back, memory-mapped and streamed, and fails
+ * if anything comes back different:
+ * <ul>
+ * <li>{@code history.runs} appended runs must come back field for field from
+ * {@link RunHistory#readAll}, the last ten from {@link RunHistory#readTail} and their totals from
+ * {@link RunHistory#summarize}.</li>
+ * <li>A log written in version 1 must be upgraded and read back the same, with no coins.</li>
+ * <li>A record with a killer this version doesn't know must be skipped and the others read.</li>
+ * <li>A version 1 log with such a record, and a file that isn't a run history, must be moved
+ * aside and read as empty.</li>
+ * </ul>
+ */
+public class RunHistoryCheck {
+
+    private static final String FILE_NAME = "run_history_check.bin";
+    private static final String UNREADABLE_SUFFIX = ".unreadable";
+    private static final int TAIL = 10;
+    private static final EnemyType[] ENEMY_TYPES = EnemyType.values();
+
+    // The on-disk format, written here by hand so the check doesn't trust RunHistory's own writer
+    private static final int MAGIC = 0x45525248;
+    private static final int HEADER_SIZE = 8;
+    private static final int VERSION_1_RECORD_SIZE = 44;
+    private static final int KILLER_OFFSET = 46;
+    private static final byte UNKNOWN_KILLER = 100;
+
+    private final int runs;
+    private final FileHandle file;
+    private final FileHandle unreadable;
+    private final Array<RunRecord> expected = new Array<RunRecord>();
+    private final Array<RunRecord> read = new Array<RunRecord>();
+    private final RunHistory.Visitor collector = new RunHistory.Visitor() {
+        @Override
+        public void visit(RunRecord record) {
+            read.add(new RunRecord().set(record));
+        }
+    };
+
+    public RunHistoryCheck(int runs) {
+        HeadlessGame.init();
+        this.runs = runs;
+        file = Gdx.files.local(FILE_NAME);
+        unreadable = file.sibling(file.name() + UNREADABLE_SUFFIX);
+        Random random = new Random(runs);
+        for (int i = 0; i < runs; i++) {
+            expected.add(randomRun(random, i));
+        }
+    }
+
+    public static void main(String[] args) {
+        RunHistoryCheck check = new RunHistoryCheck(Integer.getInteger("history.runs", 10000));
+        boolean passed = true;
+        for (boolean mapped : new boolean[] { true, false }) {
+            String reader = mapped ? "Mapped" : "Streamed";
+            passed &= report(reader + " round trip", check.roundTrip(mapped));
+            passed &= report(reader + " upgrade from version 1", check.upgrade(mapped));
+            passed &= report(reader + " corrupt record", check.corruptRecord(mapped));
+            passed &= report(reader + " corrupt version 1 log", check.corruptUpgrade(mapped));
+            passed &= report(reader + " foreign file", check.foreignFile(mapped));
+        }
+        check.clean();
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static boolean report(String name, boolean passed) {
+        System.out.println(name + ": " + (passed ? "ok" : "FAILED"));
+        return passed;
+    }
+
+    public boolean roundTrip(boolean mapped) {
+        clean();
+        RunHistory history = new RunHistory(file, mapped);
+        for (RunRecord run : expected) {
+            history.append(run);
+        }
+        return history.size() == runs && matchesAll(history, false) && matchesTail(history) &&
+                matchesSummary(history, false);
+    }
+
+    public boolean upgrade(boolean mapped) {
+        clean();
+        writeVersion1(-1);
+        RunHistory history = new RunHistory(file, mapped);
+        return history.size() == runs && matchesAll(history, true) &&
+                matchesSummary(history, true) &&
+                file.length() == HEADER_SIZE + (long) runs * RunHistory.RECORD_SIZE;
+    }
+
+    public boolean corruptRecord(boolean mapped) {
+        clean();
+        RunHistory history = new RunHistory(file, mapped);
+        for (RunRecord run : expected) {
+            history.append(run);
+        }
+        int corrupt = runs / 2;
+        byte[] bytes = file.readBytes();
+        bytes[HEADER_SIZE + corrupt * RunHistory.RECORD_SIZE + KILLER_OFFSET] = UNKNOWN_KILLER;
+        file.writeBytes(bytes, false);
+
+        read.clear();
+        history = new RunHistory(file, mapped);
+        history.readAll(collector);
+        if (read.size != runs - 1) {
+            return false;
+        }
+        for (int i = 0; i < read.size; i++) {
+            if (!same(read.get(i), expected.get(i < corrupt ? i : i + 1), false)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean corruptUpgrade(boolean mapped) {
+        clean();
+        writeVersion1(runs / 2);
+        RunHistory history = new RunHistory(file, mapped);
+        return history.size() == 0 && unreadable.exists() && !file.exists();
+    }
+
+    public boolean foreignFile(boolean mapped) {
+        clean();
+        file.writeString("Not a run history, but long enough for a header", false);
+        RunHistory history = new RunHistory(file, mapped);
+        return history.summarize().getRuns() == 0 && unreadable.exists() && !file.exists();
+    }
+
+    private boolean matchesAll(RunHistory history, boolean upgraded) {
+        read.clear();
+        history.readAll(collector);
+        if (read.size != runs) {
+            return false;
+        }
+        for (int i = 0; i < runs; i++) {
+            if (!same(read.get(i), expected.get(i), upgraded)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matchesTail(RunHistory history) {
+        read.clear();
+        history.readTail(TAIL, collector);
+        int count = Math.min(TAIL, runs);
+        if (read.size != count) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            if (!same(read.get(i), expected.get(runs - count + i), false)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matchesSummary(RunHistory history, boolean upgraded) {
+        RunHistory.Summary summary = new RunHistory.Summary();
+        RunRecord withoutCoins = new RunRecord();
+        for (RunRecord run : expected) {
+            if (upgraded) {
+                withoutCoins.set(run).coins = 0;
+                summary.visit(withoutCoins);
+            } else {
+                summary.visit(run);
+            }
+        }
+
+        RunHistory.Summary actual = history.summarize();
+        boolean deathsMatch = true;
+        for (EnemyType enemyType : ENEMY_TYPES) {
+            deathsMatch &= actual.getDeaths(enemyType) == summary.getDeaths(enemyType);
+        }
+        return deathsMatch && actual.getRuns() == summary.getRuns() &&
+                actual.getTotalScore() == summary.getTotalScore() &&
+                actual.getBestScore() == summary.getBestScore() &&
+                actual.getTotalJumps() == summary.getTotalJumps() &&
+                actual.getTotalDoubleJumps() == summary.getTotalDoubleJumps() &&
+                actual.getTotalPowerStomps() == summary.getTotalPowerStomps() &&
+                actual.getTotalDurationMillis() == summary.getTotalDurationMillis() &&
+                actual.getTotalCoins() == summary.getTotalCoins() &&
+                actual.getMaxDifficulty() == summary.getMaxDifficulty();
+    }
+
+    /**
+     * Writes the expected runs as a version 1 log, giving the run at {@code corrupt} a killer
+     * that doesn't exist
+     */
+    private void writeVersion1(int corrupt) {
+        ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + runs * VERSION_1_RECORD_SIZE);
+        out.putInt(MAGIC).putShort((short) 1).putShort((short) VERSION_1_RECORD_SIZE);
+        for (int i = 0; i < runs; i++) {
+            RunRecord run = expected.get(i);
+            out.putLong(run.timestamp);
+            out.putLong(run.seed);
+            out.putInt(run.score);
+            out.putInt(run.multiplier);
+            out.putInt(run.jumpCount);
+            out.putInt(run.doubleJumpCount);
+            out.putInt(run.powerStompCount);
+            out.putInt(run.durationMillis);
+            out.putShort((short) run.difficulty);
+            if (i == corrupt) {
+                out.put(UNKNOWN_KILLER);
+            } else {
+                out.put(run.killer != null ? (byte) run.killer.ordinal() : (byte) -1);
+            }
+            out.put((byte) 0);
+        }
+        file.writeBytes(out.array(), false);
+    }
+
+    private void clean() {
+        file.delete();
+        unreadable.delete();
+    }
+
+    private static RunRecord randomRun(Random random, int index) {
+        RunRecord run = new RunRecord();
+        run.timestamp = 1500000000000L + index * 60000L;
+        run.seed = random.nextLong();
+        run.score = random.nextInt(100000);
+        run.multiplier = 1 + random.nextInt(10);
+        run.jumpCount = random.nextInt(500);
+        run.doubleJumpCount = random.nextInt(100);
+        run.powerStompCount = random.nextInt(50);
+        run.difficulty = random.nextInt(30);
+        run.durationMillis = random.nextInt(600000);
+        run.coins = random.nextInt(1000);
+        int killer = random.nextInt(ENEMY_TYPES.length + 1);
+        run.killer = killer < ENEMY_TYPES.length ? ENEMY_TYPES[killer] : null;
+        return run;
+    }
+
+    private static boolean same(RunRecord actual, RunRecord expected, boolean upgraded) {
+        return actual.timestamp == expected.timestamp && actual.seed == expected.seed &&
+                actual.score == expected.score && actual.multiplier == expected.multiplier &&
+                actual.jumpCount == expected.jumpCount &&
+                actual.doubleJumpCount == expected.doubleJumpCount &&
+                actual.powerStompCount == expected.powerStompCount &&
+                actual.difficulty == expected.difficulty &&
+                actual.durationMillis == expected.durationMillis &&
+                actual.coins == (upgraded ? 0 : expected.coins) &&
+                actual.killer == expected.killer;
+    }
+
+}
@@ -0,0 +1,350 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.benchmarks.harness;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.unocode.earthlingrun.actors.menu.AboutButton;
+import com.unocode.earthlingrun.benchmarks.headless.HeadlessGame;
+import com.unocode.earthlingrun.benchmarks.headless.InputTrack;
+import com.unocode.earthlingrun.benchmarks.headless.RunPlayer;
+import com.unocode.earthlingrun.metrics.Box2DTracker;
+import com.unocode.earthlingrun.metrics.FrameMetrics;
+import com.unocode.earthlingrun.stages.GameStage;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Plays thousands of games back to back through the stage's real transitions (start button,
+ * death, the delayed run commit, and every {@code soak.aboutEvery} games the about screen) and
+ * fails if memory, Box2D objects, actors or tick time grow over the session.
+ * <p/>
+ * Every {@code soak.sampleEvery} games, with the game over menu showing, it samples the Java heap
+ * left after a collection, direct buffer memory, the process's resident memory (Linux only),
+ * the estimated Box2D native memory, live bodies, stage actors and the mean tick time since the
+ * last sample. The first {@code soak.warmUp} of the samples (a fraction, 0.2 by default) are left
+ * out while class loading and the JIT settle. Of the rest:
+ * <ul>
+ * <li>heap and direct memory may not trend up by more than {@code soak.maxMemoryGrowth} bytes
+ * (1MB by default) over the session, judged by their least-squares slope</li>
+ * <li>resident memory may not trend up by more than {@code soak.maxResidentGrowth} bytes (16MB by
+ * default), since the allocator and the JIT move it around</li>
+ * <li>Box2D native memory, bodies and actors may not peak higher in the last quarter than in the
+ * first</li>
+ * <li>the median tick time of the last quarter may not be more than {@code soak.maxTickTimeGrowth}
+ * (0.25 by default) above that of the first</li>
+ * </ul>
+ * The session lasts {@code soak.games} games (1000 by default), or {@code soak.minutes} minutes
+ * when set. Samples are written as CSV to {@code soak.report} when set.
+ */
+public class SoakHarness {
+
+    private static final int MAX_FRAMES = 60 * 60;
+    private static final float TICK_DELTA = 1 / 60f;
+    private static final int JUMP_CHANCE = 20;
+    private static final int DODGE_CHANCE = 60;
+    private static final int DODGE_FRAMES = 30;
+    private static final String STATM_FILE = "/proc/self/statm";
+    private static final long PAGE_SIZE = 4096;
+
+    private final RunPlayer player = new RunPlayer();
+    private final RunPlayer.Result result = new RunPlayer.Result();
+    private final Array<Sample> samples = new Array<Sample>();
+    private final BufferPoolMXBean directPool = findDirectPool();
+
+    private int games;
+    private long ticks;
+    private long tickNanos;
+    private long startMillis;
+
+    public static void main(String[] args) {
+        int gameLimit = Integer.getInteger("soak.games", 1000);
+        long minutes = Long.getLong("soak.minutes", 0);
+        int sampleEvery = Integer.getInteger("soak.sampleEvery", 25);
+        int aboutEvery = Integer.getInteger("soak.aboutEvery", 10);
+        String report = System.getProperty("soak.report");
+
+        SoakHarness harness = new SoakHarness();
+        harness.startMillis = System.currentTimeMillis();
+        long endMillis = harness.startMillis + minutes * 60 * 1000;
+        while (minutes > 0 ? System.currentTimeMillis() < endMillis : harness.games < gameLimit) {
+            harness.playGame(aboutEvery);
+            if (harness.games % sampleEvery == 0) {
+                harness.sample();
+            }
+        }
+
+        if (report != null) {
+            harness.writeReport(new File(report));
+        }
+        boolean passed = harness.check(
+                Double.parseDouble(System.getProperty("soak.warmUp", "0.2")),
+                Long.getLong("soak.maxMemoryGrowth", 1024 * 1024),
+                Long.getLong("soak.maxResidentGrowth", 16 * 1024 * 1024),
+                Double.parseDouble(System.getProperty("soak.maxTickTimeGrowth", "0.25")));
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Plays one game with random touches, then waits on the game over menu until the run is
+     * committed
+     */
+    public void playGame(int aboutEvery) {
+        games++;
+        long start = System.nanoTime();
+        player.play(games, InputTrack.random(games, MAX_FRAMES, JUMP_CHANCE, DODGE_CHANCE,
+                DODGE_FRAMES), MAX_FRAMES, result);
+        tickNanos += System.nanoTime() - start;
+        ticks += result.getFrames();
+
+        GameStage stage = player.getStage();
+        while (stage.getRoot().hasActions()) {
+            stage.draw();
+            stage.act(TICK_DELTA);
+        }
+
+        if (games % aboutEvery == 0) {
+            HeadlessGame.pressButton(stage, AboutButton.class);
+            stage.act(TICK_DELTA);
+            HeadlessGame.pressButton(stage, AboutButton.class);
+            stage.act(TICK_DELTA);
+        }
+    }
+
+    public void sample() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+
+        Sample sample = new Sample();
+        sample.games = games;
+        sample.elapsedMillis = System.currentTimeMillis() - startMillis;
+        sample.heapBytes = runtime.totalMemory() - runtime.freeMemory();
+        sample.directBytes = directPool == null ? 0 : directPool.getMemoryUsed();
+        sample.residentBytes = readResidentBytes();
+        sample.box2dNativeBytes = Box2DTracker.NATIVE_BYTES.get();
+        sample.bodies = FrameMetrics.BODY_COUNT.get();
+        sample.actors = player.getStage().getActorCount();
+        sample.meanTickMicros = ticks == 0 ? 0 : tickNanos / 1000.0 / ticks;
+        samples.add(sample);
+
+        ticks = 0;
+        tickNanos = 0;
+    }
+
+    public boolean check(double warmUp, long maxMemoryGrowth, long maxResidentGrowth,
+            double maxTickTimeGrowth) {
+        int first = (int) (samples.size * warmUp);
+        int count = samples.size - first;
+        if (count < 4) {
+            throw new GdxRuntimeException("Only " + count + " samples after the warm-up, play " +
+                    "more games or sample more often");
+        }
+        int quarter = count / 4;
+        int lastQuarter = samples.size - quarter;
+        int games = samples.peek().games - samples.get(first).games;
+
+        System.out.println(this.games + " games, " + samples.size + " samples, judging the last " +
+                count);
+        boolean passed = true;
+        passed &= checkTrend("Java heap", first, games, maxMemoryGrowth, new Field() {
+            public double get(Sample sample) {
+                return sample.heapBytes;
+            }
+        });
+        passed &= checkTrend("Direct memory", first, games, maxMemoryGrowth, new Field() {
+            public double get(Sample sample) {
+                return sample.directBytes;
+            }
+        });
+        passed &= checkTrend("Resident memory", first, games, maxResidentGrowth, new Field() {
+            public double get(Sample sample) {
+                return sample.residentBytes;
+            }
+        });
+        passed &= checkPeak("Box2D native memory", first, lastQuarter, quarter, new Field() {
+            public double get(Sample sample) {
+                return sample.box2dNativeBytes;
+            }
+        });
+        passed &= checkPeak("Bodies", first, lastQuarter, quarter, new Field() {
+            public double get(Sample sample) {
+                return sample.bodies;
+            }
+        });
+        passed &= checkPeak("Actors", first, lastQuarter, quarter, new Field() {
+            public double get(Sample sample) {
+                return sample.actors;
+            }
+        });
+
+        Field tickTime = new Field() {
+            public double get(Sample sample) {
+                return sample.meanTickMicros;
+            }
+        };
+        // Medians, so a sample caught by a hiccup on the machine doesn't decide it
+        double before = median(tickTime, first, first + quarter);
+        double after = median(tickTime, lastQuarter, samples.size);
+        double growth = after / before - 1;
+        boolean tickTimePassed = growth <= maxTickTimeGrowth;
+        System.out.println(String.format("Tick time: %.1fus, then %.1fus (%+.1f%%)%s", before,
+                after, growth * 100, tickTimePassed ? "" : " FAILED"));
+        return passed && tickTimePassed;
+    }
+
+    /**
+     * Fits a line through the samples and fails if it rises by more than the given amount over
+     * the judged games
+     */
+    private boolean checkTrend(String name, int first, int games, long maxGrowth, Field field) {
+        double meanGames = 0;
+        double meanValue = 0;
+        int count = samples.size - first;
+        for (int i = first; i < samples.size; i++) {
+            meanGames += samples.get(i).games;
+            meanValue += field.get(samples.get(i));
+        }
+        meanGames /= count;
+        meanValue /= count;
+
+        double covariance = 0;
+        double variance = 0;
+        for (int i = first; i < samples.size; i++) {
+            double dx = samples.get(i).games - meanGames;
+            covariance += dx * (field.get(samples.get(i)) - meanValue);
+            variance += dx * dx;
+        }
+        double growth = variance == 0 ? 0 : covariance / variance * games;
+        boolean passed = growth <= maxGrowth;
+        System.out.println(String.format("%s: %.0fKB on average, trending %+.0fKB over %d games%s",
+                name, meanValue / 1024, growth / 1024, games, passed ? "" : " FAILED"));
+        return passed;
+    }
+
+    /**
+     * Fails if the highest value of the last quarter is above the highest of the first
+     */
+    private boolean checkPeak(String name, int first, int lastQuarter, int quarter, Field field) {
+        double before = max(field, first, first + quarter);
+        double after = max(field, lastQuarter, samples.size);
+        boolean passed = after <= before;
+        System.out.println(String.format("%s: peaked at %.0f, then %.0f%s", name, before, after,
+                passed ? "" : " FAILED"));
+        return passed;
+    }
+
+    private double max(Field field, int from, int to) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            max = Math.max(max, field.get(samples.get(i)));
+        }
+        return max;
+    }
+
+    private double median(Field field, int from, int to) {
+        double[] values = new double[to - from];
+        for (int i = from; i < to; i++) {
+            values[i - from] = field.get(samples.get(i));
+        }
+        Arrays.sort(values);
+        return values[values.length / 2];
+    }
+
+    private void writeReport(File file) {
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        PrintWriter writer = null;
+        try {
+            writer = new PrintWriter(new FileWriter(file));
+            writer.println("games,elapsed_ms,heap_bytes,direct_bytes,resident_bytes," +
+                    "box2d_native_bytes,bodies,actors,mean_tick_us");
+            for (Sample sample : samples) {
+                writer.println(sample.games + "," + sample.elapsedMillis + "," + sample.heapBytes +
+                        "," + sample.directBytes + "," + sample.residentBytes + "," +
+                        sample.box2dNativeBytes + "," + sample.bodies + "," + sample.actors + "," +
+                        String.format("%.2f", sample.meanTickMicros));
+            }
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't write " + file, e);
+        } finally {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+        System.out.println("Wrote " + samples.size + " samples to " + file);
+    }
+
+    private static BufferPoolMXBean findDirectPool() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(
+                BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                return pool;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the process's resident set size, or 0 where /proc isn't available
+     */
+    private static long readResidentBytes() {
+        File file = new File(STATM_FILE);
+        if (!file.exists()) {
+            return 0;
+        }
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new FileReader(file));
+            return Long.parseLong(reader.readLine().split(" ")[1]) * PAGE_SIZE;
+        } catch (IOException e) {
+            return 0;
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private interface Field {
+        double get(Sample sample);
+    }
+
+    private static class Sample {
+        int games;
+        long elapsedMillis;
+        long heapBytes;
+        long directBytes;
+        long residentBytes;
+        long box2dNativeBytes;
+        long bodies;
+        long actors;
+        double meanTickMicros;
+    }
+
+}
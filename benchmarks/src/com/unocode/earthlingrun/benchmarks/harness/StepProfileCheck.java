@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.benchmarks.harness;
+
+import com.badlogic.gdx.utils.Array;
+import com.unocode.earthlingrun.benchmarks.headless.InputTrack;
+import com.unocode.earthlingrun.benchmarks.headless.RunPlayer;
+import com.unocode.earthlingrun.enums.PhysicsProfile;
+import com.unocode.earthlingrun.utils.PhysicsStepController;
+
+import java.io.File;
+
+/**
+ * Checks that every {@link PhysicsProfile} plays the same game as {@link PhysicsProfile#HIGH}.
+ * The recorded runs in {@code physics.goldenDir} are replayed at every profile and must end with
+ * the score, frame and killer they were recorded with. Then each of {@code physics.seeds} seeds
+ * is played once per profile with the same random jumps and dodges, and the check fails if on any
+ * seed a cheaper profile ends the run differently from {@link PhysicsProfile#HIGH}.
+ */
+public class StepProfileCheck {
+
+    private static final int MAX_FRAMES = 60 * 60;
+    private static final int JUMP_CHANCE = 20;
+    private static final int DODGE_CHANCE = 60;
+    private static final int DODGE_FRAMES = 30;
+
+    private final RunPlayer player = new RunPlayer();
+
+    public static void main(String[] args) {
+        File goldenDirectory = new File(System.getProperty("physics.goldenDir", "golden"));
+        int seeds = Integer.getInteger("physics.seeds", 100);
+
+        PhysicsProfile[] profiles = PhysicsProfile.values();
+        boolean passed = true;
+
+        GoldenRunSuite suite = new GoldenRunSuite();
+        Array<GoldenRun> runs = GoldenRunSuite.load(goldenDirectory);
+        for (PhysicsProfile profile : profiles) {
+            PhysicsStepController.getInstance().setProfile(profile);
+            int mismatches = suite.verify(runs);
+            System.out.println(profile + ": " + (runs.size - mismatches) + " of " + runs.size +
+                    " golden runs match");
+            if (mismatches > 0) {
+                passed = false;
+            }
+        }
+
+        StepProfileCheck check = new StepProfileCheck();
+        int[] divergent = new int[profiles.length];
+        RunPlayer.Result reference = new RunPlayer.Result();
+        RunPlayer.Result outcome = new RunPlayer.Result();
+
+        for (long seed = 1; seed <= seeds; seed++) {
+            check.play(PhysicsProfile.HIGH, seed, reference);
+            for (PhysicsProfile profile : profiles) {
+                if (profile == PhysicsProfile.HIGH) {
+                    continue;
+                }
+                check.play(profile, seed, outcome);
+                if (!outcome.isSameAs(reference)) {
+                    System.out.println(profile + " diverges on seed " + seed + ": " + outcome +
+                            ", " + PhysicsProfile.HIGH + " " + reference);
+                    divergent[profile.ordinal()]++;
+                }
+            }
+        }
+
+        for (PhysicsProfile profile : profiles) {
+            System.out.println(profile + ": " + divergent[profile.ordinal()] + " of " + seeds +
+                    " seeds diverge");
+            if (divergent[profile.ordinal()] > 0) {
+                passed = false;
+            }
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Plays one run with the given profile and seed. The touches only depend on the seed
+     */
+    public void play(PhysicsProfile profile, long seed, RunPlayer.Result result) {
+        PhysicsStepController.getInstance().setProfile(profile);
+        player.play(seed, InputTrack.random(seed, MAX_FRAMES, JUMP_CHANCE, DODGE_CHANCE,
+                DODGE_FRAMES), MAX_FRAMES, result);
+    }
+
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.benchmarks.headless;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.backends.headless.mock.graphics.MockGraphics;
+import com.badlogic.gdx.backends.headless.mock.input.MockInput;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.unocode.earthlingrun.actors.menu.GameButton;
+import com.unocode.earthlingrun.actors.menu.StartButton;
+import com.unocode.earthlingrun.enums.PhysicsProfile;
+import com.unocode.earthlingrun.stages.GameStage;
+import com.unocode.earthlingrun.utils.AssetsManager;
+import com.unocode.earthlingrun.utils.Constants;
+import com.unocode.earthlingrun.utils.GameEventListener;
+import com.unocode.earthlingrun.utils.GameManager;
+import com.unocode.earthlingrun.utils.PhysicsStepController;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Boots libGDX without a window or GL context so the real game can be driven from a benchmark or
+ * a harness. There is no render loop: the caller's thread owns the game once {@link #init()}
+ * returns and calls {@link GameStage#act(float)} and {@link GameStage#draw()} itself.
+ * <p/>
+ * Assets are read from the classpath, so the working directory only receives the files the game
+ * writes (run history, leaderboard, pending events).
+ */
+public class HeadlessGame {
+
+    private static final String PREFERENCES_DIRECTORY = ".earthlingrun-headless/";
+
+    private static boolean initialized;
+    private static final ReplayInput input = new ReplayInput();
+
+    private HeadlessGame() {
+    }
+
+    public static synchronized void init() {
+        if (initialized) {
+            return;
+        }
+
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        // A negative interval skips the render loop entirely
+        config.renderInterval = -1;
+        config.preferencesDirectory = PREFERENCES_DIRECTORY;
+
+        final CountDownLatch created = new CountDownLatch(1);
+        new HeadlessApplication(new ApplicationAdapter() {
+            @Override
+            public void create() {
+                created.countDown();
+            }
+        }, config);
+
+        try {
+            created.await();
+        } catch (InterruptedException e) {
+            throw new GdxRuntimeException("Interrupted while starting the headless application", e);
+        }
+
+        Gdx.gl = Gdx.gl20 = new NullGL20();
+        Gdx.graphics = new FixedSizeGraphics();
+        Gdx.input = input;
+        GameManager.getInstance().setGameEventListener(new NullGameEventListener());
+        // Results must not depend on how fast the machine running them is
+        PhysicsStepController.getInstance().setProfile(PhysicsProfile.HIGH);
+        AssetsManager.loadAssets();
+        initialized = true;
+    }
+
+    /**
+     * Creates a stage sized like the game's window, so touches can be given in screen pixels
+     */
+    public static GameStage createStage() {
+        init();
+        GameStage stage = new GameStage();
+        stage.resize(Constants.APP_WIDTH, Constants.APP_HEIGHT);
+        return stage;
+    }
+
+    /**
+     * Starts a run the way a player does, by pressing the start button
+     */
+    public static void startRun(GameStage stage) {
+        pressButton(stage, StartButton.class);
+    }
+
+    /**
+     * Presses the first button of the given type on the stage
+     */
+    public static void pressButton(GameStage stage, Class<? extends GameButton> type) {
+        for (Actor actor : stage.getUiStage().getActors()) {
+            if (type.isInstance(actor)) {
+                ((GameButton) actor).touched();
+                return;
+            }
+        }
+        throw new GdxRuntimeException("The stage isn't showing a " + type.getSimpleName());
+    }
+
+    /**
+     * Stamps the touches a replay sends with the time given here
+     */
+    public static void setEventTime(long timeNanos) {
+        input.eventTime = timeNanos;
+    }
+
+    private static class ReplayInput extends MockInput {
+
+        private long eventTime;
+
+        @Override
+        public long getCurrentEventTime() {
+            return eventTime;
+        }
+
+    }
+
+    /**
+     * Reports the game's window size, which touches are unprojected against
+     */
+    private static class FixedSizeGraphics extends MockGraphics {
+
+        @Override
+        public int getWidth() {
+            return Constants.APP_WIDTH;
+        }
+
+        @Override
+        public int getHeight() {
+            return Constants.APP_HEIGHT;
+        }
+
+        @Override
+        public int getBackBufferWidth() {
+            return Constants.APP_WIDTH;
+        }
+
+        @Override
+        public int getBackBufferHeight() {
+            return Constants.APP_HEIGHT;
+        }
+
+    }
+
+    /**
+     * Accepts every platform event and does nothing with it
+     */
+    private static class NullGameEventListener implements GameEventListener {
+
+        @Override
+        public void displayAd() {
+        }
+
+        @Override
+        public void hideAd() {
+        }
+
+        @Override
+        public void submitScore(int score) {
+        }
+
+        @Override
+        public void displayLeaderboard() {
+        }
+
+        @Override
+        public void displayAchievements() {
+        }
+
+        @Override
+        public void share() {
+        }
+
+        @Override
+        public void unlockAchievement(String id) {
+        }
+
+        @Override
+        public void incrementAchievement(String id, int steps) {
+        }
+
+        @Override
+        public String getAchievementId(String key) {
+            return key;
+        }
+
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.benchmarks.headless;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.unocode.earthlingrun.stages.GameStage;
+
+import java.util.Random;
+
+/**
+ * A timeline of player touches, each applied to the stage at the start of a given frame
+ */
+public class InputTrack {
+
+    public enum Action {
+
+        JUMP_PRESS(true, JUMP_Y),
+        JUMP_RELEASE(false, JUMP_Y),
+        DODGE_PRESS(true, DODGE_Y),
+        DODGE_RELEASE(false, DODGE_Y);
+
+        private final boolean press;
+        private final int y;
+
+        Action(boolean press, int y) {
+            this.press = press;
+            this.y = y;
+        }
+
+    }
+
+    // Screen coordinates of the jump (top right) and dodge (bottom right) areas
+    private static final int TOUCH_X = 600;
+    private static final int JUMP_Y = 120;
+    private static final int DODGE_Y = 360;
+
+    private static final Action[] ACTIONS = Action.values();
+
+    private final IntArray frames = new IntArray();
+    private final IntArray actions = new IntArray();
+    private int cursor;
+
+    /**
+     * Taps jump on about one frame in {@code jumpChance} and holds dodge for {@code dodgeLength}
+     * frames on about one frame in {@code dodgeChance}. A chance of zero disables the action
+     */
+    public static InputTrack random(long seed, int length, int jumpChance, int dodgeChance,
+            int dodgeLength) {
+        InputTrack track = new InputTrack();
+        Random random = new Random(seed);
+        int frame = 0;
+        while (frame < length) {
+            if (jumpChance > 0 && random.nextInt(jumpChance) == 0) {
+                track.add(frame, Action.JUMP_PRESS);
+                track.add(frame + 1, Action.JUMP_RELEASE);
+                frame += 2;
+            } else if (dodgeChance > 0 && random.nextInt(dodgeChance) == 0) {
+                track.add(frame, Action.DODGE_PRESS);
+                track.add(frame + dodgeLength, Action.DODGE_RELEASE);
+                frame += dodgeLength + 1;
+            } else {
+                frame++;
+            }
+        }
+        return track;
+    }
+
+    /**
+     * Adds an action. Actions must be added in frame order
+     */
+    public void add(int frame, Action action) {
+        frames.add(frame);
+        actions.add(action.ordinal());
+    }
+
+    public int size() {
+        return frames.size;
+    }
+
+    public int getFrame(int index) {
+        return frames.get(index);
+    }
+
+    public Action getAction(int index) {
+        return ACTIONS[actions.get(index)];
+    }
+
+    public void rewind() {
+        cursor = 0;
+    }
+
+    /**
+     * Sends the stage every touch due at the given frame, stamped with the time the frame starts
+     */
+    public void apply(int frame, long frameTimeNanos, GameStage stage) {
+        HeadlessGame.setEventTime(frameTimeNanos);
+        while (cursor < frames.size && frames.get(cursor) <= frame) {
+            Action action = ACTIONS[actions.get(cursor)];
+            if (action.press) {
+                stage.touchDown(TOUCH_X, action.y, 0, 0);
+            } else {
+                stage.touchUp(TOUCH_X, action.y, 0, 0);
+            }
+            cursor++;
+        }
+    }
+
+}
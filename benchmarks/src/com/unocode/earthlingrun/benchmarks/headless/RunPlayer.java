@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.benchmarks.headless;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.unocode.earthlingrun.controllers.RunnerController;
+import com.unocode.earthlingrun.enums.EnemyType;
+import com.unocode.earthlingrun.enums.GameState;
+import com.unocode.earthlingrun.stages.GameStage;
+import com.unocode.earthlingrun.utils.GameManager;
+import com.unocode.earthlingrun.utils.RunRecord;
+
+/**
+ * Plays seeded runs on a headless stage at a fixed 60 FPS, feeding it an {@link InputTrack} or
+ * handing it to a {@link RunnerController}. The stage and the touches run on a clock of their own
+ * that starts with the run, so a replay lands every touch on the same physics step
+ */
+public class RunPlayer {
+
+    public static final float TICK_DELTA = 1 / 60f;
+    public static final long TICK_NANOS = 1000000000L / 60;
+
+    private GameStage stage;
+
+    public RunPlayer() {
+        stage = HeadlessGame.createStage();
+    }
+
+    public GameStage getStage() {
+        return stage;
+    }
+
+    /**
+     * Plays one run with touches from the track until the runner dies or {@code maxFrames} have
+     * passed
+     */
+    public void play(long seed, InputTrack track, int maxFrames, Result result) {
+        track.rewind();
+        play(seed, track, null, maxFrames, result);
+    }
+
+    /**
+     * Plays one run driven by the controller until the runner dies or {@code maxFrames} have
+     * passed
+     */
+    public void play(long seed, RunnerController controller, int maxFrames, Result result) {
+        play(seed, null, controller, maxFrames, result);
+    }
+
+    private void play(long seed, InputTrack track, RunnerController controller, int maxFrames,
+            Result result) {
+        stage.setController(controller);
+        // The stage seeds each run from MathUtils.random
+        MathUtils.random.setSeed(seed);
+        HeadlessGame.startRun(stage);
+
+        int frame = 0;
+        while (GameManager.getInstance().getGameState() == GameState.RUNNING &&
+                frame < maxFrames) {
+            if (track != null) {
+                track.apply(frame, frame * TICK_NANOS, stage);
+            }
+            stage.draw();
+            stage.act(TICK_DELTA, (frame + 1) * TICK_NANOS);
+            frame++;
+        }
+
+        if (GameManager.getInstance().getGameState() == GameState.RUNNING) {
+            // A runner that left the screen without dying leaves no way back to the menu
+            result.set(frame, stage.getScore(), null);
+            stage.dispose();
+            stage = HeadlessGame.createStage();
+        } else {
+            RunRecord run = GameManager.getInstance().getLastRun();
+            result.set(frame, run.score, run.killer);
+        }
+    }
+
+    public static class Result {
+
+        private int frames;
+        private int score;
+        private EnemyType killer;
+
+        public void set(int frames, int score, EnemyType killer) {
+            this.frames = frames;
+            this.score = score;
+            this.killer = killer;
+        }
+
+        public int getFrames() {
+            return frames;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        /**
+         * @return the type of the enemy that ended the run, or null if it didn't end
+         */
+        public EnemyType getKiller() {
+            return killer;
+        }
+
+        public boolean isSameAs(Result other) {
+            return frames == other.frames && score == other.score && killer == other.killer;
+        }
+
+        @Override
+        public String toString() {
+            return (killer == null ? "survived" : "killed by " + killer) + " after " + frames +
+                    " frames with a score of " + score;
+        }
+
+    }
+
+}
@@ -32,12 +32,17 @@ public class EarthlingRun extends Game {
     @Override
     public void create() {
         com.unocode.earthlingrun.utils.AssetsManager.loadAssets();
+        GameManager.getInstance().startEventDelivery();
+        GameManager.getInstance().loadLocalLeaderboard();
         setScreen(new GameScreen());
     }
 
     @Override
     public void dispose() {
         super.dispose();
+        // Game only hides the current screen
+        getScreen().dispose();
+        GameManager.getInstance().stopEventDelivery();
         AudioUtils.dispose();
         AssetsManager.dispose();
     }
@@ -23,14 +23,15 @@ import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.unocode.earthlingrun.enums.GameState;
 import com.unocode.earthlingrun.utils.AssetsManager;
 import com.unocode.earthlingrun.utils.Constants;
-import com.unocode.earthlingrun.utils.GameManager;
+import com.unocode.earthlingrun.utils.GameStateListener;
 
-public class Background extends Actor {
+public class Background extends Actor implements GameStateListener {
 
     private final TextureRegion textureRegion;
     private Rectangle textureRegionBounds1;
     private Rectangle textureRegionBounds2;
     private int speed = 100;
+    private boolean running;
 
     public Background() {
         textureRegion = AssetsManager.getTextureRegion(com.unocode.earthlingrun.utils.Constants.BACKGROUND_ASSETS_ID);
@@ -41,7 +42,7 @@ public class Background extends Actor {
     @Override
     public void act(float delta) {
 
-        if (GameManager.getInstance().getGameState() != GameState.RUNNING) {
+        if (!running) {
             return;
         }
 
@@ -52,6 +53,11 @@ public class Background extends Actor {
         }
     }
 
+    @Override
+    public void onGameStateChanged(GameState previous, GameState current) {
+        running = current == GameState.RUNNING;
+    }
+
     @Override
     public void draw(Batch batch, float parentAlpha) {
         super.draw(batch, parentAlpha);
@@ -71,8 +77,10 @@ public class Background extends Actor {
     }
 
     private void resetBounds() {
+        // Recycle the tile that scrolled off instead of allocating a new one
+        Rectangle bounds = textureRegionBounds1;
         textureRegionBounds1 = textureRegionBounds2;
-        textureRegionBounds2 = new Rectangle(com.unocode.earthlingrun.utils.Constants.APP_WIDTH, 0, com.unocode.earthlingrun.utils.Constants.APP_WIDTH, Constants.APP_HEIGHT);
+        textureRegionBounds2 = bounds.set(com.unocode.earthlingrun.utils.Constants.APP_WIDTH, 0, com.unocode.earthlingrun.utils.Constants.APP_WIDTH, Constants.APP_HEIGHT);
     }
 
 }
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.actors;
+
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Touchable;
+import com.unocode.earthlingrun.enums.GameState;
+import com.unocode.earthlingrun.utils.AssetsManager;
+import com.unocode.earthlingrun.utils.Constants;
+import com.unocode.earthlingrun.utils.GameStateListener;
+
+/**
+ * Every coin on screen, kept in fixed-size arrays so placing, moving and collecting them never
+ * allocates. Coins have no Box2D body: they are moved with the physics steps and collected by
+ * testing their box against the runner's. They all share one atlas region, so drawing them
+ * doesn't break the sprite batch
+ */
+public class Coins extends Actor implements GameStateListener {
+
+    private final float[] x;
+    private final float[] y;
+    private final float[] velocity;
+    private int size;
+    private int collected;
+
+    private final Animation animation;
+    private float stateTime;
+    private boolean running;
+
+    public Coins(int capacity) {
+        x = new float[capacity];
+        y = new float[capacity];
+        velocity = new float[capacity];
+        setTouchable(Touchable.disabled);
+        animation = AssetsManager.getAnimation(Constants.COIN_ASSETS_ID);
+    }
+
+    /**
+     * Places a row of coins between two x coordinates, in world units, as far as the pool allows
+     *
+     * @return the number of coins placed
+     */
+    public int placeRow(float fromX, float toX, float rowY, float velocityX) {
+        int placed = 0;
+        for (float coinX = fromX; coinX <= toX && size < x.length;
+                coinX += Constants.COIN_SPACING) {
+            x[size] = coinX;
+            y[size] = rowY;
+            velocity[size] = velocityX;
+            size++;
+            placed++;
+        }
+        return placed;
+    }
+
+    /**
+     * Moves the coins along with the enemies and drops those that left the screen
+     */
+    public void step(float timeStep) {
+        for (int i = size - 1; i >= 0; i--) {
+            x[i] += velocity[i] * timeStep;
+            if (x[i] + Constants.COIN_SIZE / 2 < 0) {
+                remove(i);
+            }
+        }
+    }
+
+    /**
+     * Changes the speed of every coin, to keep up with the enemies after a difficulty change
+     */
+    public void setVelocity(float velocityX) {
+        for (int i = 0; i < size; i++) {
+            velocity[i] = velocityX;
+        }
+    }
+
+    /**
+     * Collects the coins that overlap the given box, in world units
+     *
+     * @return the number of coins collected
+     */
+    public int collect(Rectangle bounds) {
+        float half = Constants.COIN_SIZE / 2;
+        int count = 0;
+        for (int i = size - 1; i >= 0; i--) {
+            if (x[i] + half > bounds.x && x[i] - half < bounds.x + bounds.width &&
+                    y[i] + half > bounds.y && y[i] - half < bounds.y + bounds.height) {
+                remove(i);
+                count++;
+            }
+        }
+        collected += count;
+        return count;
+    }
+
+    /**
+     * Drops every coin and the collected count for a new run
+     */
+    public void reset() {
+        size = 0;
+        collected = 0;
+        stateTime = 0;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return x.length;
+    }
+
+    public int getCollected() {
+        return collected;
+    }
+
+    @Override
+    public void act(float delta) {
+        super.act(delta);
+        if (running) {
+            stateTime += delta;
+        }
+    }
+
+    @Override
+    public void onGameStateChanged(GameState previous, GameState current) {
+        running = current == GameState.RUNNING;
+    }
+
+    @Override
+    public void draw(Batch batch, float parentAlpha) {
+        super.draw(batch, parentAlpha);
+        if (size == 0) {
+            return;
+        }
+        TextureRegion region = (TextureRegion) animation.getKeyFrame(stateTime, true);
+        float screenSize = Constants.WORLD_TO_SCREEN * Constants.COIN_SIZE;
+        for (int i = 0; i < size; i++) {
+            batch.draw(region, Constants.WORLD_TO_SCREEN * x[i] - screenSize / 2,
+                    Constants.WORLD_TO_SCREEN * y[i] - screenSize / 2, screenSize, screenSize);
+        }
+    }
+
+    /**
+     * Order doesn't matter, so the last coin takes the removed one's place
+     */
+    private void remove(int index) {
+        size--;
+        x[index] = x[size];
+        y[index] = y[size];
+        velocity[index] = velocity[size];
+    }
+
+}
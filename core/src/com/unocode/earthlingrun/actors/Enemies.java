@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.unocode.earthlingrun.actors;
+
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Touchable;
+import com.unocode.earthlingrun.box2d.EnemyUserData;
+import com.unocode.earthlingrun.enums.EnemyType;
+import com.unocode.earthlingrun.utils.AssetsManager;
+import com.unocode.earthlingrun.utils.Constants;
+
+/**
+ * Every enemy on screen, kept in fixed-size arrays in the order they spawned instead of one actor
+ * each. Each frame passes over the arrays once to hand the enemies their speed and move their
+ * animations on, and once more to draw them. An enemy must be removed before its body is
+ * destroyed, since the world recycles destroyed bodies. Collisions stay with Box2D
+ */
+public class Enemies extends Actor {
+
+    private static final EnemyType[] ENEMY_TYPES = EnemyType.values();
+
+    private final Body[] bodies;
+    private final EnemyUserData[] userData;
+    private final float[] stateTimes;
+    private int size;
+
+    // The last enemy added, until it is removed
+    private Body lastBody;
+    private EnemyUserData lastUserData;
+
+    // Indexed by enemy type
+    private final Animation[] animations;
+
+    public Enemies(int capacity) {
+        bodies = new Body[capacity];
+        userData = new EnemyUserData[capacity];
+        stateTimes = new float[capacity];
+        setTouchable(Touchable.disabled);
+        animations = new Animation[ENEMY_TYPES.length];
+        for (EnemyType enemyType : ENEMY_TYPES) {
+            animations[enemyType.ordinal()] =
+                    AssetsManager.getAnimation(enemyType.getAnimationAssetId());
+        }
+    }
+
+    /**
+     * Adds an enemy for the body. It only picks up its speed when the enemies next act
+     *
+     * @return false if there's no room for it
+     */
+    public boolean add(Body body) {
+        if (isFull()) {
+            return false;
+        }
+        bodies[size] = body;
+        userData[size] = (EnemyUserData) body.getUserData();
+        stateTimes[size] = 0;
+        lastBody = body;
+        lastUserData = userData[size];
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes the enemy for the body, if there is one. Call this before the world destroys it
+     */
+    public void remove(Body body) {
+        int index = 0;
+        while (index < size && bodies[index] != body) {
+            index++;
+        }
+        if (index == size) {
+            return;
+        }
+        size--;
+        for (int i = index; i < size; i++) {
+            bodies[i] = bodies[i + 1];
+            userData[i] = userData[i + 1];
+            stateTimes[i] = stateTimes[i + 1];
+        }
+        bodies[size] = null;
+        userData[size] = null;
+        if (body == lastBody) {
+            lastBody = null;
+            lastUserData = null;
+        }
+    }
+
+    public boolean isFull() {
+        return size == bodies.length;
+    }
+
+    /**
+     * @return whether the last enemy added is still in the world
+     */
+    public boolean hasLast() {
+        return lastBody != null;
+    }
+
+    /**
+     * @return where the last enemy's back edge is, in world units
+     */
+    public float getLastBackX() {
+        return lastBody.getPosition().x + lastUserData.getWidth() / 2;
+    }
+
+    /**
+     * Drops every enemy for a new run. Their bodies are the world's to destroy
+     */
+    public void reset() {
+        for (int i = 0; i < size; i++) {
+            bodies[i] = null;
+            userData[i] = null;
+        }
+        size = 0;
+        lastBody = null;
+        lastUserData = null;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public Body getBody(int index) {
+        return bodies[index];
+    }
+
+    public EnemyUserData getUserData(int index) {
+        return userData[index];
+    }
+
+    public EnemyType getType(int index) {
+        return userData[index].getEnemyType();
+    }
+
+    /**
+     * @return where the enemy's front edge, the one facing the runner, is in world units
+     */
+    public float getFrontX(int index) {
+        return bodies[index].getPosition().x - userData[index].getWidth() / 2;
+    }
+
+    public float getVelocityX(int index) {
+        return bodies[index].getLinearVelocity().x;
+    }
+
+    @Override
+    public void act(float delta) {
+        super.act(delta);
+        for (int i = 0; i < size; i++) {
+            bodies[i].setLinearVelocity(userData[i].getLinearVelocity());
+            stateTimes[i] += delta;
+        }
+    }
+
+    @Override
+    public void draw(Batch batch, float parentAlpha) {
+        super.draw(batch, parentAlpha);
+        for (int i = 0; i < size; i++) {
+            EnemyUserData data = userData[i];
+            TextureRegion region = (TextureRegion) animations[data.getEnemyType().ordinal()]
+                    .getKeyFrame(stateTimes[i], true);
+            Vector2 position = bodies[i].getPosition();
+            float width = Constants.WORLD_TO_SCREEN * data.getWidth();
+            float height = Constants.WORLD_TO_SCREEN * data.getHeight();
+            float x = Constants.WORLD_TO_SCREEN * position.x - width / 2;
+            float y = Constants.WORLD_TO_SCREEN * position.y - height / 2;
+            batch.draw(region, x - width * 0.1f, y, width * 1.2f, height * 1.1f);
+        }
+    }
+
+}
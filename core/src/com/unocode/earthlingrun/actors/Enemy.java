@@ -1,61 +0,0 @@
-/*
- * Copyright (c) 2014. William Mora
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *     http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package com.unocode.earthlingrun.actors;
-
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.g2d.Animation;
-import com.badlogic.gdx.graphics.g2d.Batch;
-import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.physics.box2d.Body;
-import com.unocode.earthlingrun.box2d.EnemyUserData;
-import com.unocode.earthlingrun.enums.GameState;
-import com.unocode.earthlingrun.utils.AssetsManager;
-import com.unocode.earthlingrun.utils.GameManager;
-
-public class Enemy extends GameActor {
-
-    private Animation animation;
-    private float stateTime;
-
-    public Enemy(Body body) {
-        super(body);
-        animation = AssetsManager.getAnimation(getUserData().getAnimationAssetId());
-        stateTime = 0f;
-    }
-
-    @Override
-    public EnemyUserData getUserData() {
-        return (EnemyUserData) userData;
-    }
-
-    @Override
-    public void act(float delta) {
-        super.act(delta);
-        body.setLinearVelocity(getUserData().getLinearVelocity());
-    }
-
-    @Override
-    public void draw(Batch batch, float parentAlpha) {
-        super.draw(batch, parentAlpha);
-
-        if (GameManager.getInstance().getGameState() != GameState.PAUSED) {
-            stateTime += Gdx.graphics.getDeltaTime();
-        }
-        TextureRegion tr = (TextureRegion) animation.getKeyFrame(stateTime, true);
-        batch.draw(tr, (screenRectangle.x - (screenRectangle.width * 0.1f)), screenRectangle.y, screenRectangle.width * 1.2f, screenRectangle.height * 1.1f);
-    }
-}
@@ -20,9 +20,7 @@ import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.physics.box2d.Body;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.unocode.earthlingrun.box2d.UserData;
-import com.unocode.earthlingrun.enums.GameState;
 import com.unocode.earthlingrun.utils.Constants;
-import com.unocode.earthlingrun.utils.GameManager;
 
 public abstract class GameActor extends Actor {
 
@@ -30,27 +28,42 @@ public abstract class GameActor extends Actor {
     protected UserData userData;
     protected Rectangle screenRectangle;
 
+    public GameActor() {
+        screenRectangle = new Rectangle();
+    }
+
     public GameActor(Body body) {
+        this();
+        setBody(body);
+    }
+
+    /**
+     * Binds the actor to another body, so actors can be reused after theirs is destroyed
+     */
+    public void setBody(Body body) {
         this.body = body;
         this.userData = (UserData) body.getUserData();
-        screenRectangle = new Rectangle();
+    }
+
+    /**
+     * The world recycles destroyed bodies, so a body that now carries other user data has been
+     * destroyed as well
+     */
+    public boolean hasBody() {
+        return body != null && body.getUserData() == userData;
     }
 
     @Override
     public void act(float delta) {
         super.act(delta);
 
-        if (GameManager.getInstance().getGameState() == GameState.PAUSED) {
-            return;
-        }
-
-        if (body.getUserData() != null) {
-            updateRectangle();
-        } else {
+        if (!hasBody()) {
             // This means the world destroyed the body (enemy or runner went out of bounds)
             remove();
+            return;
         }
 
+        updateRectangle();
     }
 
     public abstract UserData getUserData();
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.unocode.earthlingrun.actors;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Touchable;
+import com.unocode.earthlingrun.enums.GameState;
+import com.unocode.earthlingrun.utils.Constants;
+import com.unocode.earthlingrun.utils.GameStateListener;
+import com.unocode.earthlingrun.utils.GhostTrack;
+
+/**
+ * A translucent runner replaying the best run from its {@link GhostTrack}. It isn't simulated,
+ * just drawn where the track says and with the {@link Runner}'s sprites. It leaves the stage once
+ * the track ends
+ */
+public class Ghost extends Actor implements GameStateListener {
+
+    private final Runner runner;
+    private final GhostTrack track;
+    private final Rectangle screenRectangle = new Rectangle();
+    private float time;
+    private boolean running;
+
+    public Ghost(Runner runner, GhostTrack track) {
+        this.runner = runner;
+        this.track = track;
+        setTouchable(Touchable.disabled);
+    }
+
+    /**
+     * Rewinds to the start of the track, which must be open
+     */
+    public void start() {
+        time = 0;
+        updateRectangle();
+    }
+
+    @Override
+    public void act(float delta) {
+        super.act(delta);
+        if (!running) {
+            return;
+        }
+        time += delta;
+        if (!track.advance(time)) {
+            remove();
+            return;
+        }
+        updateRectangle();
+    }
+
+    @Override
+    public void onGameStateChanged(GameState previous, GameState current) {
+        running = current == GameState.RUNNING;
+    }
+
+    @Override
+    public void draw(Batch batch, float parentAlpha) {
+        super.draw(batch, parentAlpha);
+        if (!track.isOpen()) {
+            return;
+        }
+        Color color = batch.getColor();
+        float alpha = color.a;
+        batch.setColor(color.r, color.g, color.b, Constants.GHOST_ALPHA * parentAlpha);
+        runner.drawPose(batch, track.getPose(), screenRectangle, track.getAngle(), time);
+        batch.setColor(color.r, color.g, color.b, alpha);
+    }
+
+    private void updateRectangle() {
+        screenRectangle.set(
+                Constants.WORLD_TO_SCREEN * (track.getX() - Constants.RUNNER_WIDTH / 2),
+                Constants.WORLD_TO_SCREEN * (track.getY() - Constants.RUNNER_HEIGHT / 2),
+                Constants.WORLD_TO_SCREEN * Constants.RUNNER_WIDTH,
+                Constants.WORLD_TO_SCREEN * Constants.RUNNER_HEIGHT);
+    }
+
+}
@@ -24,14 +24,15 @@ import com.unocode.earthlingrun.box2d.GroundUserData;
 import com.unocode.earthlingrun.enums.GameState;
 import com.unocode.earthlingrun.utils.AssetsManager;
 import com.unocode.earthlingrun.utils.Constants;
-import com.unocode.earthlingrun.utils.GameManager;
+import com.unocode.earthlingrun.utils.GameStateListener;
 
-public class Ground extends GameActor {
+public class Ground extends GameActor implements GameStateListener {
 
     private final TextureRegion textureRegion;
     private Rectangle textureRegionBounds1;
     private Rectangle textureRegionBounds2;
     private int speed = 10;
+    private boolean running;
 
     public Ground(Body body) {
         super(body);
@@ -51,7 +52,7 @@ public class Ground extends GameActor {
     public void act(float delta) {
         super.act(delta);
 
-        if (GameManager.getInstance().getGameState() != GameState.RUNNING) {
+        if (!running) {
             return;
         }
 
@@ -62,6 +63,11 @@ public class Ground extends GameActor {
         }
     }
 
+    @Override
+    public void onGameStateChanged(GameState previous, GameState current) {
+        running = current == GameState.RUNNING;
+    }
+
     @Override
     public void draw(Batch batch, float parentAlpha) {
         super.draw(batch, parentAlpha);
@@ -81,8 +87,10 @@ public class Ground extends GameActor {
     }
 
     private void resetBounds() {
+        // Recycle the tile that scrolled off instead of allocating a new one
+        Rectangle bounds = textureRegionBounds1;
         textureRegionBounds1 = textureRegionBounds2;
-        textureRegionBounds2 = new Rectangle(textureRegionBounds1.x + screenRectangle.width, 0, screenRectangle.width,
+        textureRegionBounds2 = bounds.set(textureRegionBounds1.x + screenRectangle.width, 0, screenRectangle.width,
                 screenRectangle.height);
     }
 
@@ -21,16 +21,26 @@ import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.Body;
 import com.unocode.earthlingrun.box2d.RunnerUserData;
-import com.unocode.earthlingrun.enums.Difficulty;
 import com.unocode.earthlingrun.enums.GameState;
+import com.unocode.earthlingrun.enums.LogCategory;
+import com.unocode.earthlingrun.enums.RunnerPose;
 import com.unocode.earthlingrun.utils.AssetsManager;
 import com.unocode.earthlingrun.utils.AudioUtils;
 import com.unocode.earthlingrun.utils.Constants;
+import com.unocode.earthlingrun.utils.Difficulty;
+import com.unocode.earthlingrun.utils.GameLog;
 import com.unocode.earthlingrun.utils.GameManager;
+import com.unocode.earthlingrun.utils.GameStateListener;
+import com.unocode.earthlingrun.utils.PhysicsStepController;
 
-public class Runner extends GameActor {
+public class Runner extends GameActor implements GameStateListener {
+
+    // Slower than this he stands on the ground, rather than flying off it after a dodge
+    private static final float STANDING_SPEED = 0.01f;
 
     private boolean dodging;
     private boolean jumping;
@@ -43,6 +53,8 @@ public class Runner extends GameActor {
     private TextureRegion dodgingTexture;
     private TextureRegion hitTexture;
     private float stateTime;
+    private boolean running;
+    private final Vector2 jumpImpulse = new Vector2();
 
     private Sound jumpSound;
     private Sound hitSound;
@@ -64,31 +76,75 @@ public class Runner extends GameActor {
         hitSound = AudioUtils.getInstance().getHitSound();
     }
 
+    @Override
+    public void onGameStateChanged(GameState previous, GameState current) {
+        running = current == GameState.RUNNING;
+    }
+
     @Override
     public void draw(Batch batch, float parentAlpha) {
         super.draw(batch, parentAlpha);
 
+        RunnerPose pose = getPose();
+        if (pose == RunnerPose.RUNNING && running) {
+            stateTime += Gdx.graphics.getDeltaTime();
+        }
+        drawPose(batch, pose, screenRectangle, body.getAngle(), stateTime);
+    }
+
+    /**
+     * Draws the runner in a pose over his box in screen coordinates. The ghost of the best run
+     * is drawn through here too
+     */
+    public void drawPose(Batch batch, RunnerPose pose, Rectangle screenRectangle, float angle,
+                         float stateTime) {
         float x = screenRectangle.x - (screenRectangle.width * 0.1f) +15;//chance add =15 to offest runner to right a bit
         float y = screenRectangle.y;
         float width = screenRectangle.width * 1.2f;
 
+        switch (pose) {
+            case DODGING:
+                batch.draw(dodgingTexture, x, y + screenRectangle.height / 4, width, screenRectangle.height * 3 / 4);
+                break;
+            case HIT:
+                // When he's hit we also want to apply rotation if the body has been rotated
+                batch.draw(hitTexture, x, y, width * 0.5f, screenRectangle.height * 0.5f, width, screenRectangle.height, 1f,
+                        1f, (float) Math.toDegrees(angle));
+                break;
+            case JUMPING:
+                batch.draw(jumpingTexture, x, y, width, screenRectangle.height);
+                break;
+            default:
+                TextureRegion tr = (TextureRegion) runningAnimation.getKeyFrame(stateTime, true);
+                batch.draw(tr, x, y, width, screenRectangle.height);
+                break;
+        }
+    }
+
+    public RunnerPose getPose() {
         if (dodging) {
-            batch.draw(dodgingTexture, x, y + screenRectangle.height / 4, width, screenRectangle.height * 3 / 4);
+            return RunnerPose.DODGING;
         } else if (hit) {
-            // When he's hit we also want to apply rotation if the body has been rotated
-            batch.draw(hitTexture, x, y, width * 0.5f, screenRectangle.height * 0.5f, width, screenRectangle.height, 1f,
-                    1f, (float) Math.toDegrees(body.getAngle()));
+            return RunnerPose.HIT;
         } else if (jumping) {
-            batch.draw(jumpingTexture, x, y, width, screenRectangle.height);
-        } else {
-            // Running
-            if (GameManager.getInstance().getGameState() == GameState.RUNNING) {
-                stateTime += Gdx.graphics.getDeltaTime();
-            }
-
-            TextureRegion tr = (TextureRegion) runningAnimation.getKeyFrame(stateTime, true);
-            batch.draw(tr, x, y, width, screenRectangle.height);
+            return RunnerPose.JUMPING;
         }
+        return RunnerPose.RUNNING;
+    }
+
+    /**
+     * @return the body's position, in world units
+     */
+    public Vector2 getPosition() {
+        return body.getPosition();
+    }
+
+    public float getAngle() {
+        return body.getAngle();
+    }
+
+    public Vector2 getVelocity() {
+        return body.getLinearVelocity();
     }
 
     @Override
@@ -100,25 +156,63 @@ public class Runner extends GameActor {
 
         //if (!(jumping || dodging || hit)) {
         if(!(jumpNum > 1 || dodging || hit)) {//chance for doublejump--later check for upgrade
-            body.applyLinearImpulse(getUserData().getJumpingLinearImpulse(), body.getWorldCenter(), true);
+            Vector2 impulse = jumpImpulse.set(getUserData().getJumpingLinearImpulse());
+            if (jumpNum == 0 && Math.abs(body.getLinearVelocity().y) < STANDING_SPEED) {
+                // Keeps a take-off on the same arc whatever the physics step rate
+                impulse.y += body.getMass() *
+                        PhysicsStepController.getInstance().getTakeOffCompensation(getGravity());
+            }
+            body.applyLinearImpulse(impulse, body.getWorldCenter(), true);
             jumping = true;
             com.unocode.earthlingrun.utils.AudioUtils.getInstance().playSound(jumpSound);
             jumpCount++;
             if(jumpNum == 1){
                 doubleJumpCount++;
                 doubleJumping = true;
-                System.out.println("doubleJumping");
+                GameLog.debug(LogCategory.RUNNER, "Double jump");
             }
             jumpNum++;
         }
     }
 
+    /**
+     * Puts the runner back at the start, standing and with no jumps, for a new run
+     */
+    public void reset() {
+        dodging = false;
+        jumping = false;
+        doubleJumping = false;
+        powerStomping = false;
+        jumpNum = 0;
+        hit = false;
+        stateTime = 0f;
+        jumpCount = 0;
+        doubleJumpCount = 0;
+        powerStompCount = 0;
+        onDifficultyChange(GameManager.getInstance().getDifficulty());
+
+        body.setTransform(getUserData().getRunningPosition(), 0f);
+        body.setLinearVelocity(0f, 0f);
+        body.setAngularVelocity(0f);
+        body.setAwake(true);
+        // Reactivating drops the contacts left from the last run, like a new body would
+        body.setActive(false);
+        body.setActive(true);
+    }
+
+    /**
+     * Takes the runner out of the simulation until the next {@link #reset()}
+     */
+    public void deactivate() {
+        body.setActive(false);
+    }
+
     public void landed() {
         jumpNum = 0;
         jumping = false;
         doubleJumping = false;
         powerStomping = false;
-        System.out.println("landed");
+        GameLog.debug(LogCategory.RUNNER, "Landed");
     }
 
     public void dodge() {
@@ -129,7 +223,7 @@ public class Runner extends GameActor {
             if(jumpNum > 1){
                 powerStompCount++;
                 powerStomping = true;
-                System.out.println("powerStomping");
+                GameLog.debug(LogCategory.RUNNER, "Power stomp");
             }
         }
     }
@@ -146,6 +240,20 @@ public class Runner extends GameActor {
         return dodging;
     }
 
+    public boolean isJumping() {
+        return jumping;
+    }
+
+    /**
+     * Sets the given rectangle to the runner's box in world units, lying down when he dodges
+     */
+    public Rectangle getBounds(Rectangle bounds) {
+        float width = dodging ? getUserData().getHeight() : getUserData().getWidth();
+        float height = dodging ? getUserData().getWidth() : getUserData().getHeight();
+        return bounds.set(body.getPosition().x - width / 2, body.getPosition().y - height / 2, width,
+                height);
+    }
+
     public boolean isDoubleJumping(){ return doubleJumping;}
 
     public boolean isPowerStomping() { return powerStomping;}
@@ -161,10 +269,25 @@ public class Runner extends GameActor {
     }
 
     public void onDifficultyChange(Difficulty newDifficulty) {
+        float gravity = getGravity();
         setGravityScale(newDifficulty.getRunnerGravityScale());
+        // Like a take-off, a change of gravity in the air would leave the arc at a lower step rate
+        float compensation = PhysicsStepController.getInstance()
+                .getTakeOffCompensation(getGravity() - gravity);
+        if (compensation != 0) {
+            Vector2 velocity = body.getLinearVelocity();
+            body.setLinearVelocity(velocity.x, velocity.y + compensation);
+        }
         getUserData().setJumpingLinearImpulse(newDifficulty.getRunnerJumpingLinearImpulse());
     }
 
+    /**
+     * @return the vertical gravity acting on the runner, with his gravity scale
+     */
+    public float getGravity() {
+        return body.getWorld().getGravity().y * body.getGravityScale();
+    }
+
     public void setGravityScale(float gravityScale) {
         body.setGravityScale(gravityScale);
         body.resetMassData();
@@ -21,12 +21,11 @@ import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.utils.Align;
-import com.unocode.earthlingrun.enums.GameState;
+import com.badlogic.gdx.utils.StringBuilder;
 import com.unocode.earthlingrun.utils.AssetsManager;
+import com.unocode.earthlingrun.utils.Constants;
 import com.unocode.earthlingrun.utils.GameManager;
 
-import java.util.Locale;
-
 public class Score extends Actor {
 
     private float score;
@@ -34,6 +33,11 @@ public class Score extends Actor {
     private Rectangle bounds;
     private BitmapFont font;
 
+    // The text is only rebuilt when the values it shows change
+    private final StringBuilder text = new StringBuilder(16);
+    private int textScore = -1;
+    private int textMultiplier = -1;
+
     public Score(Rectangle bounds) {
         this.bounds = bounds;
         setWidth(bounds.width);
@@ -43,22 +47,49 @@ public class Score extends Actor {
         font = AssetsManager.getSmallFont();
     }
 
-    @Override
-    public void act(float delta) {
-        super.act(delta);
-        if (GameManager.getInstance().getGameState() != GameState.RUNNING) {
-            return;
-        }
+    /**
+     * Scores the time survived. The game stage calls it every frame of a run, since the score shows
+     * on the UI stage, which keeps acting while the game is paused or over
+     */
+    public void addTime(float delta) {
         score += multiplier * delta;
     }
 
     @Override
     public void draw(Batch batch, float parentAlpha) {
         super.draw(batch, parentAlpha);
-        if (getScore() == 0) {
+        int currentScore = getScore();
+        if (currentScore == 0) {
             return;
         }
-        font.draw(batch, String.format(Locale.US,"x%d\n%d", getMultiplier(),getScore()), bounds.x, bounds.y, bounds.width, Align.right, true);//chance show multipler
+        font.draw(batch, getText(), bounds.x, bounds.y, bounds.width, Align.right, true);//chance show multipler
+    }
+
+    /**
+     * @return the label's text, rebuilt only if the score or the multiplier changed since the last
+     * call
+     */
+    public CharSequence getText() {
+        int currentScore = getScore();
+        if (currentScore != textScore || multiplier != textMultiplier) {
+            text.setLength(0);
+            text.append('x').append(multiplier).append('\n').append(currentScore);
+            textScore = currentScore;
+            textMultiplier = multiplier;
+        }
+        return text;
+    }
+
+    /**
+     * Starts a new run from zero with the current difficulty's multiplier
+     */
+    public void reset() {
+        score = 0;
+        multiplier = GameManager.getInstance().getDifficulty().getScoreMultiplier();
+    }
+
+    public void addCoins(int count) {
+        score += count * Constants.COIN_POINTS;
     }
 
     public int getScore() {
@@ -19,15 +19,16 @@ package com.unocode.earthlingrun.actors.menu;
 import com.badlogic.gdx.math.Rectangle;
 import com.unocode.earthlingrun.enums.GameState;
 import com.unocode.earthlingrun.utils.Constants;
-import com.unocode.earthlingrun.utils.GameManager;
+import com.unocode.earthlingrun.utils.GameStateListener;
 
-public class AboutButton extends GameButton {
+public class AboutButton extends GameButton implements GameStateListener {
 
     public interface AboutButtonListener {
         public void onAbout();
     }
 
     private AboutButtonListener listener;
+    private boolean about;
 
     public AboutButton(Rectangle bounds, AboutButtonListener listener) {
         super(bounds);
@@ -36,8 +37,13 @@ public class AboutButton extends GameButton {
 
     @Override
     protected String getRegionName() {
-        return GameManager.getInstance().getGameState() == GameState.ABOUT ? com.unocode.earthlingrun.utils.Constants.CLOSE_REGION_NAME :
-                Constants.ABOUT_REGION_NAME;
+        return about ? Constants.CLOSE_REGION_NAME : Constants.ABOUT_REGION_NAME;
+    }
+
+    @Override
+    public void onGameStateChanged(GameState previous, GameState current) {
+        about = current == GameState.ABOUT;
+        loadTextureRegion();
     }
 
     @Override
@@ -19,9 +19,9 @@ package com.unocode.earthlingrun.actors.menu;
 import com.badlogic.gdx.math.Rectangle;
 import com.unocode.earthlingrun.enums.GameState;
 import com.unocode.earthlingrun.utils.Constants;
-import com.unocode.earthlingrun.utils.GameManager;
+import com.unocode.earthlingrun.utils.GameStateListener;
 
-public class PauseButton extends GameButton {
+public class PauseButton extends GameButton implements GameStateListener {
 
     public interface PauseButtonListener {
         public void onPause();
@@ -30,6 +30,7 @@ public class PauseButton extends GameButton {
     }
 
     private PauseButtonListener listener;
+    private boolean paused;
 
     public PauseButton(Rectangle bounds, PauseButtonListener listener) {
         super(bounds);
@@ -38,20 +39,22 @@ public class PauseButton extends GameButton {
 
     @Override
     protected String getRegionName() {
-        return com.unocode.earthlingrun.utils.GameManager.getInstance().getGameState() == com.unocode.earthlingrun.enums.GameState.PAUSED ? com.unocode.earthlingrun.utils.Constants.PLAY_REGION_NAME : Constants.PAUSE_REGION_NAME;
+        return paused ? Constants.PLAY_REGION_NAME : Constants.PAUSE_REGION_NAME;
     }
 
     @Override
-    public void act(float delta) {
-        super.act(delta);
-        if (com.unocode.earthlingrun.utils.GameManager.getInstance().getGameState() == com.unocode.earthlingrun.enums.GameState.OVER) {
+    public void onGameStateChanged(GameState previous, GameState current) {
+        paused = current == GameState.PAUSED;
+        if (current == GameState.OVER) {
             remove();
+        } else {
+            loadTextureRegion();
         }
     }
 
     @Override
     public void touched() {
-        if (GameManager.getInstance().getGameState() == GameState.PAUSED) {
+        if (paused) {
             listener.onResume();
         } else {
             listener.onPause();
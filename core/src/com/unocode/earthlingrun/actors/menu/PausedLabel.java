@@ -21,12 +21,15 @@ import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.utils.Align;
-import com.unocode.earthlingrun.utils.AssetsManager;
 import com.unocode.earthlingrun.enums.GameState;
+import com.unocode.earthlingrun.utils.AssetsManager;
 import com.unocode.earthlingrun.utils.Constants;
-import com.unocode.earthlingrun.utils.GameManager;
+import com.unocode.earthlingrun.utils.GameStateListener;
 
-public class PausedLabel extends Actor {
+/**
+ * Only shown, and drawn, while the game is paused
+ */
+public class PausedLabel extends Actor implements GameStateListener {
 
     private Rectangle bounds;
     private BitmapFont font;
@@ -41,10 +44,13 @@ public class PausedLabel extends Actor {
     @Override
     public void draw(Batch batch, float parentAlpha) {
         super.draw(batch, parentAlpha);
-        if (GameManager.getInstance().getGameState() == GameState.PAUSED) {
-            font.draw(batch, Constants.PAUSED_LABEL, bounds.x, bounds.y, bounds.width,
-                    Align.center, true);
-        }
+        font.draw(batch, Constants.PAUSED_LABEL, bounds.x, bounds.y, bounds.width,
+                Align.center, true);
+    }
+
+    @Override
+    public void onGameStateChanged(GameState previous, GameState current) {
+        setVisible(current == GameState.PAUSED);
     }
 
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.actors.menu;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Touchable;
+import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.StringBuilder;
+import com.unocode.earthlingrun.metrics.Box2DTracker;
+import com.unocode.earthlingrun.metrics.FrameMetrics;
+import com.unocode.earthlingrun.metrics.Histogram;
+import com.unocode.earthlingrun.utils.AssetsManager;
+
+/**
+ * Toggleable overlay showing the {@link FrameMetrics}. The text is rebuilt in place twice a
+ * second; frame and physics percentiles cover the time since the previous refresh
+ */
+public class PerformanceHud extends Actor {
+
+    private static final float REFRESH_INTERVAL = 0.5f;
+
+    private Rectangle bounds;
+    private BitmapFont font;
+    private final StringBuilder text = new StringBuilder(192);
+    private float timeSinceRefresh;
+    // The shared histograms as of the previous refresh, which they are read against
+    private final Histogram lastFrameTime = FrameMetrics.FRAME_TIME.copy();
+    private final Histogram lastPhysicsStepTime = FrameMetrics.PHYSICS_STEP_TIME.copy();
+
+    public PerformanceHud(Rectangle bounds) {
+        this.bounds = bounds;
+        setWidth(bounds.width);
+        setHeight(bounds.height);
+        setTouchable(Touchable.disabled);
+        font = AssetsManager.getSmallestFont();
+    }
+
+    @Override
+    public void act(float delta) {
+        super.act(delta);
+        if (!isVisible()) {
+            return;
+        }
+
+        // Stay above whatever was added to the stage after the HUD
+        if (getZIndex() < getParent().getChildren().size - 1) {
+            toFront();
+        }
+
+        timeSinceRefresh += delta;
+        if (timeSinceRefresh >= REFRESH_INTERVAL) {
+            timeSinceRefresh = 0;
+            refresh();
+        }
+    }
+
+    @Override
+    public void draw(Batch batch, float parentAlpha) {
+        super.draw(batch, parentAlpha);
+        font.draw(batch, text, bounds.x, bounds.y, bounds.width, Align.left, false);
+    }
+
+    private void refresh() {
+        text.setLength(0);
+        text.append("FPS ").append(FrameMetrics.FPS.get());
+        text.append("\nframe p50 ");
+        appendMillis(FrameMetrics.FRAME_TIME.getPercentile(0.5f, lastFrameTime));
+        text.append(" p99 ");
+        appendMillis(FrameMetrics.FRAME_TIME.getPercentile(0.99f, lastFrameTime));
+        text.append("\nphysics p99 ");
+        appendMillis(FrameMetrics.PHYSICS_STEP_TIME.getPercentile(0.99f,
+                lastPhysicsStepTime));
+        text.append(" x").append(FrameMetrics.STEPS_PER_FRAME.get());
+        text.append(" @").append(FrameMetrics.PHYSICS_STEP_RATE.get()).append("Hz");
+        text.append("\nbodies ").append(FrameMetrics.BODY_COUNT.get());
+        text.append(" actors ").append(FrameMetrics.ACTOR_COUNT.get());
+        text.append("\nbox2d worlds ").append(Box2DTracker.WORLDS.get());
+        text.append(" fixtures ").append(Box2DTracker.FIXTURES.get());
+        text.append(" ~").append(Box2DTracker.NATIVE_BYTES.get() / 1024).append("KB");
+        text.append("\ndraw calls ").append(FrameMetrics.DRAW_CALLS.get());
+        text.append("\nheap ").append(FrameMetrics.JAVA_HEAP.get() / (1024 * 1024)).append("MB");
+        text.append(" gc ").append(FrameMetrics.GC_EVENTS.get());
+
+        lastFrameTime.set(FrameMetrics.FRAME_TIME);
+        lastPhysicsStepTime.set(FrameMetrics.PHYSICS_STEP_TIME);
+    }
+
+    /**
+     * Appends a duration given in microseconds as milliseconds with one decimal
+     */
+    private void appendMillis(long micros) {
+        text.append(micros / 1000).append('.').append((micros / 100) % 10).append("ms");
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.actors.menu;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.utils.Align;
+import com.unocode.earthlingrun.enums.GameState;
+import com.unocode.earthlingrun.utils.AssetsManager;
+import com.unocode.earthlingrun.utils.Constants;
+import com.unocode.earthlingrun.utils.GameManager;
+import com.unocode.earthlingrun.utils.GameStateListener;
+
+import java.util.Locale;
+
+/**
+ * Shows where the last run landed on the local leaderboard while the game is over
+ */
+public class RankLabel extends Actor implements GameStateListener {
+
+    private Rectangle bounds;
+    private BitmapFont font;
+    private String text;
+
+    public RankLabel(Rectangle bounds) {
+        this.bounds = bounds;
+        setWidth(bounds.width);
+        setHeight(bounds.height);
+        font = AssetsManager.getSmallestFont();
+        refresh();
+    }
+
+    /**
+     * Picks up the rank of the run that just ended
+     */
+    public void refresh() {
+        text = createText();
+    }
+
+    private String createText() {
+        int rank = GameManager.getInstance().getLastRunRank();
+        float percentile = GameManager.getInstance().getLastRunPercentile();
+        int topPercent = Math.max(1, (int) Math.ceil((1f - percentile) * 100));
+        if (rank > 0) {
+            return String.format(Locale.US, Constants.RANK_LABEL_FORMAT, rank, topPercent);
+        }
+        return String.format(Locale.US, Constants.PERCENTILE_LABEL_FORMAT, topPercent);
+    }
+
+    @Override
+    public void onGameStateChanged(GameState previous, GameState current) {
+        if (current != GameState.OVER) {
+            remove();
+        }
+    }
+
+    @Override
+    public void draw(Batch batch, float parentAlpha) {
+        super.draw(batch, parentAlpha);
+        font.draw(batch, text, bounds.x, bounds.y, bounds.width, Align.center, true);
+    }
+
+}
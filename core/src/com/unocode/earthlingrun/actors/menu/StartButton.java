@@ -19,9 +19,9 @@ package com.unocode.earthlingrun.actors.menu;
 import com.badlogic.gdx.math.Rectangle;
 import com.unocode.earthlingrun.enums.GameState;
 import com.unocode.earthlingrun.utils.Constants;
-import com.unocode.earthlingrun.utils.GameManager;
+import com.unocode.earthlingrun.utils.GameStateListener;
 
-public class StartButton extends GameButton {
+public class StartButton extends GameButton implements GameStateListener {
 
     public interface StartButtonListener {
         public void onStart();
@@ -40,9 +40,8 @@ public class StartButton extends GameButton {
     }
 
     @Override
-    public void act(float delta) {
-        super.act(delta);
-        if (GameManager.getInstance().getGameState() != GameState.OVER) {
+    public void onGameStateChanged(GameState previous, GameState current) {
+        if (current != GameState.OVER) {
             remove();
         }
     }
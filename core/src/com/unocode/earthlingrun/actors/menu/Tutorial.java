@@ -26,9 +26,9 @@ import com.badlogic.gdx.scenes.scene2d.actions.SequenceAction;
 import com.badlogic.gdx.utils.Align;
 import com.unocode.earthlingrun.enums.GameState;
 import com.unocode.earthlingrun.utils.AssetsManager;
-import com.unocode.earthlingrun.utils.GameManager;
+import com.unocode.earthlingrun.utils.GameStateListener;
 
-public class Tutorial extends Actor {
+public class Tutorial extends Actor implements GameStateListener {
 
     private TextureRegion textureRegion;
     private Rectangle bounds;
@@ -49,9 +49,8 @@ public class Tutorial extends Actor {
     }
 
     @Override
-    public void act(float delta) {
-        super.act(delta);
-        if (GameManager.getInstance().getGameState() == GameState.OVER) {
+    public void onGameStateChanged(GameState previous, GameState current) {
+        if (current == GameState.OVER) {
             remove();
         }
     }
@@ -17,6 +17,7 @@
 package com.unocode.earthlingrun.box2d;
 
 import com.badlogic.gdx.math.Vector2;
+import com.unocode.earthlingrun.enums.EnemyType;
 import com.unocode.earthlingrun.enums.UserDataType;
 import com.unocode.earthlingrun.utils.Constants;
 
@@ -24,12 +25,16 @@ public class EnemyUserData extends UserData {
 
     private Vector2 linearVelocity;
     private String animationAssetId;
+    private EnemyType enemyType;
+    // Whether the runner touched it at the last sample a ReferenceSampler took
+    private boolean touchingRunner;
 
-    public EnemyUserData(float width, float height, String animationAssetId) {
-        super(width, height);
+    public EnemyUserData(EnemyType enemyType) {
+        super(enemyType.getWidth(), enemyType.getHeight());
         userDataType = UserDataType.ENEMY;
         linearVelocity = Constants.ENEMY_LINEAR_VELOCITY;
-        this.animationAssetId = animationAssetId;
+        this.animationAssetId = enemyType.getAnimationAssetId();
+        this.enemyType = enemyType;
     }
 
     public void setLinearVelocity(Vector2 linearVelocity) {
@@ -44,4 +49,16 @@ public class EnemyUserData extends UserData {
         return animationAssetId;
     }
 
+    public EnemyType getEnemyType() {
+        return enemyType;
+    }
+
+    public boolean isTouchingRunner() {
+        return touchingRunner;
+    }
+
+    public void setTouchingRunner(boolean touchingRunner) {
+        this.touchingRunner = touchingRunner;
+    }
+
 }
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.unocode.earthlingrun.controllers;
+
+import com.unocode.earthlingrun.actors.Runner;
+import com.unocode.earthlingrun.enums.EnemyType;
+import com.unocode.earthlingrun.utils.Constants;
+import com.unocode.earthlingrun.utils.ObstacleSpacing;
+import com.unocode.earthlingrun.utils.PhysicsStepController;
+
+/**
+ * A bot that plays the way {@link ObstacleSpacing} expects a player to: it jumps once the next
+ * enemy is its rise time away, lies down just before a flying enemy arrives and gets up for the
+ * next running one. It never double jumps or stomps. The generator spaces enemies for exactly
+ * this, so the bot should only die to spacing bugs
+ */
+public class HeuristicBot implements RunnerController {
+
+    private static final float RUNNER_FRONT = Constants.RUNNER_X +
+            Math.max(Constants.RUNNER_WIDTH, Constants.RUNNER_HEIGHT) / 2;
+
+    @Override
+    public void reset() {
+    }
+
+    @Override
+    public void control(Runner runner, Observation observation, long stepEndNanos) {
+        if (observation.getEnemyCount() == 0) {
+            if (observation.isDodging()) {
+                runner.stopDodge();
+            }
+            return;
+        }
+
+        EnemyType enemyType = observation.getEnemyType(0);
+        float speed = -observation.getEnemyVelocityX(0);
+        float distance = observation.getEnemyFrontX(0) - RUNNER_FRONT;
+        float stepDistance = speed * PhysicsStepController.getInstance().getProfile().getTimeStep();
+
+        if (enemyType.isFlying()) {
+            if (!observation.isDodging() && !observation.isJumping() &&
+                    distance <= stepDistance * 2) {
+                runner.dodge();
+            }
+            return;
+        }
+
+        if (observation.isDodging()) {
+            runner.stopDodge();
+        }
+        float riseDistance = ObstacleSpacing.getRiseTime(enemyType,
+                observation.getDifficulty()) * speed;
+        if (!observation.isJumping() && distance - stepDistance < riseDistance) {
+            runner.jump();
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.unocode.earthlingrun.controllers;
+
+import com.unocode.earthlingrun.actors.Runner;
+import com.unocode.earthlingrun.enums.EnemyType;
+import com.unocode.earthlingrun.utils.Constants;
+import com.unocode.earthlingrun.utils.Difficulty;
+
+/**
+ * What a {@link RunnerController} gets to see before a physics step: the runner's state, the
+ * difficulty and the next few enemies that haven't passed him yet, nearest first. The stage keeps
+ * a single instance and refills it every step. Positions are in world units
+ */
+public class Observation {
+
+    // Enemies whose back edge is behind this have passed the runner
+    private static final float RUNNER_BACK = Constants.RUNNER_X -
+            Math.max(Constants.RUNNER_WIDTH, Constants.RUNNER_HEIGHT) / 2;
+
+    private float runnerY;
+    private float runnerVelocityY;
+    private boolean jumping;
+    private boolean dodging;
+    private Difficulty difficulty;
+
+    private final EnemyType[] enemyTypes = new EnemyType[Constants.OBSERVED_ENEMIES];
+    private final float[] enemyFronts = new float[Constants.OBSERVED_ENEMIES];
+    private final float[] enemyVelocities = new float[Constants.OBSERVED_ENEMIES];
+    private int enemyCount;
+
+    /**
+     * Starts over with the runner's state and no enemies
+     */
+    public void set(Runner runner, Difficulty difficulty) {
+        runnerY = runner.getPosition().y;
+        runnerVelocityY = runner.getVelocity().y;
+        jumping = runner.isJumping();
+        dodging = runner.isDodging();
+        this.difficulty = difficulty;
+        enemyCount = 0;
+    }
+
+    /**
+     * Adds an enemy if it is ahead of the runner and among the nearest
+     */
+    public void addEnemy(EnemyType enemyType, float frontX, float velocityX) {
+        if (frontX + enemyType.getWidth() < RUNNER_BACK) {
+            return;
+        }
+        int index = enemyCount;
+        while (index > 0 && enemyFronts[index - 1] > frontX) {
+            index--;
+        }
+        if (index == enemyTypes.length) {
+            return;
+        }
+        int last = Math.min(enemyCount, enemyTypes.length - 1);
+        for (int i = last; i > index; i--) {
+            enemyTypes[i] = enemyTypes[i - 1];
+            enemyFronts[i] = enemyFronts[i - 1];
+            enemyVelocities[i] = enemyVelocities[i - 1];
+        }
+        enemyTypes[index] = enemyType;
+        enemyFronts[index] = frontX;
+        enemyVelocities[index] = velocityX;
+        enemyCount = last + 1;
+    }
+
+    public float getRunnerY() {
+        return runnerY;
+    }
+
+    public float getRunnerVelocityY() {
+        return runnerVelocityY;
+    }
+
+    /**
+     * @return whether the runner is off the ground after a jump
+     */
+    public boolean isJumping() {
+        return jumping;
+    }
+
+    public boolean isDodging() {
+        return dodging;
+    }
+
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    public int getEnemyCount() {
+        return enemyCount;
+    }
+
+    public EnemyType getEnemyType(int index) {
+        return enemyTypes[index];
+    }
+
+    /**
+     * @return the x of the enemy's front edge, the one facing the runner
+     */
+    public float getEnemyFrontX(int index) {
+        return enemyFronts[index];
+    }
+
+    public float getEnemyVelocityX(int index) {
+        return enemyVelocities[index];
+    }
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.unocode.earthlingrun.controllers;
+
+import com.unocode.earthlingrun.actors.Runner;
+
+/**
+ * Whatever drives the {@link Runner} during a run, be it the player's touches or a scripted
+ * agent. The stage calls it before every physics step of a run with what the runner can see
+ */
+public interface RunnerController {
+
+    /**
+     * Called when a run starts, and for the touch controller also on pause
+     */
+    public void reset();
+
+    /**
+     * Makes the runner jump or dodge, if it should, for the physics step that ends at the given
+     * time
+     */
+    public void control(Runner runner, Observation observation, long stepEndNanos);
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.unocode.earthlingrun.controllers;
+
+import com.unocode.earthlingrun.actors.Runner;
+import com.unocode.earthlingrun.enums.RunnerCommand;
+import com.unocode.earthlingrun.utils.Constants;
+import com.unocode.earthlingrun.utils.InputQueue;
+
+/**
+ * The player. Touches are queued with the time they happened and carried out at the physics step
+ * that time falls in, so they take effect at the step they were made in rather than at the next
+ * frame. Later ones wait for a later step. A full queue drops jumps and dodges, but a stop is
+ * kept aside and carried out once the queue has drained, so the runner never stays ducked.
+ * Until then, newer touches are dropped too, so none of them runs before the stop
+ */
+public class TouchController implements RunnerController {
+
+    private final InputQueue inputQueue = new InputQueue(Constants.INPUT_QUEUE_CAPACITY);
+
+    // A stop that didn't fit in the queue. Later touches are dropped or merge into it
+    private volatile boolean stopDodgePending;
+    private volatile long stopDodgeTime;
+
+    /**
+     * Called from the input callbacks
+     */
+    public void offer(RunnerCommand command, long eventTimeNanos) {
+        if (stopDodgePending || inputQueue.offer(command, eventTimeNanos)) {
+            return;
+        }
+        if (command == RunnerCommand.STOP_DODGE) {
+            stopDodgeTime = eventTimeNanos;
+            stopDodgePending = true;
+        }
+    }
+
+    /**
+     * Input events are stamped by the backend, whose clock isn't necessarily the one frames are
+     * timed with. Called with the time of each frame before it is stepped, so a touch is never
+     * held back past the frame it was delivered in
+     */
+    public void startFrame(long frameTimeNanos) {
+        inputQueue.clampTimes(frameTimeNanos);
+        if (stopDodgePending) {
+            stopDodgeTime = Math.min(stopDodgeTime, frameTimeNanos);
+        }
+    }
+
+    @Override
+    public void reset() {
+        inputQueue.clear();
+        stopDodgePending = false;
+    }
+
+    @Override
+    public void control(Runner runner, Observation observation, long stepEndNanos) {
+        while (!inputQueue.isEmpty() && inputQueue.peekTime() < stepEndNanos) {
+            switch (inputQueue.poll()) {
+                case JUMP:
+                    runner.jump();
+                    break;
+                case DODGE:
+                    runner.dodge();
+                    break;
+                case STOP_DODGE:
+                    stopDodge(runner);
+                    break;
+            }
+        }
+        if (stopDodgePending && inputQueue.isEmpty() && stopDodgeTime < stepEndNanos) {
+            stopDodgePending = false;
+            stopDodge(runner);
+        }
+    }
+
+    private void stopDodge(Runner runner) {
+        if (runner.isDodging()) {
+            runner.stopDodge();
+        }
+    }
+
+}
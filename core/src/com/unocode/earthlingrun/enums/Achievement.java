@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.enums;
+
+/**
+ * The achievement rule table. Each rule is either unlocked once its metric goes over the threshold
+ * in a single run, or incremented by the metric's value until its count goes over the threshold.
+ * <p/>
+ * The key is the platform resource name used to resolve the achievement ID through
+ * {@link com.unocode.earthlingrun.utils.GameEventListener#getAchievementId(String)}, so a new
+ * achievement only needs a new row here and the matching resource on each platform.
+ */
+public enum Achievement {
+
+    GETTING_STARTED("achievement_getting_started", AchievementMetric.GAMES_PLAYED, 0, false),
+    LIKE_A_ROVER("achievement_like_a_rover", AchievementMetric.GAMES_PLAYED, 10, true),
+    SPIRIT("achievement_spirit", AchievementMetric.GAMES_PLAYED, 100, true),
+    CURIOSITY("achievement_curiosity", AchievementMetric.GAMES_PLAYED, 500, true),
+    CLUB_5K("achievement_5k_club", AchievementMetric.SCORE, 5000, false),
+    CLUB_10K("achievement_10k_club", AchievementMetric.SCORE, 10000, false),
+    CLUB_25K("achievement_25k_club", AchievementMetric.SCORE, 25000, false),
+    CLUB_50K("achievement_50k_club", AchievementMetric.SCORE, 50000, false),
+    JUMP_STREET_10("achievement_10_jump_street", AchievementMetric.JUMPS, 10, true),
+    JUMP_STREET_100("achievement_100_jump_street", AchievementMetric.JUMPS, 100, true),
+    JUMP_STREET_500("achievement_500_jump_street", AchievementMetric.JUMPS, 500, true),
+    DOUBLE_JUMP_STREET_10("achievement_10_double_jump_street", AchievementMetric.DOUBLE_JUMPS, 10,
+            true),
+    DOUBLE_JUMP_STREET_100("achievement_100_double_jump_street", AchievementMetric.DOUBLE_JUMPS,
+            100, true),
+    DOUBLE_JUMP_STREET_500("achievement_500_double_jump_street", AchievementMetric.DOUBLE_JUMPS,
+            500, true),
+    POWER_STOMP_STREET_10("achievement_10_power_stomp_street", AchievementMetric.POWER_STOMPS, 10,
+            true),
+    POWER_STOMP_STREET_100("achievement_100_power_stomp_street", AchievementMetric.POWER_STOMPS,
+            100, true),
+    POWER_STOMP_STREET_500("achievement_500_power_stomp_street", AchievementMetric.POWER_STOMPS,
+            500, true);
+
+    private String key;
+    private AchievementMetric metric;
+    private int threshold;
+    private boolean incremental;
+
+    Achievement(String key, AchievementMetric metric, int threshold, boolean incremental) {
+        this.key = key;
+        this.metric = metric;
+        this.threshold = threshold;
+        this.incremental = incremental;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public AchievementMetric getMetric() {
+        return metric;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+}
@@ -72,4 +72,11 @@ public enum EnemyType {
     public String getAnimationAssetId() {
         return animationAssetsId;
     }
+
+    /**
+     * Flying enemies are dodged, the others have to be jumped over
+     */
+    public boolean isFlying() {
+        return y >= Constants.FLYING_ENEMY_Y;
+    }
 }
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.enums;
+
+/**
+ * Categories of gameplay log messages. Each one can be switched off on its own
+ */
+public enum LogCategory {
+
+    RUNNER("Runner"),
+    CONTACT("Contact"),
+    RUN("Run"),
+    TRACE("Trace");
+
+    private String tag;
+
+    LogCategory(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+}
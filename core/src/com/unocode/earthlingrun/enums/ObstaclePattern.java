@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.enums;
+
+import static com.unocode.earthlingrun.enums.EnemyType.FLYING_SMALL;
+import static com.unocode.earthlingrun.enums.EnemyType.FLYING_WIDE;
+import static com.unocode.earthlingrun.enums.EnemyType.RUNNING_BIG;
+import static com.unocode.earthlingrun.enums.EnemyType.RUNNING_LONG;
+import static com.unocode.earthlingrun.enums.EnemyType.RUNNING_SMALL;
+import static com.unocode.earthlingrun.enums.EnemyType.RUNNING_WIDE;
+
+/**
+ * The library the obstacle generator draws from. A pattern is a sequence of enemies, each with
+ * the seconds of slack it gets on top of the smallest gap that can be survived behind the enemy
+ * before it. The first slack is the breather after the previous pattern
+ */
+public enum ObstaclePattern {
+
+    SINGLE_RUNNING_SMALL(6, new float[] {1.2f}, RUNNING_SMALL),
+    SINGLE_RUNNING_WIDE(6, new float[] {1.2f}, RUNNING_WIDE),
+    SINGLE_RUNNING_LONG(6, new float[] {1.2f}, RUNNING_LONG),
+    SINGLE_RUNNING_BIG(6, new float[] {1.2f}, RUNNING_BIG),
+    SINGLE_FLYING_SMALL(6, new float[] {1.2f}, FLYING_SMALL),
+    SINGLE_FLYING_WIDE(6, new float[] {1.2f}, FLYING_WIDE),
+    DOUBLE_HOP(3, new float[] {1f, 0.15f}, RUNNING_SMALL, RUNNING_SMALL),
+    HOP_THEN_DUCK(3, new float[] {1f, 0.2f}, RUNNING_SMALL, FLYING_SMALL),
+    DUCK_THEN_HOP(3, new float[] {1f, 0.2f}, FLYING_WIDE, RUNNING_LONG),
+    SWARM(2, new float[] {1f, 0f, 0f}, FLYING_SMALL, FLYING_WIDE, FLYING_SMALL),
+    WALL_THEN_HOP(2, new float[] {1f, 0.3f}, RUNNING_BIG, RUNNING_SMALL),
+    GAUNTLET(1, new float[] {1.2f, 0.25f, 0.25f, 0.25f}, RUNNING_SMALL, FLYING_SMALL,
+            RUNNING_WIDE, FLYING_WIDE);
+
+    private int weight;
+    private float[] slack;
+    private EnemyType[] enemies;
+
+    ObstaclePattern(int weight, float[] slack, EnemyType... enemies) {
+        this.weight = weight;
+        this.slack = slack;
+        this.enemies = enemies;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public int getLength() {
+        return enemies.length;
+    }
+
+    public EnemyType getEnemy(int index) {
+        return enemies[index];
+    }
+
+    /**
+     * @return the seconds of slack in front of the enemy at the given index
+     */
+    public float getSlack(int index) {
+        return slack[index];
+    }
+
+    public static int getTotalWeight() {
+        int total = 0;
+        for (ObstaclePattern pattern : values()) {
+            total += pattern.weight;
+        }
+        return total;
+    }
+
+    public static int getMaxLength() {
+        int max = 0;
+        for (ObstaclePattern pattern : values()) {
+            max = Math.max(max, pattern.enemies.length);
+        }
+        return max;
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.enums;
+
+import com.unocode.earthlingrun.utils.Constants;
+
+/**
+ * Physics step rates and solver iterations, from the most accurate to the cheapest. The cheaper
+ * profiles step less often, and still play the same game as {@link #HIGH}: take-offs and changes
+ * of gravity are compensated so the runner flies the same arc, continuous collision stops him on
+ * anything he would have touched between two steps, and coins, hits and landings are found by a
+ * {@link com.unocode.earthlingrun.utils.ReferenceSampler} at the instants {@link #HIGH} steps to.
+ */
+public enum PhysicsProfile {
+
+    HIGH(Constants.PHYSICS_STEPS_PER_SECOND, Constants.PHYSICS_VELOCITY_ITERATIONS,
+            Constants.PHYSICS_POSITION_ITERATIONS),
+    MEDIUM(180, 6, 2),
+    LOW(120, 6, 2);
+
+    private int stepsPerSecond;
+    private int velocityIterations;
+    private int positionIterations;
+
+    PhysicsProfile(int stepsPerSecond, int velocityIterations, int positionIterations) {
+        this.stepsPerSecond = stepsPerSecond;
+        this.velocityIterations = velocityIterations;
+        this.positionIterations = positionIterations;
+    }
+
+    public int getStepsPerSecond() {
+        return stepsPerSecond;
+    }
+
+    public float getTimeStep() {
+        return 1f / stepsPerSecond;
+    }
+
+    public long getStepNanos() {
+        return 1000000000L / stepsPerSecond;
+    }
+
+    public int getVelocityIterations() {
+        return velocityIterations;
+    }
+
+    public int getPositionIterations() {
+        return positionIterations;
+    }
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.enums;
+
+/**
+ * The spans recorded by {@link com.unocode.earthlingrun.metrics.FrameTracer}, with the name and
+ * category they are given in a trace
+ */
+public enum TracePhase {
+
+    FRAME("frame", "frame"),
+    INPUT("input", "input"),
+    ACT("act", "stage"),
+    DRAW("draw", "stage"),
+    PHYSICS_STEP("physicsStep", "physics"),
+    CONTACT("beginContact", "physics"),
+    RUN_COMMIT("commitRun", "io");
+
+    private String traceName;
+    private String category;
+
+    TracePhase(String traceName, String category) {
+        this.traceName = traceName;
+        this.category = category;
+    }
+
+    public String getTraceName() {
+        return traceName;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+}
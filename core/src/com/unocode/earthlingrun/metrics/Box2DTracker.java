@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.metrics;
+
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.World;
+
+/**
+ * Counts the live Box2D objects created through {@link com.unocode.earthlingrun.utils.WorldUtils}.
+ * Box2D memory lives on the native heap, out of reach of the garbage collector, so an object that
+ * isn't destroyed is never reclaimed. The native footprint is estimated from the size of the
+ * Box2D structures behind each object.
+ */
+public class Box2DTracker {
+
+    // A world carries a 100KB stack allocator plus the first block allocator chunk
+    private static final long WORLD_NATIVE_BYTES = 120 * 1024;
+    private static final long BODY_NATIVE_BYTES = 160;
+    // A fixture owns a clone of its shape and a broad-phase proxy
+    private static final long FIXTURE_NATIVE_BYTES = 256;
+    private static final long SHAPE_NATIVE_BYTES = 160;
+
+    private static final MetricsRegistry REGISTRY = MetricsRegistry.getInstance();
+
+    public static final Gauge WORLDS = REGISTRY.gauge("box2d.worlds");
+    public static final Gauge BODIES = REGISTRY.gauge("box2d.bodies");
+    public static final Gauge FIXTURES = REGISTRY.gauge("box2d.fixtures");
+    public static final Gauge SHAPES = REGISTRY.gauge("box2d.shapes");
+    public static final Gauge NATIVE_BYTES = REGISTRY.gauge("memory.box2d_native_estimate");
+
+    private Box2DTracker() {
+    }
+
+    public static void worldCreated() {
+        WORLDS.set(WORLDS.get() + 1);
+        updateNativeBytes();
+    }
+
+    /**
+     * Must be called before the world is disposed, which destroys every body still in it
+     */
+    public static void worldDisposed(World world) {
+        WORLDS.set(WORLDS.get() - 1);
+        BODIES.set(BODIES.get() - world.getBodyCount());
+        FIXTURES.set(FIXTURES.get() - world.getFixtureCount());
+        updateNativeBytes();
+    }
+
+    /**
+     * Must be called once the body has all its fixtures
+     */
+    public static void bodyCreated(Body body) {
+        BODIES.set(BODIES.get() + 1);
+        FIXTURES.set(FIXTURES.get() + body.getFixtureList().size);
+        updateNativeBytes();
+    }
+
+    /**
+     * Must be called before the body is destroyed
+     */
+    public static void bodyDestroyed(Body body) {
+        BODIES.set(BODIES.get() - 1);
+        FIXTURES.set(FIXTURES.get() - body.getFixtureList().size);
+        updateNativeBytes();
+    }
+
+    public static void shapeCreated() {
+        SHAPES.set(SHAPES.get() + 1);
+        updateNativeBytes();
+    }
+
+    public static void shapeDisposed() {
+        SHAPES.set(SHAPES.get() - 1);
+        updateNativeBytes();
+    }
+
+    private static void updateNativeBytes() {
+        NATIVE_BYTES.set(WORLDS.get() * WORLD_NATIVE_BYTES + BODIES.get() * BODY_NATIVE_BYTES +
+                FIXTURES.get() * FIXTURE_NATIVE_BYTES + SHAPES.get() * SHAPE_NATIVE_BYTES);
+    }
+
+}
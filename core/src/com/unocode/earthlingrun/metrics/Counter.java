@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.metrics;
+
+/**
+ * A monotonically increasing count
+ */
+public class Counter {
+
+    private long count;
+
+    public void increment() {
+        count++;
+    }
+
+    public void add(long amount) {
+        count += amount;
+    }
+
+    public long get() {
+        return count;
+    }
+
+    public void reset() {
+        count = 0;
+    }
+
+}
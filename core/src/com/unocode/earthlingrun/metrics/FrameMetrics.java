@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.metrics;
+
+import com.badlogic.gdx.Gdx;
+
+/**
+ * The metrics fed by the frame pipeline. Times are recorded in microseconds.
+ */
+public class FrameMetrics {
+
+    private static final MetricsRegistry REGISTRY = MetricsRegistry.getInstance();
+
+    // 250us buckets up to 100ms
+    public static final Histogram FRAME_TIME = REGISTRY.histogram("frame.time", 400, 250);
+    public static final Histogram FRAME_WORK_TIME = REGISTRY.histogram("frame.work_time", 400,
+            250);
+    // 10us buckets up to 4ms
+    public static final Histogram PHYSICS_STEP_TIME = REGISTRY.histogram("physics.step_time", 400,
+            10);
+
+    public static final Counter FRAMES = REGISTRY.counter("frame.count");
+    public static final Counter PHYSICS_STEPS = REGISTRY.counter("physics.steps");
+    public static final Counter GC_EVENTS = REGISTRY.counter("gc.events");
+
+    public static final Gauge FPS = REGISTRY.gauge("frame.fps");
+    public static final Gauge STEPS_PER_FRAME = REGISTRY.gauge("physics.steps_per_frame");
+    public static final Gauge PHYSICS_STEP_RATE = REGISTRY.gauge("physics.step_rate");
+    public static final Gauge BODY_COUNT = REGISTRY.gauge("physics.bodies");
+    public static final Gauge ACTOR_COUNT = REGISTRY.gauge("stage.actors");
+    public static final Gauge DRAW_CALLS = REGISTRY.gauge("render.draw_calls");
+    public static final Gauge JAVA_HEAP = REGISTRY.gauge("memory.java_heap");
+    public static final Gauge NATIVE_HEAP = REGISTRY.gauge("memory.native_heap");
+
+    private FrameMetrics() {
+    }
+
+    /**
+     * Records the end of a frame. There is no portable GC notification, so a collection is
+     * counted whenever the used Java heap shrinks between two frames
+     */
+    public static void recordFrame(float delta, long workNanos) {
+        FRAMES.increment();
+        FRAME_TIME.record((long) (delta * 1000000));
+        FRAME_WORK_TIME.record(workNanos / 1000);
+        FPS.set(Gdx.graphics.getFramesPerSecond());
+
+        long javaHeap = Gdx.app.getJavaHeap();
+        if (javaHeap < JAVA_HEAP.get()) {
+            GC_EVENTS.increment();
+        }
+        JAVA_HEAP.set(javaHeap);
+        NATIVE_HEAP.set(Gdx.app.getNativeHeap());
+    }
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.metrics;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.unocode.earthlingrun.enums.TracePhase;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * An opt-in tracer for the phases of a frame. Completed spans go into a preallocated ring buffer,
+ * so the most recent {@link #CAPACITY} spans are always available and recording never allocates.
+ * The buffer can be written out in the Chrome trace event format and opened in chrome://tracing
+ * or Perfetto.
+ * <p/>
+ * Spans must be opened and closed on the render thread, in nested order. Spans nested deeper
+ * than {@link #MAX_DEPTH} are dropped and counted. While the tracer is disabled,
+ * {@link #begin(TracePhase)} and {@link #end(TracePhase)} only read a flag.
+ */
+public class FrameTracer {
+
+    public static final int CAPACITY = 16384;
+    private static final int MAX_DEPTH = 16;
+
+    private static final TracePhase[] PHASES = TracePhase.values();
+
+    private static boolean enabled;
+
+    // Completed spans, oldest first starting at head once the buffer has wrapped
+    private static final byte[] phases = new byte[CAPACITY];
+    private static final long[] starts = new long[CAPACITY];
+    private static final long[] durations = new long[CAPACITY];
+    private static int head;
+    private static int size;
+
+    // Spans that are still open
+    private static final byte[] openPhases = new byte[MAX_DEPTH];
+    private static final long[] openStarts = new long[MAX_DEPTH];
+    private static int depth;
+    // Spans opened past MAX_DEPTH that haven't been closed yet, and all those dropped so far
+    private static int overflow;
+    private static int dropped;
+
+    private FrameTracer() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts or stops recording. Spans that are open when this is called are dropped
+     */
+    public static void setEnabled(boolean enabled) {
+        FrameTracer.enabled = enabled;
+        depth = 0;
+        overflow = 0;
+    }
+
+    public static void begin(TracePhase phase) {
+        if (!enabled) {
+            return;
+        }
+        if (depth == MAX_DEPTH) {
+            overflow++;
+            dropped++;
+            return;
+        }
+        openPhases[depth] = (byte) phase.ordinal();
+        openStarts[depth] = TimeUtils.nanoTime();
+        depth++;
+    }
+
+    public static void end(TracePhase phase) {
+        if (!enabled) {
+            return;
+        }
+        if (overflow > 0) {
+            overflow--;
+            return;
+        }
+        if (depth == 0) {
+            return;
+        }
+        long end = TimeUtils.nanoTime();
+        depth--;
+        if (openPhases[depth] != phase.ordinal()) {
+            // Recording started inside this span; everything open is incomplete
+            depth = 0;
+            return;
+        }
+
+        int index = (head + size) % CAPACITY;
+        if (size == CAPACITY) {
+            head = (head + 1) % CAPACITY;
+        } else {
+            size++;
+        }
+        phases[index] = openPhases[depth];
+        starts[index] = openStarts[depth];
+        durations[index] = end - openStarts[depth];
+    }
+
+    public static int getSize() {
+        return size;
+    }
+
+    /**
+     * @return spans dropped for being nested deeper than {@link #MAX_DEPTH} since the last clear
+     */
+    public static int getDropped() {
+        return dropped;
+    }
+
+    public static void clear() {
+        head = 0;
+        size = 0;
+        depth = 0;
+        overflow = 0;
+        dropped = 0;
+    }
+
+    /**
+     * Writes the recorded spans to the given file as a Chrome trace, oldest first
+     */
+    public static void write(FileHandle file) {
+        Writer writer = null;
+        try {
+            writer = file.writer(false, "UTF-8");
+            writer.write("{\"traceEvents\":[");
+            for (int i = 0; i < size; i++) {
+                int index = (head + i) % CAPACITY;
+                TracePhase phase = PHASES[phases[index]];
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write("\n{\"name\":\"");
+                writer.write(phase.getTraceName());
+                writer.write("\",\"cat\":\"");
+                writer.write(phase.getCategory());
+                writer.write("\",\"ph\":\"X\",\"pid\":1,\"tid\":1,\"ts\":");
+                writeMicros(writer, starts[index]);
+                writer.write(",\"dur\":");
+                writeMicros(writer, durations[index]);
+                writer.write('}');
+            }
+            writer.write("\n],\"displayTimeUnit\":\"ms\"}\n");
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't write trace to " + file, e);
+        } finally {
+            StreamUtils.closeQuietly(writer);
+        }
+    }
+
+    /**
+     * Trace timestamps are in microseconds; the nanoseconds are kept as a fraction
+     */
+    private static void writeMicros(Writer writer, long nanos) throws IOException {
+        writer.write(Long.toString(nanos / 1000));
+        int fraction = (int) (nanos % 1000);
+        writer.write('.');
+        if (fraction < 100) {
+            writer.write('0');
+        }
+        if (fraction < 10) {
+            writer.write('0');
+        }
+        writer.write(Integer.toString(fraction));
+    }
+
+}
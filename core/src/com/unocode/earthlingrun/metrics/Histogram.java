@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.metrics;
+
+/**
+ * Distribution of values over fixed-width buckets. Recording a value is a division and an array
+ * increment, so it can be done on every frame without allocating. Values past the last bucket
+ * are counted in it; percentiles are reported as the upper bound of the matching bucket.
+ */
+public class Histogram {
+
+    private final long bucketWidth;
+    private final long[] counts;
+    private long count;
+    private long sum;
+    private long max;
+
+    public Histogram(int bucketCount, long bucketWidth) {
+        this.bucketWidth = bucketWidth;
+        counts = new long[bucketCount];
+    }
+
+    /**
+     * @return a histogram with the same buckets, holding what this one has recorded so far
+     */
+    public Histogram copy() {
+        Histogram copy = new Histogram(counts.length, bucketWidth);
+        copy.set(this);
+        return copy;
+    }
+
+    /**
+     * Makes this histogram hold what the given one, which has the same buckets, has recorded
+     */
+    public void set(Histogram other) {
+        System.arraycopy(other.counts, 0, counts, 0, counts.length);
+        count = other.count;
+        sum = other.sum;
+        max = other.max;
+    }
+
+    public void record(long value) {
+        int bucket = (int) Math.min(counts.length - 1, Math.max(0, value / bucketWidth));
+        counts[bucket]++;
+        count++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * @param percentile in [0, 1]
+     * @return upper bound of the bucket holding the given percentile, or 0 if nothing was recorded
+     */
+    public long getPercentile(float percentile) {
+        return getPercentile(percentile, null);
+    }
+
+    /**
+     * Percentile over what was recorded since {@code since} was last {@link #set(Histogram)} from
+     * this histogram, so each reader can keep its own window without resetting shared state
+     *
+     * @param since an earlier copy of this histogram, or null for everything recorded
+     */
+    public long getPercentile(float percentile, Histogram since) {
+        long windowCount = since != null ? count - since.count : count;
+        if (windowCount <= 0) {
+            return 0;
+        }
+
+        long target = (long) Math.ceil(percentile * windowCount);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += since != null ? counts[i] - since.counts[i] : counts[i];
+            if (seen >= Math.max(1, target)) {
+                return Math.min(max, (i + 1) * bucketWidth);
+            }
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMean() {
+        return count > 0 ? sum / count : 0;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = 0;
+        }
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+
+}
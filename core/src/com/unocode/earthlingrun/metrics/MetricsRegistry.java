@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.metrics;
+
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * A singleton holding every named {@link Counter}, {@link Gauge} and {@link Histogram}. Metrics
+ * are created on first lookup; callers on hot paths keep the returned instance in a field so
+ * recording never goes through the map.
+ */
+public class MetricsRegistry {
+
+    private static MetricsRegistry ourInstance = new MetricsRegistry();
+
+    private final ObjectMap<String, Counter> counters = new ObjectMap<String, Counter>();
+    private final ObjectMap<String, Gauge> gauges = new ObjectMap<String, Gauge>();
+    private final ObjectMap<String, Histogram> histograms = new ObjectMap<String, Histogram>();
+
+    public static MetricsRegistry getInstance() {
+        return ourInstance;
+    }
+
+    private MetricsRegistry() {
+    }
+
+    public Counter counter(String name) {
+        Counter counter = counters.get(name);
+        if (counter == null) {
+            counter = new Counter();
+            counters.put(name, counter);
+        }
+        return counter;
+    }
+
+    public Gauge gauge(String name) {
+        Gauge gauge = gauges.get(name);
+        if (gauge == null) {
+            gauge = new Gauge();
+            gauges.put(name, gauge);
+        }
+        return gauge;
+    }
+
+    /**
+     * Returns the histogram with the given name, creating it with the given buckets if needed
+     */
+    public Histogram histogram(String name, int bucketCount, long bucketWidth) {
+        Histogram histogram = histograms.get(name);
+        if (histogram == null) {
+            histogram = new Histogram(bucketCount, bucketWidth);
+            histograms.put(name, histogram);
+        }
+        return histogram;
+    }
+
+    public ObjectMap<String, Counter> getCounters() {
+        return counters;
+    }
+
+    public ObjectMap<String, Gauge> getGauges() {
+        return gauges;
+    }
+
+    public ObjectMap<String, Histogram> getHistograms() {
+        return histograms;
+    }
+
+}
@@ -19,6 +19,10 @@ package com.unocode.earthlingrun.screens;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.unocode.earthlingrun.enums.TracePhase;
+import com.unocode.earthlingrun.metrics.FrameMetrics;
+import com.unocode.earthlingrun.metrics.FrameTracer;
 import com.unocode.earthlingrun.stages.GameStage;
 
 public class GameScreen implements Screen {
@@ -31,17 +35,24 @@ public class GameScreen implements Screen {
 
     @Override
     public void render(float delta) {
+        long frameStart = TimeUtils.nanoTime();
+        FrameTracer.begin(TracePhase.FRAME);
+
         //Clear the screen
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 
         //Update the stage
         stage.draw();
         stage.act(delta);
+
+        FrameTracer.end(TracePhase.FRAME);
+
+        FrameMetrics.recordFrame(delta, TimeUtils.nanoTime() - frameStart);
     }
 
     @Override
     public void resize(int width, int height) {
-
+        stage.resize(width, height);
     }
 
     @Override
@@ -66,7 +77,7 @@ public class GameScreen implements Screen {
 
     @Override
     public void dispose() {
-
+        stage.dispose();
     }
 
 }
@@ -0,0 +1,547 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.unocode.earthlingrun.simulation;
+
+import com.unocode.earthlingrun.enums.EnemyType;
+import com.unocode.earthlingrun.enums.ObstaclePattern;
+import com.unocode.earthlingrun.enums.PhysicsProfile;
+import com.unocode.earthlingrun.utils.Constants;
+import com.unocode.earthlingrun.utils.Difficulty;
+import com.unocode.earthlingrun.utils.DifficultyCurve;
+import com.unocode.earthlingrun.utils.ObstacleSpacing;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Steps many independent runs in lockstep, for training agents at a scale one Box2D world per
+ * run can't reach. Every run lives in flat arrays indexed by run: the runner's height, speed,
+ * jumps and dodge, the enemies on screen as a ring per run, and the obstacle stream. The runner
+ * falls and lands, jumps, double jumps, dodges and power stomps with the stage's rules and the
+ * enemies are spaced the same way, but collisions are box overlaps instead of Box2D contacts, so
+ * a run follows the stage's closely rather than exactly. Coins are left out.
+ * <p/>
+ * Each run draws its patterns with its own copy of {@link java.util.Random}'s generator, so a
+ * run seed, as in {@link com.unocode.earthlingrun.utils.RunRecord#seed}, meets the same enemies
+ * it would on the stage. Stepping never allocates, and is split across the given number of
+ * threads, the calling one included. A finished run stands still until it is reset. The arrays
+ * the getters return are the live state: read them, don't change them.
+ */
+public class BatchedRuns {
+
+    public static final int ACTION_NONE = 0;
+    public static final int ACTION_JUMP = 1;
+    public static final int ACTION_DODGE = 2;
+    public static final int ACTION_STOP_DODGE = 3;
+
+    // Runner height, vertical speed, jumps, dodging and enemy speed, then the type ordinal and
+    // front edge of each observed enemy, -1 and 0 when there are fewer
+    public static final int OBSERVATION_SIZE = 5 + 2 * Constants.OBSERVED_ENEMIES;
+
+    private static final EnemyType[] ENEMY_TYPES = EnemyType.values();
+    private static final ObstaclePattern[] PATTERNS = ObstaclePattern.values();
+    private static final int PATTERNS_WEIGHT = ObstaclePattern.getTotalWeight();
+
+    private static final float RUNNER_MASS = Constants.RUNNER_DENSITY * Constants.RUNNER_WIDTH *
+            Constants.RUNNER_HEIGHT;
+    private static final float RUNNER_BACK = Constants.RUNNER_X -
+            Math.max(Constants.RUNNER_WIDTH, Constants.RUNNER_HEIGHT) / 2;
+
+    // java.util.Random's generator
+    private static final long RANDOM_MULTIPLIER = 0x5DEECE66DL;
+    private static final long RANDOM_ADDEND = 0xBL;
+    private static final long RANDOM_MASK = (1L << 48) - 1;
+
+    private final int count;
+    private final float timeStep;
+    private final int stepsPerFrame;
+    private final DifficultyCurve curve;
+
+    // The difficulty curve, per sample
+    private final float[] speeds;
+    private final float[] gravities;
+    private final float[] takeOffSpeeds;
+    private final float[] takeOffCompensations;
+    private final int[] multipliers;
+    // Indexed by sample, previous enemy type (0 for none) and next enemy type
+    private final float[] minimumGaps;
+
+    private final float[] runnerY;
+    private final float[] runnerVelocityY;
+    private final int[] jumps;
+    private final boolean[] dodging;
+    private final boolean[] stomping;
+    private final boolean[] done;
+    private final int[] steps;
+    // The difficulty sample of each run's current frame
+    private final int[] samples;
+    private final float[] times;
+    private final float[] scores;
+    private final float[] rewards;
+
+    private final long[] randomSeeds;
+    private final int[] patterns;
+    private final int[] patternPositions;
+    private final int[] previousTypes;
+    private final float[] lastBacks;
+    private final byte[] enemyTypes;
+    private final float[] enemyFronts;
+    private final int[] enemyHeads;
+    private final int[] enemyCounts;
+
+    private final Worker[] workers;
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile int generation;
+    private volatile boolean closed;
+    private volatile Thread caller;
+    private int[] actions;
+
+    public BatchedRuns(DifficultyCurve curve, PhysicsProfile profile, int count, int threads) {
+        this.count = count;
+        this.curve = curve;
+        timeStep = profile.getTimeStep();
+        stepsPerFrame = Math.max(1,
+                profile.getStepsPerSecond() / Constants.BATCH_FRAMES_PER_SECOND);
+
+        int sampleCount = curve.getSampleCount();
+        int types = ENEMY_TYPES.length;
+        speeds = new float[sampleCount];
+        gravities = new float[sampleCount];
+        takeOffSpeeds = new float[sampleCount];
+        takeOffCompensations = new float[sampleCount];
+        multipliers = new int[sampleCount];
+        minimumGaps = new float[sampleCount * (types + 1) * types];
+        Difficulty difficulty = new Difficulty();
+        for (int sample = 0; sample < sampleCount; sample++) {
+            curve.get(sample, difficulty);
+            speeds[sample] = ObstacleSpacing.getSpeed(difficulty);
+            gravities[sample] = -Constants.WORLD_GRAVITY.y * difficulty.getRunnerGravityScale();
+            takeOffSpeeds[sample] = difficulty.getRunnerJumpingLinearImpulse().y / RUNNER_MASS;
+            // Same as PhysicsStepController's, for this profile
+            takeOffCompensations[sample] = gravities[sample] *
+                    (timeStep - PhysicsProfile.HIGH.getTimeStep()) / 2;
+            multipliers[sample] = difficulty.getScoreMultiplier();
+            for (int previous = 0; previous < types; previous++) {
+                for (int next = 0; next < types; next++) {
+                    minimumGaps[(sample * (types + 1) + previous + 1) * types + next] =
+                            ObstacleSpacing.getMinimumGap(ENEMY_TYPES[previous],
+                                    ENEMY_TYPES[next], difficulty);
+                }
+            }
+        }
+
+        runnerY = new float[count];
+        runnerVelocityY = new float[count];
+        jumps = new int[count];
+        dodging = new boolean[count];
+        stomping = new boolean[count];
+        done = new boolean[count];
+        steps = new int[count];
+        samples = new int[count];
+        times = new float[count];
+        scores = new float[count];
+        rewards = new float[count];
+
+        randomSeeds = new long[count];
+        patterns = new int[count];
+        patternPositions = new int[count];
+        previousTypes = new int[count];
+        lastBacks = new float[count];
+        enemyTypes = new byte[count * Constants.BATCH_MAX_ENEMIES];
+        enemyFronts = new float[count * Constants.BATCH_MAX_ENEMIES];
+        enemyHeads = new int[count];
+        enemyCounts = new int[count];
+
+        // The calling thread steps the first slice
+        threads = Math.max(1, Math.min(threads, count));
+        workers = new Worker[threads - 1];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(getSliceStart(i + 1, threads), getSliceStart(i + 2, threads));
+            workers[i].start();
+        }
+    }
+
+    /**
+     * Starts every run over, run i from seeds[i]
+     */
+    public void reset(long[] seeds) {
+        for (int i = 0; i < count; i++) {
+            reset(i, seeds[i]);
+        }
+    }
+
+    /**
+     * Starts one run over from the given run seed
+     */
+    public void reset(int run, long seed) {
+        runnerY[run] = Constants.RUNNER_Y;
+        runnerVelocityY[run] = 0;
+        jumps[run] = 0;
+        dodging[run] = false;
+        stomping[run] = false;
+        done[run] = false;
+        steps[run] = 0;
+        samples[run] = 0;
+        times[run] = 0;
+        scores[run] = 0;
+        rewards[run] = 0;
+
+        randomSeeds[run] = (seed ^ RANDOM_MULTIPLIER) & RANDOM_MASK;
+        patterns[run] = nextPattern(run);
+        patternPositions[run] = 0;
+        previousTypes[run] = -1;
+        enemyHeads[run] = 0;
+        enemyCounts[run] = 0;
+        // Like the stage, the first enemy comes straight away
+        spawn(run, 0, 0, false);
+    }
+
+    /**
+     * Applies one action per run, one of the ACTION_ constants, and moves every run that isn't
+     * done by a physics step
+     */
+    public void step(int[] actions) {
+        this.actions = actions;
+        if (workers.length == 0) {
+            step(0, count);
+            return;
+        }
+        caller = Thread.currentThread();
+        pending.set(workers.length);
+        generation++;
+        for (Worker worker : workers) {
+            LockSupport.unpark(worker);
+        }
+        step(0, workers[0].from);
+        while (pending.get() > 0) {
+            LockSupport.park(this);
+        }
+    }
+
+    /**
+     * Writes {@link #OBSERVATION_SIZE} values per run into out, run after run
+     */
+    public void observe(float[] out) {
+        for (int run = 0; run < count; run++) {
+            int offset = run * OBSERVATION_SIZE;
+            out[offset] = runnerY[run];
+            out[offset + 1] = runnerVelocityY[run];
+            out[offset + 2] = jumps[run];
+            out[offset + 3] = dodging[run] ? 1 : 0;
+            out[offset + 4] = speeds[samples[run]];
+            offset += 5;
+            int observed = 0;
+            int base = run * Constants.BATCH_MAX_ENEMIES;
+            for (int k = 0; k < enemyCounts[run] && observed < Constants.OBSERVED_ENEMIES; k++) {
+                int index = base + (enemyHeads[run] + k) % Constants.BATCH_MAX_ENEMIES;
+                EnemyType enemyType = ENEMY_TYPES[enemyTypes[index]];
+                if (enemyFronts[index] + enemyType.getWidth() < RUNNER_BACK) {
+                    continue;
+                }
+                out[offset + observed * 2] = enemyTypes[index];
+                out[offset + observed * 2 + 1] = enemyFronts[index];
+                observed++;
+            }
+            for (; observed < Constants.OBSERVED_ENEMIES; observed++) {
+                out[offset + observed * 2] = -1;
+                out[offset + observed * 2 + 1] = 0;
+            }
+        }
+    }
+
+    /**
+     * Stops the worker threads. The runs can't be stepped afterwards
+     */
+    public void close() {
+        closed = true;
+        for (Worker worker : workers) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return the points each run scored in the last step
+     */
+    public float[] getRewards() {
+        return rewards;
+    }
+
+    /**
+     * @return whether each run has been hit
+     */
+    public boolean[] getDone() {
+        return done;
+    }
+
+    public float[] getScores() {
+        return scores;
+    }
+
+    /**
+     * @return the seconds each run has lasted
+     */
+    public float[] getTimes() {
+        return times;
+    }
+
+    private void step(int from, int to) {
+        int[] actions = this.actions;
+        for (int run = from; run < to; run++) {
+            if (done[run]) {
+                rewards[run] = 0;
+                continue;
+            }
+            int step = steps[run];
+            if (step % stepsPerFrame == 0) {
+                // The stage moves the difficulty and spawns once a frame, before its steps
+                float frameEnd = (step + stepsPerFrame) * timeStep;
+                samples[run] = curve.getSampleIndex(frameEnd);
+                spawn(run, samples[run],
+                        curve.getSampleIndex(frameEnd + Constants.DIFFICULTY_SPACING_LOOKAHEAD),
+                        true);
+            }
+            int sample = samples[run];
+            steps[run] = step + 1;
+            times[run] = (step + 1) * timeStep;
+            act(run, actions[run], sample);
+            move(run, sample);
+            rewards[run] = multipliers[sample] * timeStep;
+            scores[run] += rewards[run];
+        }
+    }
+
+    /**
+     * Spawns the next enemy once the last one has left it enough room, both now and by the time
+     * it reaches the runner, as the stage does
+     *
+     * @param standing whether the enemy stands still for its first frame. The stage's enemies
+     *                 only pick up their speed once they act, after the frame they spawn in
+     */
+    private void spawn(int run, int sample, int spacingSample, boolean standing) {
+        int enemyCount = enemyCounts[run];
+        if (enemyCount == Constants.BATCH_MAX_ENEMIES) {
+            return;
+        }
+        ObstaclePattern pattern = PATTERNS[patterns[run]];
+        EnemyType next = pattern.getEnemy(patternPositions[run]);
+        float nextFront = next.getX() - next.getWidth() / 2;
+        if (previousTypes[run] >= 0) {
+            float slack = pattern.getSlack(patternPositions[run]);
+            float gap = Math.max(getGap(run, sample, next, slack),
+                    getGap(run, spacingSample, next, slack));
+            if (lastBacks[run] + gap > nextFront - Constants.ENEMY_SPAWN_TOLERANCE) {
+                return;
+            }
+        }
+
+        if (standing) {
+            // Starts it further back by as much as the frame will move it
+            nextFront += speeds[sample] * timeStep * stepsPerFrame;
+        }
+        int index = run * Constants.BATCH_MAX_ENEMIES +
+                (enemyHeads[run] + enemyCount) % Constants.BATCH_MAX_ENEMIES;
+        enemyTypes[index] = (byte) next.ordinal();
+        enemyFronts[index] = nextFront;
+        enemyCounts[run] = enemyCount + 1;
+        lastBacks[run] = nextFront + next.getWidth();
+        previousTypes[run] = next.ordinal();
+
+        patternPositions[run]++;
+        if (patternPositions[run] == pattern.getLength()) {
+            patterns[run] = nextPattern(run);
+            patternPositions[run] = 0;
+        }
+    }
+
+    private float getGap(int run, int sample, EnemyType next, float slack) {
+        int types = ENEMY_TYPES.length;
+        return slack * speeds[sample] +
+                minimumGaps[(sample * (types + 1) + previousTypes[run] + 1) * types +
+                        next.ordinal()];
+    }
+
+    /**
+     * The runner's jump, dodge and stop dodge, with the same conditions as his
+     */
+    private void act(int run, int action, int sample) {
+        switch (action) {
+            case ACTION_JUMP:
+                if (jumps[run] > 1 || dodging[run]) {
+                    break;
+                }
+                float speed = takeOffSpeeds[sample];
+                if (jumps[run] == 0) {
+                    speed += takeOffCompensations[sample];
+                }
+                runnerVelocityY[run] += speed;
+                jumps[run]++;
+                break;
+            case ACTION_DODGE:
+                if (jumps[run] == 1) {
+                    break;
+                }
+                // Dodging on the second jump slams him down and through the enemies
+                stomping[run] = jumps[run] > 1;
+                dodging[run] = true;
+                runnerY[run] = Constants.RUNNER_DODGE_Y;
+                runnerVelocityY[run] = 0;
+                break;
+            case ACTION_STOP_DODGE:
+                if (dodging[run]) {
+                    dodging[run] = false;
+                    runnerY[run] = Constants.RUNNER_Y;
+                    runnerVelocityY[run] = 0;
+                }
+                break;
+        }
+    }
+
+    /**
+     * Moves the runner and the enemies by a step, ends the run on a hit and lands the runner
+     */
+    private void move(int run, int sample) {
+        if (!dodging[run]) {
+            runnerVelocityY[run] -= gravities[sample] * timeStep;
+            runnerY[run] += runnerVelocityY[run] * timeStep;
+        }
+
+        // The runner's box, lying down when he dodges
+        float halfWidth = (dodging[run] ? Constants.RUNNER_HEIGHT : Constants.RUNNER_WIDTH) / 2;
+        float halfHeight = (dodging[run] ? Constants.RUNNER_WIDTH : Constants.RUNNER_HEIGHT) / 2;
+        float runnerX = dodging[run] ? Constants.RUNNER_DODGE_X : Constants.RUNNER_X;
+        float bottom = runnerY[run] - halfHeight;
+        float top = runnerY[run] + halfHeight;
+
+        float distance = speeds[sample] * timeStep;
+        lastBacks[run] -= distance;
+        int base = run * Constants.BATCH_MAX_ENEMIES;
+        for (int k = 0; k < enemyCounts[run]; k++) {
+            int index = base + (enemyHeads[run] + k) % Constants.BATCH_MAX_ENEMIES;
+            float front = enemyFronts[index] - distance;
+            enemyFronts[index] = front;
+            EnemyType enemyType = ENEMY_TYPES[enemyTypes[index]];
+            if (!stomping[run] && front < runnerX + halfWidth &&
+                    front + enemyType.getWidth() > runnerX - halfWidth &&
+                    enemyType.getY() - enemyType.getHeight() / 2 < top &&
+                    enemyType.getY() + enemyType.getHeight() / 2 > bottom) {
+                done[run] = true;
+            }
+        }
+        // Enemies leave the world once they are past the left edge
+        while (enemyCounts[run] > 0) {
+            int index = base + enemyHeads[run];
+            if (enemyFronts[index] + ENEMY_TYPES[enemyTypes[index]].getWidth() > 0) {
+                break;
+            }
+            enemyHeads[run] = (enemyHeads[run] + 1) % Constants.BATCH_MAX_ENEMIES;
+            enemyCounts[run]--;
+        }
+
+        // Lying down puts him on the ground as well
+        if (dodging[run] || runnerY[run] <= Constants.RUNNER_Y) {
+            if (!dodging[run]) {
+                runnerY[run] = Constants.RUNNER_Y;
+                runnerVelocityY[run] = 0;
+            }
+            jumps[run] = 0;
+            stomping[run] = false;
+        }
+    }
+
+    /**
+     * @return a pattern picked in proportion to its weight, as RandomUtils does
+     */
+    private int nextPattern(int run) {
+        int pick = nextInt(run, PATTERNS_WEIGHT);
+        for (int i = 0; i < PATTERNS.length; i++) {
+            pick -= PATTERNS[i].getWeight();
+            if (pick < 0) {
+                return i;
+            }
+        }
+        return PATTERNS.length - 1;
+    }
+
+    /**
+     * java.util.Random#nextInt(int) on the run's own seed
+     */
+    private int nextInt(int run, int bound) {
+        if ((bound & -bound) == bound) {
+            return (int) ((bound * (long) next(run, 31)) >> 31);
+        }
+        int bits;
+        int value;
+        do {
+            bits = next(run, 31);
+            value = bits % bound;
+        } while (bits - value + (bound - 1) < 0);
+        return value;
+    }
+
+    private int next(int run, int bits) {
+        long seed = (randomSeeds[run] * RANDOM_MULTIPLIER + RANDOM_ADDEND) & RANDOM_MASK;
+        randomSeeds[run] = seed;
+        return (int) (seed >>> (48 - bits));
+    }
+
+    private int getSliceStart(int slice, int slices) {
+        return (int) ((long) count * slice / slices);
+    }
+
+    /**
+     * Steps its slice of the runs whenever the caller starts a step
+     */
+    private class Worker extends Thread {
+
+        private final int from;
+        private final int to;
+        // Read before the thread starts, so a step started in between isn't taken as done
+        private int stepped;
+
+        Worker(int from, int to) {
+            super("batched-runs");
+            this.from = from;
+            this.to = to;
+            stepped = generation;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                while (generation == stepped && !closed) {
+                    LockSupport.park(this);
+                }
+                if (closed) {
+                    return;
+                }
+                stepped = generation;
+                step(from, to);
+                if (pending.decrementAndGet() == 0) {
+                    LockSupport.unpark(caller);
+                }
+            }
+        }
+
+    }
+
+}
@@ -17,7 +17,11 @@
 package com.unocode.earthlingrun.stages;
 
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.physics.box2d.Body;
@@ -26,10 +30,17 @@ import com.badlogic.gdx.physics.box2d.ContactImpulse;
 import com.badlogic.gdx.physics.box2d.ContactListener;
 import com.badlogic.gdx.physics.box2d.Manifold;
 import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Group;
 import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.scenes.scene2d.Touchable;
+import com.badlogic.gdx.scenes.scene2d.actions.Actions;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.Scaling;
+import com.badlogic.gdx.utils.TimeUtils;
 import com.badlogic.gdx.utils.viewport.ScalingViewport;
+import com.unocode.earthlingrun.actors.Coins;
 import com.unocode.earthlingrun.actors.Score;
 import com.unocode.earthlingrun.actors.menu.AboutButton;
 import com.unocode.earthlingrun.actors.menu.GameLabel;
@@ -37,7 +48,8 @@ import com.unocode.earthlingrun.actors.menu.MusicButton;
 import com.unocode.earthlingrun.actors.menu.SoundButton;
 import com.unocode.earthlingrun.utils.WorldUtils;
 import com.unocode.earthlingrun.actors.Background;
-import com.unocode.earthlingrun.actors.Enemy;
+import com.unocode.earthlingrun.actors.Enemies;
+import com.unocode.earthlingrun.actors.Ghost;
 import com.unocode.earthlingrun.actors.Ground;
 import com.unocode.earthlingrun.actors.Runner;
 import com.unocode.earthlingrun.actors.menu.AboutLabel;
@@ -45,15 +57,38 @@ import com.unocode.earthlingrun.actors.menu.AchievementsButton;
 import com.unocode.earthlingrun.actors.menu.LeaderboardButton;
 import com.unocode.earthlingrun.actors.menu.PauseButton;
 import com.unocode.earthlingrun.actors.menu.PausedLabel;
+import com.unocode.earthlingrun.actors.menu.PerformanceHud;
+import com.unocode.earthlingrun.actors.menu.RankLabel;
 import com.unocode.earthlingrun.actors.menu.ShareButton;
 import com.unocode.earthlingrun.actors.menu.StartButton;
 import com.unocode.earthlingrun.actors.menu.Tutorial;
-import com.unocode.earthlingrun.enums.Difficulty;
+import com.unocode.earthlingrun.box2d.EnemyUserData;
+import com.unocode.earthlingrun.controllers.Observation;
+import com.unocode.earthlingrun.controllers.RunnerController;
+import com.unocode.earthlingrun.controllers.TouchController;
+import com.unocode.earthlingrun.enums.EnemyType;
 import com.unocode.earthlingrun.enums.GameState;
+import com.unocode.earthlingrun.enums.LogCategory;
+import com.unocode.earthlingrun.enums.PhysicsProfile;
+import com.unocode.earthlingrun.enums.RunnerCommand;
+import com.unocode.earthlingrun.enums.TracePhase;
+import com.unocode.earthlingrun.metrics.FrameMetrics;
+import com.unocode.earthlingrun.metrics.FrameTracer;
 import com.unocode.earthlingrun.utils.AudioUtils;
 import com.unocode.earthlingrun.utils.BodyUtils;
 import com.unocode.earthlingrun.utils.Constants;
+import com.unocode.earthlingrun.utils.Difficulty;
+import com.unocode.earthlingrun.utils.GameLog;
 import com.unocode.earthlingrun.utils.GameManager;
+import com.unocode.earthlingrun.utils.GameStateListener;
+import com.unocode.earthlingrun.utils.GhostTrack;
+import com.unocode.earthlingrun.utils.ObstacleGenerator;
+import com.unocode.earthlingrun.utils.PhysicsStepController;
+import com.unocode.earthlingrun.utils.RandomUtils;
+import com.unocode.earthlingrun.utils.ReferenceSampler;
+import com.unocode.earthlingrun.utils.RunRecord;
+
+import java.util.Locale;
 
 public class GameStage extends Stage implements ContactListener {
 
@@ -61,11 +96,27 @@ public class GameStage extends Stage implements ContactListener {
     private static final int VIEWPORT_HEIGHT = Constants.APP_HEIGHT;
 
     private World world;
+    private final UiStage ui;
     private Ground ground;
     private Runner runner;
+    private Ghost ghost;
+    private final GhostTrack ghostTrack = new GhostTrack();
+    private Coins coins;
+    private final Rectangle runnerBounds = new Rectangle();
+    private final ReferenceSampler referenceSampler = new ReferenceSampler();
+
+    private static final int PERFORMANCE_HUD_TOGGLE_FINGERS = 3;
+    private static final int FRAME_TRACE_TOGGLE_FINGERS = 4;
+    private static final String TAG = "GameStage";
 
-    private final float TIME_STEP = 1 / 300f;
-    private float accumulator = 0f;
+    // Frames longer than this are simulated in slow motion rather than with a burst of steps
+    private static final long MAX_ACCUMULATED_NANOS = 250000000L;
+    // Kept in whole nanoseconds so a 60 FPS frame always holds the same number of steps
+    private long accumulatedNanos;
+
+    private final TouchController touchController = new TouchController();
+    private RunnerController controller = touchController;
+    private final Observation observation = new Observation();
 
     private OrthographicCamera camera;
 
@@ -81,40 +132,97 @@ public class GameStage extends Stage implements ContactListener {
     private ShareButton shareButton;
     private AchievementsButton achievementsButton;
 
+    private PerformanceHud performanceHud;
+    private boolean performanceHudVisible;
+    // Fingers on the screen, and the most there have been since the screen was last clear
+    private int touchesDown;
+    private int gestureFingers;
+    // The finger holding the runner down, -1 when there is none
+    private int dodgePointer = -1;
+
+    private GameLabel gameLabel;
+    private AboutLabel aboutLabel;
+    private RankLabel rankLabel;
+    private PausedLabel pausedLabel;
+
+    // The stage base (background, ground and fixed menu) is built once and always comes first
+    private int baseActorCount;
+    private int baseUiActorCount;
+
+    // Everything subscribed to the game state, taken off again when the stage is disposed
+    private final Array<GameStateListener> gameStateListeners = new Array<GameStateListener>();
+
     private Score score;
     private float totalTimePassed;
     private boolean tutorialShown;
 
     private Vector3 touchPoint;
 
+    private long runSeed;
+    private final RunRecord runRecord = new RunRecord();
+    private final Array<Body> bodies = new Array<Body>();
+
+    private final ObstacleGenerator obstacleGenerator = new ObstacleGenerator();
+    private Enemies enemies;
+    // Where the last enemy's back is, kept moving once it has left the world
+    private float lastEnemyBack;
+    // The difficulty the next enemy will meet the runner at
+    private final Difficulty spacingDifficulty = new Difficulty();
+
     public GameStage() {
         super(new ScalingViewport(Scaling.stretch, VIEWPORT_WIDTH, VIEWPORT_HEIGHT,
                 new OrthographicCamera(VIEWPORT_WIDTH, VIEWPORT_HEIGHT)));
+        ui = new UiStage(getBatch());
+        // Touches go to the menus, nothing in the world is ever hit
+        getRoot().setTouchable(Touchable.disabled);
         setUpCamera();
         setUpStageBase();
-        setUpGameLabel();
-        setUpMainMenu();
+        setUpStateActors();
         setUpTouchControlAreas();
         Gdx.input.setInputProcessor(this);
         AudioUtils.getInstance().init();
+        ui.addActor(gameLabel);
         onGameOver();
     }
 
     private void setUpStageBase() {
         setUpWorld();
         setUpFixedMenu();
+        baseActorCount = getActors().size;
+        baseUiActorCount = ui.getActors().size;
+    }
+
+    /**
+     * Subscribes an actor to the game state for as long as the stage lives
+     */
+    private void listen(GameStateListener listener) {
+        gameStateListeners.add(listener);
+        GameManager.getInstance().addGameStateListener(listener);
+    }
+
+    /**
+     * Creates the actors that come and go with the game state. Restarts only add them to the
+     * stage or take them off, so a new run doesn't build anything
+     */
+    private void setUpStateActors() {
+        setUpGameLabel();
+        setUpAboutText();
+        setUpRankLabel();
+        setUpPauseLabel();
+        setUpPause();
+        setUpMainMenu();
     }
 
     private void setUpGameLabel() {
         Rectangle gameLabelBounds = new Rectangle(0, getCamera().viewportHeight * 7 / 8,
                 getCamera().viewportWidth, getCamera().viewportHeight / 4);
-        addActor(new GameLabel(gameLabelBounds));
+        gameLabel = new GameLabel(gameLabelBounds);
     }
 
     private void setUpAboutText() {
         Rectangle gameLabelBounds = new Rectangle(0, getCamera().viewportHeight * 5 / 8,
                 getCamera().viewportWidth, getCamera().viewportHeight / 4);
-        addActor(new AboutLabel(gameLabelBounds));
+        aboutLabel = new AboutLabel(gameLabelBounds);
     }
 
     /**
@@ -124,6 +232,7 @@ public class GameStage extends Stage implements ContactListener {
         setUpSound();
         setUpMusic();
         setUpScore();
+        setUpPerformanceHud();
     }
 
     private void setUpSound() {
@@ -131,7 +240,7 @@ public class GameStage extends Stage implements ContactListener {
                 getCamera().viewportHeight * 13 / 20, getCamera().viewportHeight / 10,
                 getCamera().viewportHeight / 10);
         soundButton = new SoundButton(soundButtonBounds);
-        addActor(soundButton);
+        ui.addActor(soundButton);
     }
 
     private void setUpMusic() {
@@ -139,7 +248,7 @@ public class GameStage extends Stage implements ContactListener {
                 getCamera().viewportHeight * 4 / 5, getCamera().viewportHeight / 10,
                 getCamera().viewportHeight / 10);
         musicButton = new MusicButton(musicButtonBounds);
-        addActor(musicButton);
+        ui.addActor(musicButton);
     }
 
     private void setUpScore() {
@@ -147,7 +256,44 @@ public class GameStage extends Stage implements ContactListener {
                 getCamera().viewportHeight * 57 / 64, getCamera().viewportWidth / 4,
                 getCamera().viewportHeight / 8);
         score = new Score(scoreBounds);
-        addActor(score);
+        ui.addActor(score);
+    }
+
+    private void setUpPerformanceHud() {
+        Rectangle hudBounds = new Rectangle(getCamera().viewportWidth / 64,
+                getCamera().viewportHeight * 2 / 5, getCamera().viewportWidth / 2,
+                getCamera().viewportHeight * 2 / 5);
+        performanceHud = new PerformanceHud(hudBounds);
+        performanceHud.setVisible(performanceHudVisible);
+        ui.addActor(performanceHud);
+    }
+
+    private void togglePerformanceHud() {
+        performanceHudVisible = !performanceHudVisible;
+        performanceHud.setVisible(performanceHudVisible);
+    }
+
+    /**
+     * The first toggle starts recording a trace, the second one writes it to local storage
+     */
+    private void toggleFrameTrace() {
+        if (!FrameTracer.isEnabled()) {
+            FrameTracer.clear();
+            FrameTracer.setEnabled(true);
+            return;
+        }
+        FrameTracer.setEnabled(false);
+        FileHandle file = Gdx.files.local(String.format(Locale.US, Constants.FRAME_TRACE_FILE_FORMAT,
+                TimeUtils.millis()));
+        try {
+            FrameTracer.write(file);
+        } catch (GdxRuntimeException e) {
+            // A debug toggle must not end the game, e.g. on a full disk
+            GameLog.error(LogCategory.TRACE, "Couldn't write the frame trace", e);
+            return;
+        }
+        Gdx.app.log(TAG, "Wrote " + FrameTracer.getSize() + " trace spans to " + file.path() +
+                ", dropped " + FrameTracer.getDropped() + " nested too deeply");
     }
 
     private void setUpPause() {
@@ -155,7 +301,7 @@ public class GameStage extends Stage implements ContactListener {
                 getCamera().viewportHeight * 1 / 2, getCamera().viewportHeight / 10,
                 getCamera().viewportHeight / 10);
         pauseButton = new PauseButton(pauseButtonBounds, new GamePauseButtonListener());
-        addActor(pauseButton);
+        listen(pauseButton);
     }
 
     /**
@@ -169,12 +315,31 @@ public class GameStage extends Stage implements ContactListener {
         setUpAchievements();
     }
 
+    private void showMainMenu() {
+        if (GameManager.getInstance().hasLastRun()) {
+            rankLabel.refresh();
+            ui.addActor(rankLabel);
+        }
+        ui.addActor(startButton);
+        ui.addActor(leaderboardButton);
+        ui.addActor(aboutButton);
+        ui.addActor(shareButton);
+        ui.addActor(achievementsButton);
+    }
+
+    private void setUpRankLabel() {
+        Rectangle rankLabelBounds = new Rectangle(0, getCamera().viewportHeight * 23 / 32,
+                getCamera().viewportWidth, getCamera().viewportHeight / 8);
+        rankLabel = new RankLabel(rankLabelBounds);
+        listen(rankLabel);
+    }
+
     private void setUpStart() {
         Rectangle startButtonBounds = new Rectangle(getCamera().viewportWidth * 3 / 16,
                 getCamera().viewportHeight / 4, getCamera().viewportWidth / 4,
                 getCamera().viewportWidth / 4);
         startButton = new StartButton(startButtonBounds, new GameStartButtonListener());
-        addActor(startButton);
+        listen(startButton);
     }
 
     private void setUpLeaderboard() {
@@ -183,7 +348,7 @@ public class GameStage extends Stage implements ContactListener {
                 getCamera().viewportWidth / 4);
         leaderboardButton = new LeaderboardButton(leaderboardButtonBounds,
                 new GameLeaderboardButtonListener());
-        addActor(leaderboardButton);
+        listen(leaderboardButton);
     }
 
     private void setUpAbout() {
@@ -191,7 +356,7 @@ public class GameStage extends Stage implements ContactListener {
                 getCamera().viewportHeight * 11 / 20, getCamera().viewportHeight / 10,//was 13
                 getCamera().viewportHeight / 10);
         aboutButton = new AboutButton(aboutButtonBounds, new GameAboutButtonListener());
-        addActor(aboutButton);
+        listen(aboutButton);
     }
 
     private void setUpShare() {
@@ -199,7 +364,6 @@ public class GameStage extends Stage implements ContactListener {
                 getCamera().viewportHeight / 2, getCamera().viewportHeight / 10,
                 getCamera().viewportHeight / 10);
         shareButton = new ShareButton(shareButtonBounds, new GameShareButtonListener());
-        addActor(shareButton);
     }
 
     private void setUpAchievements() {
@@ -208,7 +372,6 @@ public class GameStage extends Stage implements ContactListener {
                 getCamera().viewportHeight / 10);
         achievementsButton = new AchievementsButton(achievementsButtonBounds,
                 new GameAchievementsButtonListener());
-        addActor(achievementsButton);
     }
 
     private void setUpWorld() {
@@ -216,29 +379,122 @@ public class GameStage extends Stage implements ContactListener {
         world.setContactListener(this);
         setUpBackground();
         setUpGround();
+        setUpCoins();
+        setUpEnemies();
     }
 
     private void setUpBackground() {
-        addActor(new Background());
+        Background background = new Background();
+        listen(background);
+        addActor(background);
     }
 
     private void setUpGround() {
         ground = new Ground(WorldUtils.createGround(world));
+        listen(ground);
         addActor(ground);
     }
 
+    private void setUpCoins() {
+        coins = new Coins(Constants.COIN_POOL_SIZE);
+        listen(coins);
+        addActor(coins);
+    }
+
+    /**
+     * The enemies go on the stage with each run, above the runner
+     */
+    private void setUpEnemies() {
+        enemies = new Enemies(Constants.ENEMY_CAPACITY);
+    }
+
     private void setUpCharacters() {
+        PhysicsStepController.getInstance().applyPendingProfile();
+        referenceSampler.reset(PhysicsStepController.getInstance().getProfile());
+        accumulatedNanos = 0;
+        touchController.reset();
+        dodgePointer = -1;
+        controller.reset();
+        seedRun();
+        GameManager.getInstance().resetDifficulty();
+        score.reset();
         setUpRunner();
-        setUpPauseLabel();
-        createEnemy();
+        ui.addActor(pausedLabel);
+        addActor(enemies);
+        createEnemy(obstacleGenerator.next());
+    }
+
+    /**
+     * Each run gets its own seed so its sequence of enemies can be reproduced from the history
+     */
+    private void seedRun() {
+        runSeed = MathUtils.random.nextLong();
+        RandomUtils.setSeed(runSeed);
+        obstacleGenerator.reset();
     }
 
     private void setUpRunner() {
-        if (runner != null) {
-            runner.remove();
+        if (runner == null) {
+            runner = new Runner(WorldUtils.createRunner(world));
+            listen(runner);
+        } else {
+            // The runner's body is only destroyed if he went out of bounds
+            if (!runner.hasBody()) {
+                runner.setBody(WorldUtils.createRunner(world));
+            }
+            runner.reset();
         }
-        runner = new Runner(WorldUtils.createRunner(world));
+        setUpGhost();
         addActor(runner);
+        GameManager.getInstance().getGhostRecorder().start();
+    }
+
+    /**
+     * The ghost of the best run, if there is one, goes on right behind the runner
+     */
+    private void setUpGhost() {
+        if (!GameManager.getInstance().isGhostOn() ||
+                !ghostTrack.open(Gdx.files.local(Constants.GHOST_FILE))) {
+            return;
+        }
+        if (ghost == null) {
+            ghost = new Ghost(runner, ghostTrack);
+            listen(ghost);
+        }
+        ghost.start();
+        addActor(ghost);
+    }
+
+    /**
+     * Takes everything but the stage base off the stage, and the last run's bodies out of the
+     * world
+     */
+    private void clearStage() {
+        // Also drops a pending run commit, so callers commit first
+        getRoot().clearActions();
+
+        removeActors(getRoot(), baseActorCount);
+        removeActors(ui.getRoot(), baseUiActorCount);
+
+        world.getBodies(bodies);
+        for (int i = 0; i < bodies.size; i++) {
+            if (BodyUtils.bodyIsEnemy(bodies.get(i))) {
+                WorldUtils.destroyBody(world, bodies.get(i));
+            }
+        }
+        if (runner != null && runner.hasBody()) {
+            runner.deactivate();
+        }
+        coins.reset();
+        enemies.reset();
+    }
+
+    private void removeActors(Group group, int keep) {
+        Array<Actor> actors = group.getChildren();
+        for (int i = actors.size - 1; i >= keep; i--) {
+            Actor actor = actors.get(i);
+            actor.remove();
+        }
     }
 
     private void setUpCamera() {
@@ -260,7 +516,8 @@ public class GameStage extends Stage implements ContactListener {
     private void setUpPauseLabel() {
         Rectangle pauseLabelBounds = new Rectangle(0, getCamera().viewportHeight * 7 / 8,
                 getCamera().viewportWidth, getCamera().viewportHeight / 4);
-        addActor(new PausedLabel(pauseLabelBounds));
+        pausedLabel = new PausedLabel(pauseLabelBounds);
+        listen(pausedLabel);
     }
 
     private void setUpTutorial() {
@@ -278,8 +535,10 @@ public class GameStage extends Stage implements ContactListener {
         float x = getCamera().viewportWidth / 4 - width / 2;
         Rectangle leftTutorialBounds = new Rectangle(x, getCamera().viewportHeight * 9 / 20, width,
                 height);
-        addActor(new Tutorial(leftTutorialBounds, Constants.TUTORIAL_LEFT_REGION_NAME,
-                Constants.TUTORIAL_LEFT_TEXT));
+        Tutorial tutorial = new Tutorial(leftTutorialBounds, Constants.TUTORIAL_LEFT_REGION_NAME,
+                Constants.TUTORIAL_LEFT_TEXT);
+        listen(tutorial);
+        ui.addActor(tutorial);
     }
 
     private void setUpRightTutorial() {
@@ -288,111 +547,389 @@ public class GameStage extends Stage implements ContactListener {
         float x = getCamera().viewportWidth * 3 / 4 - width / 2;
         Rectangle rightTutorialBounds = new Rectangle(x, getCamera().viewportHeight * 9 / 20, width,
                 height);
-        addActor(new Tutorial(rightTutorialBounds, Constants.TUTORIAL_RIGHT_REGION_NAME,
-                Constants.TUTORIAL_RIGHT_TEXT));
+        Tutorial tutorial = new Tutorial(rightTutorialBounds, Constants.TUTORIAL_RIGHT_REGION_NAME,
+                Constants.TUTORIAL_RIGHT_TEXT);
+        listen(tutorial);
+        ui.addActor(tutorial);
     }
 
     @Override
     public void act(float delta) {
-        super.act(delta);
+        act(delta, TimeUtils.nanoTime());
+    }
 
-        if (GameManager.getInstance().getGameState() == GameState.PAUSED) return;
+    /**
+     * @param frameTimeNanos when the frame's delta ends, on the clock input events are stamped
+     *                       with. Touches stamped later are moved back to it. Replays pass their
+     *                       own clock
+     */
+    public void act(float delta, long frameTimeNanos) {
+        // The menus act while the game is paused, the world doesn't
+        boolean paused = GameManager.getInstance().getGameState() == GameState.PAUSED;
+        FrameTracer.begin(TracePhase.ACT);
+        ui.act(delta);
+        if (!paused) {
+            super.act(delta);
+        }
+        FrameTracer.end(TracePhase.ACT);
+
+        if (paused) return;
 
         if (GameManager.getInstance().getGameState() == GameState.RUNNING) {
+            score.addTime(delta);
             totalTimePassed += delta;
-            //updateDifficulty();
+            updateDifficulty();
+            GameManager.getInstance().getGhostRecorder().record(totalTimePassed,
+                    runner.getPosition().x, runner.getPosition().y, runner.getAngle(),
+                    runner.getPose());
         }
 
-        Array<Body> bodies = new Array<Body>(world.getBodyCount());
         world.getBodies(bodies);
 
-        for (Body body : bodies) {
-            update(body);
+        for (int i = 0; i < bodies.size; i++) {
+            update(bodies.get(i));
+        }
+
+        if (GameManager.getInstance().getGameState() == GameState.RUNNING) {
+            spawnEnemies(delta);
         }
 
         // Fixed timestep
-        accumulator += delta;
+        PhysicsProfile profile = PhysicsStepController.getInstance().getProfile();
+        float timeStep = profile.getTimeStep();
+        long stepNanos = profile.getStepNanos();
+        accumulatedNanos = Math.min(accumulatedNanos + (long) (delta * 1000000000L),
+                MAX_ACCUMULATED_NANOS);
+
+        touchController.startFrame(frameTimeNanos);
+        int steps = 0;
+        long physicsNanos = 0;
+        // The steps run through the time left in the accumulator, up to the frame time
+        long stepEndNanos = frameTimeNanos - accumulatedNanos + stepNanos;
+        while (accumulatedNanos >= stepNanos) {
+            long stepStart = TimeUtils.nanoTime();
+            FrameTracer.begin(TracePhase.PHYSICS_STEP);
+            applyInput(stepEndNanos);
+            if (referenceSampler.isActive()) {
+                stepSampled(profile);
+            } else {
+                world.step(timeStep, profile.getVelocityIterations(),
+                        profile.getPositionIterations());
+                coins.step(timeStep);
+                collectCoins();
+            }
+            FrameTracer.end(TracePhase.PHYSICS_STEP);
+            long stepTime = TimeUtils.nanoTime() - stepStart;
+            FrameMetrics.PHYSICS_STEP_TIME.record(stepTime / 1000);
+            physicsNanos += stepTime;
+            accumulatedNanos -= stepNanos;
+            stepEndNanos += stepNanos;
+            steps++;
+        }
 
-        while (accumulator >= delta) {
-            world.step(TIME_STEP, 6, 2);
-            accumulator -= TIME_STEP;
+        if (GameManager.getInstance().getGameState() == GameState.RUNNING) {
+            PhysicsStepController.getInstance().recordFrame(physicsNanos);
         }
+        FrameMetrics.PHYSICS_STEP_RATE.set(profile.getStepsPerSecond());
+        FrameMetrics.PHYSICS_STEPS.add(steps);
+        FrameMetrics.STEPS_PER_FRAME.set(steps);
+        FrameMetrics.BODY_COUNT.set(world.getBodyCount());
+        FrameMetrics.ACTOR_COUNT.set(getActorCount());
 
         //TODO: Implement interpolation
 
     }
 
+    @Override
+    public void draw() {
+        FrameTracer.begin(TracePhase.DRAW);
+        super.draw();
+        // The batch counts the calls of its last begin and end only
+        int drawCalls = getRenderCalls();
+        ui.draw();
+        drawCalls += getRenderCalls();
+        FrameTracer.end(TracePhase.DRAW);
+        FrameMetrics.DRAW_CALLS.set(drawCalls);
+    }
+
+    private int getRenderCalls() {
+        return getBatch() instanceof SpriteBatch ? ((SpriteBatch) getBatch()).renderCalls : 0;
+    }
+
+    /**
+     * Fits both the world and the menus to the new screen size
+     */
+    public void resize(int width, int height) {
+        getViewport().update(width, height, true);
+        ui.getViewport().update(width, height, true);
+    }
+
+    /**
+     * The stage holding the HUD and the menus, drawn and touched over the world
+     */
+    public UiStage getUiStage() {
+        return ui;
+    }
+
+    /**
+     * @return the score of the current run so far
+     */
+    public int getScore() {
+        return score.getScore();
+    }
+
+    /**
+     * @return the actors on the stage and on its {@link UiStage}
+     */
+    public int getActorCount() {
+        return getActors().size + ui.getActors().size;
+    }
+
+    @Override
+    public void dispose() {
+        ui.dispose();
+        super.dispose();
+        for (int i = 0; i < gameStateListeners.size; i++) {
+            GameManager.getInstance().removeGameStateListener(gameStateListeners.get(i));
+        }
+        gameStateListeners.clear();
+        disposeWorld();
+    }
+
+    private void disposeWorld() {
+        if (world != null) {
+            WorldUtils.disposeWorld(world);
+            world = null;
+        }
+    }
+
     private void update(Body body) {
         if (!BodyUtils.bodyInBounds(body)) {
-            if (BodyUtils.bodyIsEnemy(body) && !runner.isHit()) {
-                createEnemy();
+            if (BodyUtils.bodyIsEnemy(body)) {
+                enemies.remove(body);
             }
-            world.destroyBody(body);
+            WorldUtils.destroyBody(world, body);
+        }
+    }
+
+    /**
+     * Tops up the generated enemies and spawns the next one once the last has left it enough
+     * room, both now and by the time they reach the runner
+     */
+    private void spawnEnemies(float delta) {
+        obstacleGenerator.generate(Constants.OBSTACLE_GENERATION_BUDGET_NANOS);
+        Difficulty difficulty = GameManager.getInstance().getDifficulty();
+        if (enemies.hasLast()) {
+            lastEnemyBack = enemies.getLastBackX();
+        } else {
+            // At high speeds a gap can be wider than the screen and outlast the enemy before it
+            lastEnemyBack += difficulty.getEnemyLinearVelocity().x * delta;
+        }
+        EnemyType next = obstacleGenerator.peek();
+        float nextFront = next.getX() - next.getWidth() / 2;
+        GameManager.getInstance().getDifficultyCurve().sample(
+                totalTimePassed + Constants.DIFFICULTY_SPACING_LOOKAHEAD, spacingDifficulty);
+        float gap = Math.max(obstacleGenerator.getNextGap(difficulty),
+                obstacleGenerator.getNextGap(spacingDifficulty));
+        if (lastEnemyBack + gap > nextFront - Constants.ENEMY_SPAWN_TOLERANCE ||
+                enemies.isFull()) {
+            return;
+        }
+        // Coins fill the room the last enemy left, clear of both enemies
+        coins.placeRow(Math.max(lastEnemyBack, 0) + Constants.COIN_GAP_MARGIN,
+                nextFront - Constants.COIN_GAP_MARGIN, Constants.COIN_Y,
+                difficulty.getEnemyLinearVelocity().x);
+        createEnemy(obstacleGenerator.next());
+    }
+
+    /**
+     * Lets the controller drive the runner for the step that ends at the given time
+     */
+    private void applyInput(long stepEndNanos) {
+        // The run may have ended in an earlier step
+        if (GameManager.getInstance().getGameState() != GameState.RUNNING) {
+            return;
         }
+        observation.set(runner, GameManager.getInstance().getDifficulty());
+        for (int i = 0; i < enemies.getSize(); i++) {
+            observation.addEnemy(enemies.getType(i), enemies.getFrontX(i),
+                    enemies.getVelocityX(i));
+        }
+        controller.control(runner, observation, stepEndNanos);
+    }
+
+    /**
+     * Hands the runner to a scripted controller, or back to the player's touches with null
+     */
+    public void setController(RunnerController controller) {
+        this.controller = controller != null ? controller : touchController;
     }
 
-    private void createEnemy() {
-        Enemy enemy = new Enemy(WorldUtils.createEnemy(world));
-        enemy.getUserData().setLinearVelocity(
+    /**
+     * Steps a profile slower than the reference rate, collecting coins and finding enemy hits at
+     * every instant the reference rate would have stepped to
+     */
+    private void stepSampled(PhysicsProfile profile) {
+        Runner tracked = GameManager.getInstance().getGameState() == GameState.RUNNING ? runner :
+                null;
+        if (referenceSampler.beginStep(tracked)) {
+            // Found at the end of the last step, but reported by the reference step after it
+            findContacts(false);
+        }
+        world.step(profile.getTimeStep(), profile.getVelocityIterations(),
+                profile.getPositionIterations());
+        int samples = referenceSampler.endStep(tracked);
+        for (int i = 0; i < samples; i++) {
+            referenceSampler.moveTo(i);
+            findContacts(true);
+            coins.step(Constants.PHYSICS_TIME_STEP);
+            collectCoins(referenceSampler.getRunnerBounds(runnerBounds));
+            if (!referenceSampler.isStepEnd()) {
+                findContacts(false);
+            }
+        }
+        referenceSampler.finishStep();
+    }
+
+    /**
+     * Lands or hits the runner on the contacts that begin at the current sample, or with impact
+     * just before it. A landing is handled first, so it ends a power stomp before an enemy hit
+     */
+    private void findContacts(boolean impact) {
+        if (impact ? referenceSampler.findLandingImpact() : referenceSampler.findLanding()) {
+            runner.landed();
+        }
+        hitRunner(impact ? referenceSampler.findImpact(enemies) :
+                referenceSampler.findTouch(enemies));
+    }
+
+    private void collectCoins() {
+        if (GameManager.getInstance().getGameState() == GameState.RUNNING) {
+            collectCoins(runner.getBounds(runnerBounds));
+        }
+    }
+
+    private void collectCoins(Rectangle bounds) {
+        if (GameManager.getInstance().getGameState() != GameState.RUNNING || coins.getSize() == 0) {
+            return;
+        }
+        int collected = coins.collect(bounds);
+        if (collected > 0) {
+            score.addCoins(collected);
+        }
+    }
+
+    private void createEnemy(EnemyType enemyType) {
+        Body body = WorldUtils.createEnemy(world, enemyType);
+        ((EnemyUserData) body.getUserData()).setLinearVelocity(
                 GameManager.getInstance().getDifficulty().getEnemyLinearVelocity());
-        addActor(enemy);
+        enemies.add(body);
+    }
+
+    @Override
+    public boolean keyDown(int keyCode) {
+        if (keyCode == Input.Keys.F3) {
+            togglePerformanceHud();
+            return true;
+        }
+        if (keyCode == Input.Keys.F4) {
+            toggleFrameTrace();
+            return true;
+        }
+        if (keyCode == Input.Keys.F5) {
+            GameManager.getInstance().toggleGhost();
+            return true;
+        }
+        return super.keyDown(keyCode);
     }
 
     @Override
     public boolean touchDown(int x, int y, int pointer, int button) {
+        FrameTracer.begin(TracePhase.INPUT);
+        try {
+            return handleTouchDown(x, y, pointer, button);
+        } finally {
+            FrameTracer.end(TracePhase.INPUT);
+        }
+    }
 
-        // Need to get the actual coordinates
-        translateScreenToWorldCoordinates(x, y);
+    private boolean handleTouchDown(int x, int y, int pointer, int button) {
+        touchesDown++;
+        gestureFingers = Math.max(gestureFingers, pointer + 1);
 
-        // If a menu control was touched ignore the rest
-        if (menuControlTouched(touchPoint.x, touchPoint.y)) {
-            return super.touchDown(x, y, pointer, button);
+        // Third and later fingers belong to a toggle gesture, see handleTouchUp
+        if (pointer >= PERFORMANCE_HUD_TOGGLE_FINGERS - 1) {
+            return true;
+        }
+
+        // Menu controls take the touch before the runner sees it. Nothing in the world takes
+        // touches, so it isn't hit-tested
+        if (ui.touchDown(x, y, pointer, button)) {
+            return true;
         }
 
         if (GameManager.getInstance().getGameState() != GameState.RUNNING) {
-            return super.touchDown(x, y, pointer, button);
+            return false;
         }
 
+        // Need to get the actual coordinates
+        translateScreenToWorldCoordinates(x, y);
+
         if (rightSideTouched(touchPoint.x, touchPoint.y)) {
-            runner.jump();
+            touchController.offer(RunnerCommand.JUMP, Gdx.input.getCurrentEventTime());
         } else if (leftSideTouched(touchPoint.x, touchPoint.y)) {
-            runner.dodge();
+            touchController.offer(RunnerCommand.DODGE, Gdx.input.getCurrentEventTime());
+            dodgePointer = pointer;
+        } else {
+            return false;
         }
-
-        return super.touchDown(x, y, pointer, button);
+        return true;
     }
 
     @Override
     public boolean touchUp(int screenX, int screenY, int pointer, int button) {
-
-        if (GameManager.getInstance().getGameState() != GameState.RUNNING) {
-            return super.touchUp(screenX, screenY, pointer, button);
+        FrameTracer.begin(TracePhase.INPUT);
+        try {
+            return handleTouchUp(screenX, screenY, pointer, button);
+        } finally {
+            FrameTracer.end(TracePhase.INPUT);
         }
+    }
 
-        if (runner.isDodging()) {
-            runner.stopDodge();
+    private boolean handleTouchUp(int screenX, int screenY, int pointer, int button) {
+        // A three finger tap toggles the performance overlay, a four finger tap the frame trace.
+        // Both are decided once every finger is up, since a four finger tap has three down first
+        touchesDown = Math.max(touchesDown - 1, 0);
+        if (touchesDown == 0) {
+            int fingers = gestureFingers;
+            gestureFingers = 0;
+            if (fingers == PERFORMANCE_HUD_TOGGLE_FINGERS) {
+                togglePerformanceHud();
+            } else if (fingers == FRAME_TRACE_TOGGLE_FINGERS) {
+                toggleFrameTrace();
+            }
+        }
+        if (pointer >= PERFORMANCE_HUD_TOGGLE_FINGERS - 1) {
+            return true;
         }
 
-        return super.touchUp(screenX, screenY, pointer, button);
-    }
-
-    private boolean menuControlTouched(float x, float y) {
-        boolean touched = false;
+        boolean handled = ui.touchUp(screenX, screenY, pointer, button);
 
-        switch (GameManager.getInstance().getGameState()) {
-            case OVER:
-                touched = startButton.getBounds().contains(x, y)
-                        || leaderboardButton.getBounds().contains(x, y)
-                        || aboutButton.getBounds().contains(x, y);
-                break;
-            case RUNNING:
-            case PAUSED:
-                touched = pauseButton.getBounds().contains(x, y);
-                break;
+        // Only lifting the finger that started the dodge ends it
+        if (GameManager.getInstance().getGameState() != GameState.RUNNING ||
+                pointer != dodgePointer) {
+            return handled;
         }
 
-        return touched || soundButton.getBounds().contains(x, y)
-                || musicButton.getBounds().contains(x, y);
+        touchController.offer(RunnerCommand.STOP_DODGE, Gdx.input.getCurrentEventTime());
+        dodgePointer = -1;
+
+        return true;
+    }
+
+    @Override
+    public boolean touchDragged(int screenX, int screenY, int pointer) {
+        return ui.touchDragged(screenX, screenY, pointer);
     }
 
     private boolean rightSideTouched(float x, float y) {
@@ -415,62 +952,114 @@ public class GameStage extends Stage implements ContactListener {
 
     @Override
     public void beginContact(Contact contact) {
+        FrameTracer.begin(TracePhase.CONTACT);
+        try {
+            handleBeginContact(contact);
+        } finally {
+            FrameTracer.end(TracePhase.CONTACT);
+        }
+    }
+
+    private void handleBeginContact(Contact contact) {
 
         Body a = contact.getFixtureA().getBody();
         Body b = contact.getFixtureB().getBody();
 
         if ((BodyUtils.bodyIsRunner(a) && BodyUtils.bodyIsEnemy(b)) ||
                 (BodyUtils.bodyIsEnemy(a) && BodyUtils.bodyIsRunner(b))) {
-            if (runner.isHit() || runner.isPowerStomping()) {
-                System.out.println("runner.isHit() || runner.isPowerStomping()");
-                return;
+            // Slower profiles find hits and landings at the reference rate's samples instead
+            if (!referenceSampler.isActive()) {
+                Body enemy = BodyUtils.bodyIsEnemy(a) ? a : b;
+                hitRunner(((EnemyUserData) enemy.getUserData()).getEnemyType());
             }
-            System.out.println("runner.isPowerStomping():" + runner.isPowerStomping());
-            runner.hit();
-            //displayAd();
-            int thisGameScore = score.getScore();
-            int thisGameMult = score.getMultiplier();
-            int thisGameJumpCount = runner.getJumpCount();
-            int thisGameDoubleJumpCount = runner.getDoubleJumpCount();
-            int thisGamePowerStompCount = runner.getPowerStompCount();
-            int difficulty = GameManager.getInstance().getDifficulty().getLevel();
-            int difficultyScale = GameManager.getInstance().getDifficultyScale();
-            GameManager.getInstance().submitScore(thisGameScore);
-            onGameOver();
-            GameManager.getInstance().addGamePlayed();
-            GameManager.getInstance().addJumpCount(thisGameJumpCount);
-            GameManager.getInstance().addDoubleJumpCount(thisGameDoubleJumpCount);
-            GameManager.getInstance().addPowerStompCount(thisGamePowerStompCount);
-            System.out.println("GameEnd - score:" + thisGameScore + " | multi:" + thisGameMult + " | jumps:" + thisGameJumpCount + " | double jumps:" + thisGameDoubleJumpCount + " | power stomps:" + thisGamePowerStompCount + " | difficulty:" + difficulty + " | diffculty scale:" + difficultyScale);
-
         } else if ((BodyUtils.bodyIsRunner(a) && BodyUtils.bodyIsGround(b)) ||
                 (BodyUtils.bodyIsGround(a) && BodyUtils.bodyIsRunner(b))) {
-            runner.landed();
+            if (!referenceSampler.isActive()) {
+                runner.landed();
+            }
         }
 
     }
 
-    private void updateDifficulty() {
+    private void hitRunner(int enemyIndex) {
+        if (enemyIndex >= 0) {
+            hitRunner(enemies.getType(enemyIndex));
+        }
+    }
 
-        if (!GameManager.getInstance().isMaxDifficulty()) {
+    private void hitRunner(EnemyType killer) {
+        if (runner.isHit() || runner.isPowerStomping()) {
+            GameLog.debug(LogCategory.CONTACT,
+                    "Enemy contact ignored, runner is hit or power stomping");
             return;
         }
+        GameLog.debug(LogCategory.CONTACT, "Runner hit");
+        runner.hit();
+        GameManager.getInstance().getGhostRecorder().finish(totalTimePassed,
+                runner.getPosition().x, runner.getPosition().y, runner.getAngle());
+        //displayAd();
+        int thisGameScore = score.getScore();
+        int thisGameMult = score.getMultiplier();
+        int thisGameJumpCount = runner.getJumpCount();
+        int thisGameDoubleJumpCount = runner.getDoubleJumpCount();
+        int thisGamePowerStompCount = runner.getPowerStompCount();
+        int difficulty = GameManager.getInstance().getDifficulty().getLevel();
+        runRecord.timestamp = TimeUtils.millis();
+        runRecord.seed = runSeed;
+        runRecord.score = thisGameScore;
+        runRecord.multiplier = thisGameMult;
+        runRecord.jumpCount = thisGameJumpCount;
+        runRecord.doubleJumpCount = thisGameDoubleJumpCount;
+        runRecord.powerStompCount = thisGamePowerStompCount;
+        runRecord.difficulty = difficulty;
+        runRecord.durationMillis = (int) (totalTimePassed * 1000);
+        runRecord.coins = coins.getCollected();
+        runRecord.killer = killer;
+        GameManager.getInstance().recordRun(runRecord);
+        onGameOver();
+        scheduleRunCommit();
+        GameLog.event(LogCategory.RUN, "game_over")
+                .put("score", thisGameScore)
+                .put("multiplier", thisGameMult)
+                .put("jumps", thisGameJumpCount)
+                .put("double_jumps", thisGameDoubleJumpCount)
+                .put("power_stomps", thisGamePowerStompCount)
+                .put("difficulty", difficulty)
+                .put("duration_ms", runRecord.durationMillis)
+                .put("coins", runRecord.coins)
+                .put("killer", runRecord.killer)
+                .put("seed", runSeed)
+                .log();
+    }
 
-        Difficulty currentDifficulty = GameManager.getInstance().getDifficulty();
-
-        GameManager.getInstance().setDifficultyScale(1);
-        if (totalTimePassed > GameManager.getInstance().getDifficulty().getLevel() * GameManager.getInstance().getDifficultyScale()) {
-
-            int nextDifficulty = currentDifficulty.getLevel() + 1;
-            String difficultyName = "DIFFICULTY_" + nextDifficulty;
-            GameManager.getInstance().setDifficulty(Difficulty.valueOf(difficultyName));
-
-            runner.onDifficultyChange(GameManager.getInstance().getDifficulty());
-            score.setMultiplier(GameManager.getInstance().getDifficulty().getScoreMultiplier());
+    /**
+     * Achievements and scores are committed once the death animation is under way so the
+     * preferences flush and the platform calls don't land on the frame the runner gets hit
+     */
+    private void scheduleRunCommit() {
+        addAction(Actions.sequence(Actions.delay(Constants.RUN_COMMIT_DELAY),
+                Actions.run(new Runnable() {
+                    @Override
+                    public void run() {
+                        GameManager.getInstance().commitRun();
+                    }
+                })));
+    }
 
-            //displayAd();
+    /**
+     * Enemies share the difficulty's velocity, so on a transition they pick it up on their next
+     * act. Everything else that depends on the difficulty is updated here
+     */
+    private void updateDifficulty() {
+        if (!GameManager.getInstance().updateDifficulty(totalTimePassed)) {
+            return;
         }
-
+        Difficulty difficulty = GameManager.getInstance().getDifficulty();
+        if (runner.hasBody()) {
+            runner.onDifficultyChange(difficulty);
+        }
+        coins.setVelocity(difficulty.getEnemyLinearVelocity().x);
+        score.setMultiplier(difficulty.getScoreMultiplier());
     }
 
     //private void displayAd() {
@@ -484,7 +1073,16 @@ public class GameStage extends Stage implements ContactListener {
 
     @Override
     public void preSolve(Contact contact, Manifold oldManifold) {
-
+        // Until a sampled hit, an enemy the runner meets between samples mustn't move him
+        if (!referenceSampler.isActive() || runner.isHit() || runner.isPowerStomping()) {
+            return;
+        }
+        Body a = contact.getFixtureA().getBody();
+        Body b = contact.getFixtureB().getBody();
+        if ((BodyUtils.bodyIsRunner(a) && BodyUtils.bodyIsEnemy(b)) ||
+                (BodyUtils.bodyIsEnemy(a) && BodyUtils.bodyIsRunner(b))) {
+            contact.setEnabled(false);
+        }
     }
 
     @Override
@@ -510,10 +1108,11 @@ public class GameStage extends Stage implements ContactListener {
 
         @Override
         public void onStart() {
-            clear();
-            setUpStageBase();
+            // A restart clears the pending commit action, so commit right away
+            GameManager.getInstance().commitRun();
+            clearStage();
             setUpCharacters();
-            setUpPause();
+            ui.addActor(pauseButton);
             setUpTutorial();
             onGameResumed();
         }
@@ -537,9 +1136,8 @@ public class GameStage extends Stage implements ContactListener {
             if (GameManager.getInstance().getGameState() == GameState.OVER) {
                 onGameAbout();
             } else {
-                clear();
-                setUpStageBase();
-                setUpGameLabel();
+                clearStage();
+                ui.addActor(gameLabel);
                 onGameOver();
             }
         }
@@ -567,6 +1165,7 @@ public class GameStage extends Stage implements ContactListener {
 
     private void onGamePaused() {
         GameManager.getInstance().setGameState(GameState.PAUSED);
+        touchController.reset();
     }
 
     private void onGameResumed() {
@@ -575,18 +1174,19 @@ public class GameStage extends Stage implements ContactListener {
 
     private void onGameOver() {
         GameManager.getInstance().setGameState(GameState.OVER);
-        GameManager.getInstance().resetDifficulty();
+        // The track's file is rewritten when a better run is committed
+        ghostTrack.close();
         totalTimePassed = 0;
-        setUpMainMenu();
+        showMainMenu();
     }
 
     private void onGameAbout() {
         GameManager.getInstance().setGameState(GameState.ABOUT);
-        clear();
-        setUpStageBase();
-        setUpGameLabel();
-        setUpAboutText();
-        setUpAbout();
+        GameManager.getInstance().commitRun();
+        clearStage();
+        ui.addActor(gameLabel);
+        ui.addActor(aboutLabel);
+        ui.addActor(aboutButton);
     }
 
 }
\ No newline at end of file
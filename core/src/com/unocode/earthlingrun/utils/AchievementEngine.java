@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.utils;
+
+import com.unocode.earthlingrun.enums.Achievement;
+import com.unocode.earthlingrun.enums.AchievementMetric;
+
+/**
+ * Evaluates the {@link Achievement} rule table. Rules are indexed by
+ * {@link AchievementMetric} once, so evaluating a metric only visits the rules tracking it.
+ */
+public class AchievementEngine {
+
+    private static final Achievement[][] RULES_BY_METRIC = indexRules();
+
+    private final String[] ids = new String[Achievement.values().length];
+
+    /**
+     * Resolves the platform ID of every achievement. Achievements without an ID are skipped
+     */
+    public void resolveIds(GameEventListener listener) {
+        for (Achievement achievement : Achievement.values()) {
+            ids[achievement.ordinal()] = listener != null ?
+                    listener.getAchievementId(achievement.getKey()) : null;
+        }
+    }
+
+    /**
+     * Stages the unlocks and increments triggered by a metric's value for one run
+     */
+    public void evaluate(AchievementMetric metric, int value, AchievementLedger ledger) {
+        if (value <= 0) {
+            return;
+        }
+
+        for (Achievement rule : RULES_BY_METRIC[metric.ordinal()]) {
+            String id = ids[rule.ordinal()];
+            if (id == null) {
+                continue;
+            }
+
+            if (rule.isIncremental()) {
+                // No need to keep counting once the achievement is complete
+                if (ledger.getCount(id) <= rule.getThreshold()) {
+                    ledger.increment(id, value);
+                }
+            } else if (value > rule.getThreshold() && !ledger.isUnlocked(id)) {
+                ledger.unlock(id);
+            }
+        }
+    }
+
+    private static Achievement[][] indexRules() {
+        AchievementMetric[] metrics = AchievementMetric.values();
+        Achievement[] achievements = Achievement.values();
+        Achievement[][] rules = new Achievement[metrics.length][];
+
+        for (AchievementMetric metric : metrics) {
+            int count = 0;
+            for (Achievement achievement : achievements) {
+                if (achievement.getMetric() == metric) {
+                    count++;
+                }
+            }
+
+            rules[metric.ordinal()] = new Achievement[count];
+            count = 0;
+            for (Achievement achievement : achievements) {
+                if (achievement.getMetric() == metric) {
+                    rules[metric.ordinal()][count++] = achievement;
+                }
+            }
+        }
+
+        return rules;
+    }
+
+}
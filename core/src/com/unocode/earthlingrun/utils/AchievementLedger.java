@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.utils;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Preferences;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.ObjectSet;
+
+/**
+ * Keeps achievement progress in memory and commits it in one batch: a single coalesced dispatch
+ * to the {@link GameEventListener} followed by a single {@link Preferences} flush. Persisted
+ * values are read once per achievement and cached afterwards.
+ */
+public class AchievementLedger {
+
+    private static final String ACHIEVEMENT_COUNT_PREFERENCE_SUFFIX = "_count";
+    private static final String ACHIEVEMENT_UNLOCKED_PREFERENCE_SUFFIX = "_unlocked";
+    private static final int UNKNOWN = -1;
+    private static final int NO_SCORE = -1;
+
+    // Persisted state, cached by achievement ID
+    private final ObjectIntMap<String> counts = new ObjectIntMap<String>();
+    private final ObjectIntMap<String> unlocked = new ObjectIntMap<String>();
+    private final ObjectSet<String> dirtyCounts = new ObjectSet<String>();
+    private final ObjectSet<String> dirtyUnlocks = new ObjectSet<String>();
+
+    // Events waiting for the next commit
+    private final Array<String> pendingUnlocks = new Array<String>();
+    private final ObjectIntMap<String> pendingIncrements = new ObjectIntMap<String>();
+    private int pendingScore = NO_SCORE;
+
+    private boolean committing;
+
+    public int getCount(String id) {
+        int count = counts.get(id, UNKNOWN);
+        if (count == UNKNOWN) {
+            count = getPreferences().getInteger(id + ACHIEVEMENT_COUNT_PREFERENCE_SUFFIX, 0);
+            counts.put(id, count);
+        }
+        return count;
+    }
+
+    public boolean isUnlocked(String id) {
+        int state = unlocked.get(id, UNKNOWN);
+        if (state == UNKNOWN) {
+            state = getPreferences().getBoolean(id + ACHIEVEMENT_UNLOCKED_PREFERENCE_SUFFIX,
+                    false) ? 1 : 0;
+            unlocked.put(id, state);
+        }
+        return state == 1;
+    }
+
+    /**
+     * Stages a score submission. Only the best score staged before a commit is dispatched
+     */
+    public void submitScore(int score) {
+        pendingScore = Math.max(pendingScore, score);
+    }
+
+    /**
+     * Stages an achievement unlock. Repeated unlocks of the same ID are dispatched once
+     */
+    public void unlock(String id) {
+        if (!pendingUnlocks.contains(id, false)) {
+            pendingUnlocks.add(id);
+        }
+    }
+
+    /**
+     * Stages an achievement increment. Increments of the same ID are summed into one dispatch
+     */
+    public void increment(String id, int steps) {
+        pendingIncrements.getAndIncrement(id, 0, steps);
+    }
+
+    /**
+     * Records that the platform accepted an unlock
+     */
+    public void markUnlocked(String id) {
+        unlocked.put(id, 1);
+        dirtyUnlocks.add(id);
+        persistIfIdle();
+    }
+
+    /**
+     * Records that the platform accepted an increment
+     */
+    public void addCount(String id, int steps) {
+        counts.put(id, getCount(id) + steps);
+        dirtyCounts.add(id);
+        persistIfIdle();
+    }
+
+    public boolean hasPendingEvents() {
+        return pendingScore != NO_SCORE || pendingUnlocks.size > 0 || pendingIncrements.size > 0;
+    }
+
+    /**
+     * Dispatches every staged event to the given listener and persists the resulting progress
+     * with a single flush
+     */
+    public void commit(GameEventListener listener) {
+        committing = true;
+        try {
+            if (pendingScore != NO_SCORE) {
+                listener.submitScore(pendingScore);
+                pendingScore = NO_SCORE;
+            }
+
+            for (int i = 0; i < pendingUnlocks.size; i++) {
+                listener.unlockAchievement(pendingUnlocks.get(i));
+            }
+            pendingUnlocks.clear();
+
+            for (ObjectIntMap.Entry<String> entry : pendingIncrements.entries()) {
+                listener.incrementAchievement(entry.key, entry.value);
+            }
+            pendingIncrements.clear();
+        } finally {
+            committing = false;
+        }
+        persist();
+    }
+
+    private void persistIfIdle() {
+        if (!committing) {
+            persist();
+        }
+    }
+
+    private void persist() {
+        if (dirtyCounts.size == 0 && dirtyUnlocks.size == 0) {
+            return;
+        }
+
+        Preferences preferences = getPreferences();
+        for (String id : dirtyCounts) {
+            preferences.putInteger(id + ACHIEVEMENT_COUNT_PREFERENCE_SUFFIX, counts.get(id, 0));
+        }
+        for (String id : dirtyUnlocks) {
+            preferences.putBoolean(id + ACHIEVEMENT_UNLOCKED_PREFERENCE_SUFFIX, true);
+        }
+        dirtyCounts.clear();
+        dirtyUnlocks.clear();
+        preferences.flush();
+    }
+
+    private Preferences getPreferences() {
+        return Gdx.app.getPreferences(GameManager.PREFERENCES_NAME);
+    }
+
+}
@@ -75,6 +75,11 @@ public class AssetsManager {
         animationsMap.put(Constants.FLYING_WIDE_ENEMY_ASSETS_ID, createAnimation(textureAtlas,
                 Constants.FLYING_WIDE_ENEMY_REGION_NAMES));
 
+        // Coins
+        String[] coinRegionNames = textureAtlas.findRegion(Constants.COIN_REGION_NAMES[0]) != null ?
+                Constants.COIN_REGION_NAMES : new String[] {Constants.COIN_FALLBACK_REGION_NAME};
+        animationsMap.put(Constants.COIN_ASSETS_ID, createAnimation(textureAtlas, coinRegionNames));
+
         // Tutorial
         texturesMap.put(Constants.TUTORIAL_LEFT_REGION_NAME,
                 textureAtlas.findRegion(Constants.TUTORIAL_LEFT_REGION_NAME));
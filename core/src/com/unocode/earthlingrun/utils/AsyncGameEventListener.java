@@ -0,0 +1,476 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.utils;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.StreamUtils;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A {@link GameEventListener} that keeps score submissions and achievement updates off the render
+ * thread. They are queued, coalesced (best score, one unlock per ID, summed increments per ID)
+ * and delivered to the platform listener by a background worker that retries with backoff when
+ * the platform throws. Undelivered events are saved to a local file so they survive a restart.
+ * <p/>
+ * Only a {@link RuntimeException} is retried. The listener's methods can't throw checked
+ * exceptions, so anything else is an {@link Error}, which retrying won't fix: the worker saves the
+ * queue, stops and rethrows it. The events stay on disk and {@link #start()} picks them up again.
+ * <p/>
+ * The file belongs to one worker at a time. A new listener, e.g. after the activity was
+ * re-created in the same process, only reads it once the previous worker has delivered what it
+ * holds and exited, so nothing is delivered twice. A listener stopped before it could read it
+ * hands its queue over in a second file instead, which the next one that reads the pending
+ * events merges.
+ * <p/>
+ * Every other event needs the UI thread and is forwarded synchronously.
+ */
+public class AsyncGameEventListener implements GameEventListener {
+
+    private static final String TAG = AsyncGameEventListener.class.getSimpleName();
+    private static final int FILE_VERSION = 1;
+    private static final int NO_SCORE = -1;
+    private static final long MIN_RETRY_DELAY_MILLIS = 1000;
+    private static final long MAX_RETRY_DELAY_MILLIS = 60000;
+    private static final long STOP_TIMEOUT_MILLIS = 2000;
+
+    private static final String QUEUED_SUFFIX = ".queued";
+    // Guards the file of handed over events, which any listener may read or write
+    private static final Object QUEUED_LOCK = new Object();
+
+    // The last worker started by any listener, guarded by the class
+    private static Thread lastWorker;
+
+    private final GameEventListener listener;
+    private final Object lock = new Object();
+
+    // Queued events, guarded by lock
+    private int pendingScore = NO_SCORE;
+    private final Array<String> pendingUnlocks = new Array<String>();
+    private final ObjectIntMap<String> pendingIncrements = new ObjectIntMap<String>();
+    private boolean dirty;
+    private boolean running;
+    // Whether the saved events were read into the queue. Nothing is saved before, so the file
+    // isn't overwritten while a previous worker still owns it
+    private boolean loaded;
+    // Whether the handed over events are in the queue, so their file goes once the queue is saved
+    private boolean queuedMerged;
+
+    private Thread worker;
+
+    public AsyncGameEventListener(GameEventListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Starts the worker, which first waits for the previous one to exit and then restores the
+     * events left undelivered. Must be called once the application's files are available
+     */
+    public void start() {
+        Thread started;
+        synchronized (AsyncGameEventListener.class) {
+            final Thread previous = lastWorker;
+            started = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    joinQuietly(previous, 0);
+                    synchronized (lock) {
+                        if (!loaded) {
+                            load();
+                            loaded = true;
+                            dirty = true;
+                        }
+                    }
+                    deliverEvents();
+                }
+            }, TAG);
+            synchronized (lock) {
+                if (running) {
+                    return;
+                }
+                running = true;
+                worker = started;
+            }
+            lastWorker = started;
+        }
+        started.setDaemon(true);
+        started.start();
+    }
+
+    /**
+     * Stops the worker, waiting a moment for it to finish an event it's delivering, and saves
+     * whatever hasn't been delivered yet. If the worker is still waiting for a previous one to
+     * give up the pending file, the queue is handed over in a file of its own
+     */
+    public void stop() {
+        Thread stopped;
+        synchronized (lock) {
+            running = false;
+            lock.notifyAll();
+            stopped = worker;
+        }
+        joinQuietly(stopped, STOP_TIMEOUT_MILLIS);
+
+        synchronized (lock) {
+            if (loaded) {
+                dirty = true;
+                save();
+            } else {
+                handOver();
+            }
+        }
+    }
+
+    @Override
+    public void submitScore(int score) {
+        synchronized (lock) {
+            pendingScore = Math.max(pendingScore, score);
+            onQueueChanged();
+        }
+    }
+
+    @Override
+    public void unlockAchievement(String id) {
+        synchronized (lock) {
+            if (!pendingUnlocks.contains(id, false)) {
+                pendingUnlocks.add(id);
+            }
+            onQueueChanged();
+        }
+    }
+
+    @Override
+    public void incrementAchievement(String id, int steps) {
+        synchronized (lock) {
+            pendingIncrements.getAndIncrement(id, 0, steps);
+            onQueueChanged();
+        }
+    }
+
+    @Override
+    public void displayAd() {
+        listener.displayAd();
+    }
+
+    @Override
+    public void hideAd() {
+        listener.hideAd();
+    }
+
+    @Override
+    public void displayLeaderboard() {
+        listener.displayLeaderboard();
+    }
+
+    @Override
+    public void displayAchievements() {
+        listener.displayAchievements();
+    }
+
+    @Override
+    public void share() {
+        listener.share();
+    }
+
+    @Override
+    public String getAchievementId(String key) {
+        return listener.getAchievementId(key);
+    }
+
+    private void onQueueChanged() {
+        dirty = true;
+        lock.notifyAll();
+    }
+
+    private boolean hasPendingEvents() {
+        return pendingScore != NO_SCORE || pendingUnlocks.size > 0 || pendingIncrements.size > 0;
+    }
+
+    /**
+     * Worker loop. Takes a snapshot of the queue, saves it if it changed and delivers it event by
+     * event, removing each one from the queue only after the platform accepted it
+     */
+    private void deliverEvents() {
+        Array<String> unlocks = new Array<String>();
+        ObjectIntMap<String> increments = new ObjectIntMap<String>();
+        long retryDelay = MIN_RETRY_DELAY_MILLIS;
+
+        while (true) {
+            int score;
+            synchronized (lock) {
+                while (isCurrentWorker() && !hasPendingEvents()) {
+                    waitQuietly(0);
+                }
+                // A restart may have handed the queue to a new worker
+                if (!isCurrentWorker()) {
+                    save();
+                    return;
+                }
+                score = pendingScore;
+                unlocks.clear();
+                unlocks.addAll(pendingUnlocks);
+                increments.clear();
+                increments.putAll(pendingIncrements);
+            }
+
+            save();
+
+            try {
+                if (score != NO_SCORE) {
+                    listener.submitScore(score);
+                    synchronized (lock) {
+                        // A better score may have been queued in the meantime
+                        if (pendingScore == score) {
+                            pendingScore = NO_SCORE;
+                        }
+                    }
+                }
+
+                for (int i = 0; i < unlocks.size; i++) {
+                    String id = unlocks.get(i);
+                    listener.unlockAchievement(id);
+                    synchronized (lock) {
+                        pendingUnlocks.removeValue(id, false);
+                    }
+                }
+
+                for (ObjectIntMap.Entry<String> entry : increments.entries()) {
+                    listener.incrementAchievement(entry.key, entry.value);
+                    synchronized (lock) {
+                        // Keep whatever was queued for this ID after the snapshot
+                        if (pendingIncrements.getAndIncrement(entry.key, 0, -entry.value)
+                                == entry.value) {
+                            pendingIncrements.remove(entry.key, 0);
+                        }
+                    }
+                }
+
+                retryDelay = MIN_RETRY_DELAY_MILLIS;
+            } catch (RuntimeException e) {
+                Gdx.app.error(TAG, "Event delivery failed, retrying in " + retryDelay + "ms", e);
+                synchronized (lock) {
+                    if (isCurrentWorker()) {
+                        waitQuietly(retryDelay);
+                    }
+                }
+                retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY_MILLIS);
+            } catch (Error e) {
+                Gdx.app.error(TAG, "Event delivery stopped", e);
+                synchronized (lock) {
+                    if (isCurrentWorker()) {
+                        running = false;
+                    }
+                    dirty = true;
+                }
+                save();
+                throw e;
+            }
+
+            synchronized (lock) {
+                dirty = true;
+            }
+            save();
+        }
+    }
+
+    /**
+     * Called with the lock held
+     */
+    private boolean isCurrentWorker() {
+        return running && worker == Thread.currentThread();
+    }
+
+    private static void joinQuietly(Thread thread, long millis) {
+        if (thread == null || thread == Thread.currentThread()) {
+            return;
+        }
+        try {
+            thread.join(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void waitQuietly(long millis) {
+        try {
+            lock.wait(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private FileHandle getFile() {
+        return Gdx.files.local(Constants.PENDING_EVENTS_FILE);
+    }
+
+    private FileHandle getQueuedFile() {
+        return Gdx.files.local(Constants.PENDING_EVENTS_FILE + QUEUED_SUFFIX);
+    }
+
+    /**
+     * Writes the queue to disk if it changed since the last save. A failed write, e.g. on a full
+     * disk, is logged and tried again on the next save. Holds the lock throughout, so the worker
+     * and {@link #stop()} never write the file at the same time
+     */
+    private void save() {
+        synchronized (lock) {
+            if (!dirty || !loaded) {
+                return;
+            }
+            dirty = false;
+
+            if (!write(getFile())) {
+                dirty = true;
+                return;
+            }
+            if (queuedMerged) {
+                synchronized (QUEUED_LOCK) {
+                    getQueuedFile().delete();
+                }
+                queuedMerged = false;
+            }
+        }
+    }
+
+    /**
+     * Adds the queue to the handed over events and empties it, so the worker that reads them
+     * later doesn't count it twice. Called with the lock held by a listener that never read the
+     * pending file
+     */
+    private void handOver() {
+        if (!hasPendingEvents()) {
+            return;
+        }
+        synchronized (QUEUED_LOCK) {
+            FileHandle queued = getQueuedFile();
+            if (!queuedMerged) {
+                read(queued);
+                queuedMerged = true;
+            }
+            if (!write(queued)) {
+                // The queue keeps the handed over events, and drops their file once it's saved
+                return;
+            }
+        }
+        queuedMerged = false;
+        pendingScore = NO_SCORE;
+        pendingUnlocks.clear();
+        pendingIncrements.clear();
+    }
+
+    /**
+     * Writes the queue to a temporary file and renames it over the given one, or deletes the file
+     * if the queue is empty. Called with the lock held
+     *
+     * @return false if the queue couldn't be written
+     */
+    private boolean write(FileHandle file) {
+        FileHandle tmp = file.sibling(file.name() + ".tmp");
+        DataOutputStream out = null;
+        try {
+            if (!hasPendingEvents()) {
+                file.delete();
+                return true;
+            }
+
+            out = new DataOutputStream(tmp.write(false, 512));
+            out.writeInt(FILE_VERSION);
+            out.writeInt(pendingScore);
+            out.writeInt(pendingUnlocks.size);
+            for (int i = 0; i < pendingUnlocks.size; i++) {
+                out.writeUTF(pendingUnlocks.get(i));
+            }
+            out.writeInt(pendingIncrements.size);
+            for (ObjectIntMap.Entry<String> entry : pendingIncrements.entries()) {
+                out.writeUTF(entry.key);
+                out.writeInt(entry.value);
+            }
+            out.close();
+            out = null;
+            tmp.moveTo(file);
+            return true;
+        } catch (IOException e) {
+            Gdx.app.error(TAG, "Couldn't save pending events to " + file, e);
+            return false;
+        } catch (GdxRuntimeException e) {
+            Gdx.app.error(TAG, "Couldn't save pending events to " + file, e);
+            return false;
+        } finally {
+            StreamUtils.closeQuietly(out);
+        }
+    }
+
+    /**
+     * Restores the events saved by a previous session or listener, and those handed over by a
+     * listener stopped before it could read them. Called by the worker with the lock held, once
+     * the previous worker exited
+     */
+    private void load() {
+        read(getFile());
+        synchronized (QUEUED_LOCK) {
+            FileHandle queued = getQueuedFile();
+            if (!queuedMerged && queued.exists()) {
+                read(queued);
+                queuedMerged = true;
+            }
+        }
+    }
+
+    /**
+     * Adds the events saved in the given file to the queue. Called with the lock held
+     */
+    private void read(FileHandle file) {
+        if (!file.exists()) {
+            return;
+        }
+
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(file.read(512));
+            if (in.readInt() != FILE_VERSION) {
+                return;
+            }
+            pendingScore = Math.max(pendingScore, in.readInt());
+            int unlocks = in.readInt();
+            for (int i = 0; i < unlocks; i++) {
+                String id = in.readUTF();
+                if (!pendingUnlocks.contains(id, false)) {
+                    pendingUnlocks.add(id);
+                }
+            }
+            int increments = in.readInt();
+            for (int i = 0; i < increments; i++) {
+                String id = in.readUTF();
+                pendingIncrements.getAndIncrement(id, 0, in.readInt());
+            }
+        } catch (IOException e) {
+            Gdx.app.error(TAG, "Couldn't restore pending events", e);
+        } catch (GdxRuntimeException e) {
+            Gdx.app.error(TAG, "Couldn't restore pending events", e);
+        } finally {
+            StreamUtils.closeQuietly(in);
+        }
+    }
+
+}
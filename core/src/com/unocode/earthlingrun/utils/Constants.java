@@ -52,6 +52,47 @@ public class Constants {
     public static final float RUNNING_LONG_ENEMY_Y = 2f;
     public static final float FLYING_ENEMY_Y = 3f;
     public static final Vector2 ENEMY_LINEAR_VELOCITY = new Vector2(-10f, 0);
+    // Enemies the stage can have on screen at once
+    public static final int ENEMY_CAPACITY = 32;
+
+    // Keyframes of the difficulty curve, sampled every step. Spacing enemies looks this many
+    // seconds ahead, about as long as an enemy takes to reach the runner
+    public static final String DIFFICULTY_CURVE_PATH = "difficulty_curve.txt";
+    public static final float DIFFICULTY_CURVE_STEP = 0.5f;
+    public static final float DIFFICULTY_SPACING_LOOKAHEAD = (ENEMY_X - RUNNER_X) /
+            -ENEMY_LINEAR_VELOCITY.x;
+
+    // Enemies are generated this many ahead, spending at most this long per frame doing it
+    public static final int OBSTACLE_LOOKAHEAD = 8;
+    public static final long OBSTACLE_GENERATION_BUDGET_NANOS = 200000L;
+    // How far past the gap an enemy has to be before the next one spawns, so where the steps
+    // round its position doesn't decide the frame
+    public static final float ENEMY_SPAWN_TOLERANCE = 0.001f;
+    // Seconds the player gets between finishing one move and starting the next
+    public static final float OBSTACLE_REACTION_TIME = 0.1f;
+    // How far above an enemy the runner has to be to jump over it
+    public static final float OBSTACLE_JUMP_CLEARANCE = 0.1f;
+
+    // The best run's track is sampled this often and to this precision, at most this many bytes of
+    // it are kept, and its ghost is drawn this opaque
+    public static final String GHOST_FILE = "ghost.bin";
+    public static final float GHOST_SAMPLE_INTERVAL = 0.1f;
+    public static final float GHOST_POSITION_QUANTUM = 0.01f;
+    public static final float GHOST_ANGLE_QUANTUM = 0.01f;
+    public static final int GHOST_MAX_TRACK_BYTES = 64 * 1024;
+    public static final int GHOST_READ_BUFFER_SIZE = 512;
+    public static final float GHOST_ALPHA = 0.35f;
+
+    // Coins are laid in rows at the runner's height, in the gaps between enemies
+    public static final int COIN_POOL_SIZE = 256;
+    public static final float COIN_SIZE = 0.5f;
+    public static final float COIN_SPACING = 1f;
+    public static final float COIN_Y = RUNNER_Y;
+    public static final float COIN_GAP_MARGIN = 2f;
+    public static final int COIN_POINTS = 1;
+
+    // Seconds after the runner is hit before the run's scores and achievements are committed
+    public static final float RUN_COMMIT_DELAY = 0.5f;
 
     public static final String BACKGROUND_ASSETS_ID = "background";
     public static final String GROUND_ASSETS_ID = "ground_earth";
@@ -65,7 +106,7 @@ public class Constants {
     public static final String RUNNING_WIDE_ENEMY_ASSETS_ID = "running_wide_enemy";
     public static final String FLYING_SMALL_ENEMY_ASSETS_ID = "flying_small_enemy";
     public static final String FLYING_WIDE_ENEMY_ASSETS_ID = "flying_wide_enemy";
-    public static final String COIN = "coin";
+    public static final String COIN_ASSETS_ID = "coin";
 
     public static final String BACKGROUND_IMAGE_PATH = "background.png";
     public static final String GROUND_IMAGE_PATH = "ground_earth.png";
@@ -82,6 +123,8 @@ public class Constants {
     public static final String[] FLYING_SMALL_ENEMY_REGION_NAMES = new String[] {"bee_fly1", "bee_fly2"};
     public static final String[] FLYING_WIDE_ENEMY_REGION_NAMES = new String[] {"fly_fly1", "fly_fly2"};
     public static final String[] COIN_REGION_NAMES = new String[] {"coin_1", "coin_2", "coin_3"};
+    // Stands in for the coin until its frames are packed into the atlas
+    public static final String COIN_FALLBACK_REGION_NAME = "star";
 
     public static final String SOUND_ON_REGION_NAME = "sound_on";
     public static final String SOUND_OFF_REGION_NAME = "sound_off";
@@ -107,10 +150,38 @@ public class Constants {
 
     public static final String FONT_NAME = "roboto_bold.ttf";
 
+    public static final String PENDING_EVENTS_FILE = "pending_events.bin";
+    public static final String RUN_HISTORY_FILE = "run_history.bin";
+    public static final String LOCAL_LEADERBOARD_FILE = "leaderboard.bin";
+    public static final int LOCAL_LEADERBOARD_SIZE = 10;
+    public static final String FRAME_TRACE_FILE_FORMAT = "trace_%d.json";
+
+    // The most accurate physics profile, which every other one must play the same game as
+    public static final int PHYSICS_STEPS_PER_SECOND = 300;
+    public static final float PHYSICS_TIME_STEP = 1f / PHYSICS_STEPS_PER_SECOND;
+    public static final long PHYSICS_STEP_NANOS = 1000000000L / PHYSICS_STEPS_PER_SECOND;
+    public static final int PHYSICS_VELOCITY_ITERATIONS = 6;
+    public static final int PHYSICS_POSITION_ITERATIONS = 2;
+
+    // Physics may use a quarter of a 60 FPS frame, judged over 5 seconds of play
+    public static final long PHYSICS_FRAME_BUDGET_NANOS = 4000000L;
+    public static final int PHYSICS_PROFILE_WINDOW_FRAMES = 300;
+
+    // Runner commands that can wait for their physics step at once
+    public static final int INPUT_QUEUE_CAPACITY = 32;
+    // How many of the next enemies runner controllers get to see
+    public static final int OBSERVED_ENEMIES = 4;
+    // Enemies each run of a batched simulation can have on screen at once, and the frame rate it
+    // spawns them at, like the stage at 60 FPS
+    public static final int BATCH_MAX_ENEMIES = 32;
+    public static final int BATCH_FRAMES_PER_SECOND = 60;
+
     public static final String ABOUT_TEXT = "Developed by: @gamestudio24\nPowered by: " +
             "@libgdx\nGraphics: @kenneywings\nMusic: @kmacleod\nVersion:1.5.2\nVersionDate:10-31-17";
     public static final String SHARE_MESSAGE_PREFIX = "Check out " + GAME_NAME + " %s";
     public static final String SHARE_TITLE = "Share!";
     public static final String PAUSED_LABEL = "Paused";
+    public static final String RANK_LABEL_FORMAT = "#%d best run - top %d%%";
+    public static final String PERCENTILE_LABEL_FORMAT = "Top %d%% of your runs";
 
 }
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.unocode.earthlingrun.utils;
+
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * The difficulty at some point of a run, as sampled from a {@link DifficultyCurve}. Sampling
+ * again updates the vectors in place, so enemies and the runner holding them follow along
+ */
+public class Difficulty {
+
+    private int level;
+    private final Vector2 enemyLinearVelocity = new Vector2();
+    private float runnerGravityScale;
+    private final Vector2 runnerJumpingLinearImpulse = new Vector2();
+    private int scoreMultiplier;
+
+    void set(int level, float enemySpeed, float runnerGravityScale, float runnerJumpingImpulse,
+             int scoreMultiplier) {
+        this.level = level;
+        enemyLinearVelocity.set(-enemySpeed, 0);
+        this.runnerGravityScale = runnerGravityScale;
+        runnerJumpingLinearImpulse.set(0, runnerJumpingImpulse);
+        this.scoreMultiplier = scoreMultiplier;
+    }
+
+    /**
+     * @return how many keyframes of the curve have been reached, starting at 1
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    public Vector2 getEnemyLinearVelocity() {
+        return enemyLinearVelocity;
+    }
+
+    public float getRunnerGravityScale() {
+        return runnerGravityScale;
+    }
+
+    public Vector2 getRunnerJumpingLinearImpulse() {
+        return runnerJumpingLinearImpulse;
+    }
+
+    public int getScoreMultiplier() {
+        return scoreMultiplier;
+    }
+
+}
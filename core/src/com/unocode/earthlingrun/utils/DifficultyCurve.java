@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.unocode.earthlingrun.utils;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * How the game gets harder over a run. The curve is tuned in a data file of keyframes, each
+ * giving the enemy speed, the runner's gravity scale and jump impulse and the score multiplier
+ * reached a number of seconds into the run. Values are interpolated between keyframes and hold
+ * after the last one.
+ * <p/>
+ * The curve is sampled into tables once, at a fixed step, so looking up the difficulty at any
+ * time is an index computation. Moving from one sample to the next is a transition; at most
+ * one happens per step
+ */
+public class DifficultyCurve {
+
+    private static final int COLUMNS = 5;
+
+    private final float step;
+    private final float[] keyframeTimes;
+    private final int[] levels;
+    private final float[] enemySpeeds;
+    private final float[] gravityScales;
+    private final float[] jumpingImpulses;
+    private final int[] scoreMultipliers;
+
+    /**
+     * Reads keyframes, one per line, as whitespace separated seconds, enemy speed, gravity scale,
+     * jump impulse and score multiplier. Lines starting with # are comments
+     */
+    public static DifficultyCurve load(FileHandle file, float step) {
+        FloatArray values = new FloatArray();
+        String[] lines = file.readString("UTF-8").split("\n");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (line.length() == 0 || line.charAt(0) == '#') {
+                continue;
+            }
+            String[] columns = line.split("\\s+");
+            if (columns.length != COLUMNS) {
+                throw new GdxRuntimeException("Expected " + COLUMNS + " values on line " +
+                        (i + 1) + " of " + file);
+            }
+            for (String column : columns) {
+                try {
+                    values.add(Float.parseFloat(column));
+                } catch (NumberFormatException e) {
+                    throw new GdxRuntimeException("Bad value on line " + (i + 1) + " of " + file, e);
+                }
+            }
+        }
+        return new DifficultyCurve(values.toArray(), step);
+    }
+
+    /**
+     * @param keyframes the keyframe values, {@value #COLUMNS} per keyframe in file order
+     */
+    public DifficultyCurve(float[] keyframes, float step) {
+        int keyframeCount = keyframes.length / COLUMNS;
+        if (keyframeCount == 0 || keyframes.length % COLUMNS != 0) {
+            throw new GdxRuntimeException("A difficulty curve needs whole keyframes");
+        }
+        if (keyframes[0] != 0) {
+            throw new GdxRuntimeException("The first difficulty keyframe must be at 0 seconds");
+        }
+        this.step = step;
+        keyframeTimes = new float[keyframeCount];
+        for (int i = 0; i < keyframeCount; i++) {
+            keyframeTimes[i] = keyframes[i * COLUMNS];
+            if (i > 0 && keyframeTimes[i] <= keyframeTimes[i - 1]) {
+                throw new GdxRuntimeException("Difficulty keyframes must be in increasing time");
+            }
+        }
+
+        int sampleCount = (int) Math.ceil(keyframeTimes[keyframeCount - 1] / step) + 1;
+        levels = new int[sampleCount];
+        enemySpeeds = new float[sampleCount];
+        gravityScales = new float[sampleCount];
+        jumpingImpulses = new float[sampleCount];
+        scoreMultipliers = new int[sampleCount];
+
+        int keyframe = 0;
+        for (int i = 0; i < sampleCount; i++) {
+            float time = i * step;
+            while (keyframe < keyframeCount - 1 && keyframeTimes[keyframe + 1] <= time) {
+                keyframe++;
+            }
+            int from = keyframe * COLUMNS;
+            int to = Math.min(keyframe + 1, keyframeCount - 1) * COLUMNS;
+            float alpha = to == from ? 0 :
+                    Math.min((time - keyframes[from]) / (keyframes[to] - keyframes[from]), 1);
+            levels[i] = keyframe + 1;
+            enemySpeeds[i] = lerp(keyframes[from + 1], keyframes[to + 1], alpha);
+            gravityScales[i] = lerp(keyframes[from + 2], keyframes[to + 2], alpha);
+            jumpingImpulses[i] = lerp(keyframes[from + 3], keyframes[to + 3], alpha);
+            scoreMultipliers[i] = Math.round(lerp(keyframes[from + 4], keyframes[to + 4], alpha));
+        }
+    }
+
+    /**
+     * @return the sample that applies the given number of seconds into a run
+     */
+    public int getSampleIndex(float seconds) {
+        if (seconds <= 0) {
+            return 0;
+        }
+        return Math.min((int) (seconds / step), levels.length - 1);
+    }
+
+    public Difficulty sample(float seconds, Difficulty out) {
+        return get(getSampleIndex(seconds), out);
+    }
+
+    public Difficulty get(int sampleIndex, Difficulty out) {
+        out.set(levels[sampleIndex], enemySpeeds[sampleIndex], gravityScales[sampleIndex],
+                jumpingImpulses[sampleIndex], scoreMultipliers[sampleIndex]);
+        return out;
+    }
+
+    public int getSampleCount() {
+        return levels.length;
+    }
+
+    public int getKeyframeCount() {
+        return keyframeTimes.length;
+    }
+
+    public float getKeyframeTime(int keyframe) {
+        return keyframeTimes[keyframe];
+    }
+
+    private static float lerp(float from, float to, float alpha) {
+        return from + (to - from) * alpha;
+    }
+
+}
@@ -72,72 +72,12 @@ public interface GameEventListener {
     public void incrementAchievement(String id, int steps);
 
     /**
-     * The following are getters for specific achievement IDs used in this game
-     */
-
-    /**
-     * @return "Getting Started" achievement ID
-     */
-    public String getGettingStartedAchievementId();
-
-    /**
-     * @return "Like a Rover" achievement ID
-     */
-    public String getLikeARoverAchievementId();
-
-    /**
-     * @return "Spirit" achievement ID
-     */
-    public String getSpiritAchievementId();
-
-    /**
-     * @return "Curiosity" achievement ID
-     */
-    public String getCuriosityAchievementId();
-
-    /**
-     * @return "5k Club" achievement ID
-     */
-    public String get5kClubAchievementId();
-
-    /**
-     * @return "10k Club" achievement ID
-     */
-    public String get10kClubAchievementId();
-
-    /**
-     * @return "25k Club" achievement ID
-     */
-    public String get25kClubAchievementId();
-
-    /**
-     * @return "50k Club" achievement ID
-     */
-    public String get50kClubAchievementId();
-
-    /**
-     * @return "10 Jump Street" achievement ID
-     */
-    public String get10JumpStreetAchievementId();
-
-    /**
-     * @return "100 Jump Street" achievement ID
-     */
-    public String get100JumpStreetAchievementId();
-
-    /**
-     * @return "500 Jump Street" achievement ID
+     * Resolves the platform ID of an achievement from its
+     * {@link com.unocode.earthlingrun.enums.Achievement} key
+     *
+     * @param key achievement key, e.g. "achievement_getting_started"
+     * @return achievement ID, or null if the platform doesn't have this achievement
      */
-    public String get500JumpStreetAchievementId();
-
-
-    public String get10DoubleJumpStreetAchievementId();
-
-    public String get100DoubleJumpStreetAchievementId();
-    public String get500DoubleJumpStreetAchievementId();
-    public String get10PowerStompStreetAchievementId();
-    public String get100PowerStompStreetAchievementId();
-    public String get500PowerStompStreetAchievementId();
-
+    public String getAchievementId(String key);
 
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.utils;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.StringBuilder;
+import com.unocode.earthlingrun.enums.LogCategory;
+
+/**
+ * Leveled, category based logging for gameplay code. Levels are the {@link Application} ones and
+ * logging is off until a launcher calls {@link #setLevel(int)}, so release builds print nothing.
+ * <p/>
+ * A call that is filtered out only compares its level and category: messages are constants and
+ * structured {@link Event}s only format their fields when they will be printed. Events reuse one
+ * instance, so they must be built and logged on the render thread.
+ */
+public class GameLog {
+
+    private static final Event EVENT = new Event();
+
+    private static int level = Application.LOG_NONE;
+    private static int disabledCategories;
+
+    private GameLog() {
+    }
+
+    public static int getLevel() {
+        return level;
+    }
+
+    public static void setLevel(int level) {
+        GameLog.level = level;
+    }
+
+    public static void setCategoryEnabled(LogCategory category, boolean enabled) {
+        if (enabled) {
+            disabledCategories &= ~(1 << category.ordinal());
+        } else {
+            disabledCategories |= 1 << category.ordinal();
+        }
+    }
+
+    public static boolean isEnabled(LogCategory category, int level) {
+        return level <= GameLog.level && (disabledCategories & (1 << category.ordinal())) == 0;
+    }
+
+    public static void error(LogCategory category, String message, Throwable exception) {
+        if (isEnabled(category, Application.LOG_ERROR)) {
+            Gdx.app.error(category.getTag(), message, exception);
+        }
+    }
+
+    public static void debug(LogCategory category, String message) {
+        if (isEnabled(category, Application.LOG_DEBUG)) {
+            Gdx.app.log(category.getTag(), message);
+        }
+    }
+
+    public static void info(LogCategory category, String message) {
+        if (isEnabled(category, Application.LOG_INFO)) {
+            Gdx.app.log(category.getTag(), message);
+        }
+    }
+
+    /**
+     * Starts an info level event with the given name. Fields are added with the put methods and
+     * the event is printed as {@code name key=value ...} by {@link Event#log()}
+     */
+    public static Event event(LogCategory category, String name) {
+        return EVENT.start(category, name, isEnabled(category, Application.LOG_INFO));
+    }
+
+    public static class Event {
+
+        private final StringBuilder text = new StringBuilder(128);
+        private LogCategory category;
+        private boolean enabled;
+
+        private Event() {
+        }
+
+        private Event start(LogCategory category, String name, boolean enabled) {
+            this.category = category;
+            this.enabled = enabled;
+            text.setLength(0);
+            if (enabled) {
+                text.append(name);
+            }
+            return this;
+        }
+
+        public Event put(String key, int value) {
+            if (enabled) {
+                text.append(' ').append(key).append('=').append(value);
+            }
+            return this;
+        }
+
+        public Event put(String key, long value) {
+            if (enabled) {
+                text.append(' ').append(key).append('=').append(value);
+            }
+            return this;
+        }
+
+        public Event put(String key, Object value) {
+            if (enabled) {
+                text.append(' ').append(key).append('=').append(value);
+            }
+            return this;
+        }
+
+        public void log() {
+            if (enabled) {
+                Gdx.app.log(category.getTag(), text.toString());
+                enabled = false;
+            }
+        }
+
+    }
+
+}
@@ -18,11 +18,14 @@ package com.unocode.earthlingrun.utils;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Preferences;
-import com.unocode.earthlingrun.enums.Difficulty;
+import com.badlogic.gdx.utils.SnapshotArray;
+import com.unocode.earthlingrun.enums.AchievementMetric;
 import com.unocode.earthlingrun.enums.GameState;
+import com.unocode.earthlingrun.enums.TracePhase;
+import com.unocode.earthlingrun.metrics.FrameTracer;
 
 /**
- * A utility singleton that holds the current {@link com.unocode.earthlingrun.enums.Difficulty}
+ * A utility singleton that holds the current {@link Difficulty}
  * and {@link com.unocode.earthlingrun.enums.GameState} of the game as well as the
  * {@link GameEventListener} instance responsible for dispatching
  * all game events for the platform running the game
@@ -32,13 +35,28 @@ public class GameManager implements GameEventListener {
 
     public static final String PREFERENCES_NAME = "preferences";
     private static final String MAX_SCORE_PREFERENCE = "max_score";
-    private static final String DIFFICULTY_SCALE_PREFERENCE = "difficulty_scale";
-    private static final String ACHIEVEMENT_COUNT_PREFERENCE_SUFFIX = "_count";
-    private static final String ACHIEVEMENT_UNLOCKED_PREFERENCE_SUFFIX = "_unlocked";
+    private static final String GHOST_ON_PREFERENCE = "ghost_on";
 
     private GameState gameState;
-    private Difficulty difficulty;
+    private final SnapshotArray<GameStateListener> gameStateListeners =
+            new SnapshotArray<GameStateListener>(GameStateListener.class);
+    private DifficultyCurve difficultyCurve;
+    private final Difficulty difficulty = new Difficulty();
+    private int difficultySample = -1;
     private GameEventListener gameEventListener;
+    private AsyncGameEventListener asyncGameEventListener;
+    private final AchievementLedger achievementLedger = new AchievementLedger();
+    private final AchievementEngine achievementEngine = new AchievementEngine();
+
+    // Stats of the last finished run, kept until they are committed
+    private final RunRecord lastRun = new RunRecord();
+    private boolean runPending;
+    private int lastRunRank;
+    private float lastRunPercentile;
+    private RunHistory runHistory;
+    private final LocalLeaderboard localLeaderboard =
+            new LocalLeaderboard(Constants.LOCAL_LEADERBOARD_SIZE);
+    private final GhostRecorder ghostRecorder = new GhostRecorder();
 
     public static GameManager getInstance() {
         return ourInstance;
@@ -52,40 +70,94 @@ public class GameManager implements GameEventListener {
         return gameState;
     }
 
+    /**
+     * Moves to the given state and tells every {@link GameStateListener} about it. Setting the
+     * current state again does nothing. Listeners must not change the state themselves
+     */
     public void setGameState(GameState gameState) {
+        if (gameState == this.gameState) {
+            return;
+        }
+        GameState previous = this.gameState;
         this.gameState = gameState;
+        GameStateListener[] listeners = gameStateListeners.begin();
+        for (int i = 0, n = gameStateListeners.size; i < n; i++) {
+            listeners[i].onGameStateChanged(previous, gameState);
+        }
+        gameStateListeners.end();
     }
 
-    public Difficulty getDifficulty() {
-        return difficulty;
+    /**
+     * Subscribes the listener to state transitions, starting with the current state. Whoever
+     * adds a listener removes it once it's done with it, since the manager outlives the stages
+     */
+    public void addGameStateListener(GameStateListener listener) {
+        gameStateListeners.add(listener);
+        listener.onGameStateChanged(null, gameState);
     }
 
-    public int getDifficultyScale() {
-        return getPreferences().getInteger(DIFFICULTY_SCALE_PREFERENCE, 5);
+    public void removeGameStateListener(GameStateListener listener) {
+        gameStateListeners.removeValue(listener, true);
     }
 
-    public void setDifficultyScale(int scaleLevel) {
-        Preferences prefs = getPreferences();
-        prefs.putInteger(DIFFICULTY_SCALE_PREFERENCE, scaleLevel);
-        prefs.flush();
+    /**
+     * @return the current difficulty. The instance is kept and updated in place
+     */
+    public Difficulty getDifficulty() {
+        return difficulty;
     }
 
-    public void setDifficulty(com.unocode.earthlingrun.enums.Difficulty difficulty) {
-        this.difficulty = difficulty;
+    public DifficultyCurve getDifficultyCurve() {
+        if (difficultyCurve == null) {
+            difficultyCurve = DifficultyCurve.load(
+                    Gdx.files.internal(Constants.DIFFICULTY_CURVE_PATH),
+                    Constants.DIFFICULTY_CURVE_STEP);
+        }
+        return difficultyCurve;
     }
 
-    public boolean isMaxDifficulty() {
-        boolean atMixDiff = difficulty == Difficulty.values()[Difficulty.values().length - 1];
-        //System.out.println("GameMan - difficulty:" + difficulty + " | atMaxDiff:" + atMixDiff);
-        return atMixDiff;
+    /**
+     * Moves the difficulty along the curve to the given time into the run
+     *
+     * @return whether the difficulty changed
+     */
+    public boolean updateDifficulty(float seconds) {
+        int sample = getDifficultyCurve().getSampleIndex(seconds);
+        if (sample == difficultySample) {
+            return false;
+        }
+        difficultySample = sample;
+        difficultyCurve.get(sample, difficulty);
+        return true;
     }
 
     public void resetDifficulty() {
-        setDifficulty(Difficulty.values()[0]);
+        updateDifficulty(0);
     }
 
+    /**
+     * Sets the platform listener. Scores and achievements are delivered to it asynchronously once
+     * {@link #startEventDelivery()} is called
+     */
     public void setGameEventListener(GameEventListener gameEventListener) {
-        this.gameEventListener = gameEventListener;
+        asyncGameEventListener = new AsyncGameEventListener(gameEventListener);
+        this.gameEventListener = asyncGameEventListener;
+        achievementEngine.resolveIds(gameEventListener);
+    }
+
+    /**
+     * Does nothing until a platform listener is set, e.g. in headless harnesses
+     */
+    public void startEventDelivery() {
+        if (asyncGameEventListener != null) {
+            asyncGameEventListener.start();
+        }
+    }
+
+    public void stopEventDelivery() {
+        if (asyncGameEventListener != null) {
+            asyncGameEventListener.stop();
+        }
     }
 
     @Override
@@ -99,27 +171,13 @@ public class GameManager implements GameEventListener {
     }
 
     /**
-     * Submits a score and unlocks a score-based achievement depending on the total
+     * Stages a score submission and unlocks a score-based achievement depending on the total.
+     * Nothing is dispatched until {@link #commitAchievements()} is called
      */
     @Override
     public void submitScore(int score) {
-        gameEventListener.submitScore(score);
-
-        if (score > 5000 && !isAchievementUnlocked(get5kClubAchievementId())) {
-            unlockAchievement(get5kClubAchievementId());
-        }
-
-        if (score > 10000 && !isAchievementUnlocked(get10kClubAchievementId())) {
-            unlockAchievement(get10kClubAchievementId());
-        }
-
-        if (score > 25000 && !isAchievementUnlocked(get25kClubAchievementId())) {
-            unlockAchievement(get25kClubAchievementId());
-        }
-
-        if (score > 50000 && !isAchievementUnlocked(get50kClubAchievementId())) {
-            unlockAchievement(get50kClubAchievementId());
-        }
+        achievementLedger.submitScore(score);
+        achievementEngine.evaluate(AchievementMetric.SCORE, score, achievementLedger);
     }
 
     @Override
@@ -139,97 +197,17 @@ public class GameManager implements GameEventListener {
 
     @Override
     public void unlockAchievement(String id) {
-        gameEventListener.unlockAchievement(id);
+        achievementLedger.unlock(id);
     }
 
     @Override
     public void incrementAchievement(String id, int steps) {
-        gameEventListener.incrementAchievement(id, steps);
-    }
-
-    @Override
-    public String getGettingStartedAchievementId() {
-        return gameEventListener.getGettingStartedAchievementId();
-    }
-
-    @Override
-    public String getLikeARoverAchievementId() {
-        return gameEventListener.getLikeARoverAchievementId();
-    }
-
-    @Override
-    public String getSpiritAchievementId() {
-        return gameEventListener.getSpiritAchievementId();
-    }
-
-    @Override
-    public String getCuriosityAchievementId() {
-        return gameEventListener.getCuriosityAchievementId();
-    }
-
-    @Override
-    public String get5kClubAchievementId() {
-        return gameEventListener.get5kClubAchievementId();
-    }
-
-    @Override
-    public String get10kClubAchievementId() {
-        return gameEventListener.get10kClubAchievementId();
-    }
-
-    @Override
-    public String get25kClubAchievementId() {
-        return gameEventListener.get25kClubAchievementId();
-    }
-
-    @Override
-    public String get50kClubAchievementId() {
-        return gameEventListener.get50kClubAchievementId();
-    }
-
-    @Override
-    public String get10JumpStreetAchievementId() {
-        return gameEventListener.get10JumpStreetAchievementId();
-    }
-
-    @Override
-    public String get100JumpStreetAchievementId() {
-        return gameEventListener.get100JumpStreetAchievementId();
-    }
-
-    @Override
-    public String get500JumpStreetAchievementId() {
-        return gameEventListener.get500JumpStreetAchievementId();
-    }
-
-    @Override
-    public String get10DoubleJumpStreetAchievementId() {
-        return gameEventListener.get10DoubleJumpStreetAchievementId();
+        achievementLedger.increment(id, steps);
     }
 
     @Override
-    public String get100DoubleJumpStreetAchievementId() {
-        return gameEventListener.get100DoubleJumpStreetAchievementId();
-    }
-
-    @Override
-    public String get500DoubleJumpStreetAchievementId() {
-        return gameEventListener.get500DoubleJumpStreetAchievementId();
-    }
-
-    @Override
-    public String get10PowerStompStreetAchievementId() {
-        return gameEventListener.get10PowerStompStreetAchievementId();
-    }
-
-    @Override
-    public String get100PowerStompStreetAchievementId() {
-        return gameEventListener.get100PowerStompStreetAchievementId();
-    }
-
-    @Override
-    public String get500PowerStompStreetAchievementId() {
-        return gameEventListener.get500PowerStompStreetAchievementId();
+    public String getAchievementId(String key) {
+        return gameEventListener.getAchievementId(key);
     }
 
     private Preferences getPreferences() {
@@ -252,118 +230,135 @@ public class GameManager implements GameEventListener {
     public void submitSavedMaxScore() {
         Preferences preferences = getPreferences();
         submitScore(preferences.getInteger(MAX_SCORE_PREFERENCE, 0));
+        commitAchievements();
         preferences.remove(MAX_SCORE_PREFERENCE);
         preferences.flush();
     }
 
-    public void addGamePlayed() {
-
-        // No need to keep counting if all achievements have been unlocked
-        if (getAchievementCount(getCuriosityAchievementId()) > 500) {
-            return;
-        }
-
-        if (!isAchievementUnlocked(getGettingStartedAchievementId())) {
-            unlockAchievement(getGettingStartedAchievementId());
-        }
-
-        if (getAchievementCount(getLikeARoverAchievementId()) <= 10) {
-            incrementAchievement(getLikeARoverAchievementId(), 1);
-        }
-
-        if (getAchievementCount(getSpiritAchievementId()) <= 100) {
-            incrementAchievement(getSpiritAchievementId(), 1);
-        }
-
-        incrementAchievement(getCuriosityAchievementId(), 1);
-
+    /**
+     * Keeps the stats of a finished run in memory. This is called from the contact callback
+     * where the runner gets hit, so it must not touch the preferences, the listener or the disk
+     */
+    public void recordRun(RunRecord run) {
+        lastRun.set(run);
+        runPending = true;
+        lastRunRank = localLeaderboard.add(run.score, run.timestamp);
+        lastRunPercentile = localLeaderboard.getPercentile(run.score);
     }
 
-    public void addJumpCount(int count) {
-        if (count <= 0) {
-            return;
-        }
-
-        if (getAchievementCount(get500JumpStreetAchievementId()) > 500) {
-            return;
-        }
-
-        if (getAchievementCount(get500JumpStreetAchievementId()) <= 10) {
-            incrementAchievement(get10JumpStreetAchievementId(), count);
-        }
-
-        if (getAchievementCount(get500JumpStreetAchievementId()) <= 100) {
-            incrementAchievement(get100JumpStreetAchievementId(), count);
-        }
-
-        incrementAchievement(get500JumpStreetAchievementId(), count);
+    /**
+     * @return rank of the last run on the local leaderboard, or 0 if it didn't make it
+     */
+    public int getLastRunRank() {
+        return lastRunRank;
     }
 
-    public void addDoubleJumpCount(int count) {
-        if (count <= 0) {
-            return;
-        }
-
-        if (getAchievementCount(get500DoubleJumpStreetAchievementId()) > 500) {
-            return;
-        }
-
-        if (getAchievementCount(get500DoubleJumpStreetAchievementId()) <= 10) {
-            incrementAchievement(get10DoubleJumpStreetAchievementId(), count);
-        }
+    /**
+     * @return estimated fraction of all local runs that scored below the last run
+     */
+    public float getLastRunPercentile() {
+        return lastRunPercentile;
+    }
 
-        if (getAchievementCount(get500DoubleJumpStreetAchievementId()) <= 100) {
-            incrementAchievement(get100DoubleJumpStreetAchievementId(), count);
-        }
+    /**
+     * @return the last run passed to {@link #recordRun(RunRecord)}
+     */
+    public RunRecord getLastRun() {
+        return lastRun;
+    }
 
-        incrementAchievement(get500DoubleJumpStreetAchievementId(), count);
+    public boolean hasLastRun() {
+        return lastRun.timestamp > 0;
     }
 
-    public void addPowerStompCount(int count) {
-        if (count <= 0) {
-            return;
-        }
+    public void loadLocalLeaderboard() {
+        localLeaderboard.load(Gdx.files.local(Constants.LOCAL_LEADERBOARD_FILE));
+    }
 
-        if (getAchievementCount(get500PowerStompStreetAchievementId()) > 500) {
+    /**
+     * Evaluates the achievements of the last recorded run, commits them in one batch and appends
+     * the run to the {@link RunHistory}. The run's track replaces the ghost if it scored best
+     */
+    public void commitRun() {
+        if (!runPending) {
             return;
         }
-
-        if (getAchievementCount(get500PowerStompStreetAchievementId()) <= 10) {
-            incrementAchievement(get10PowerStompStreetAchievementId(), count);
-        }
-
-        if (getAchievementCount(get500PowerStompStreetAchievementId()) <= 100) {
-            incrementAchievement(get100PowerStompStreetAchievementId(), count);
+        runPending = false;
+        FrameTracer.begin(TracePhase.RUN_COMMIT);
+        try {
+            submitScore(lastRun.score);
+            achievementEngine.evaluate(AchievementMetric.GAMES_PLAYED, 1, achievementLedger);
+            achievementEngine.evaluate(AchievementMetric.JUMPS, lastRun.jumpCount,
+                    achievementLedger);
+            achievementEngine.evaluate(AchievementMetric.DOUBLE_JUMPS, lastRun.doubleJumpCount,
+                    achievementLedger);
+            achievementEngine.evaluate(AchievementMetric.POWER_STOMPS, lastRun.powerStompCount,
+                    achievementLedger);
+            commitAchievements();
+            getRunHistory().append(lastRun);
+            localLeaderboard.save(Gdx.files.local(Constants.LOCAL_LEADERBOARD_FILE));
+            ghostRecorder.save(Gdx.files.local(Constants.GHOST_FILE), lastRun.score);
+        } finally {
+            FrameTracer.end(TracePhase.RUN_COMMIT);
         }
+    }
 
-        incrementAchievement(get500PowerStompStreetAchievementId(), count);
+    /**
+     * Records the current run so it can become the ghost raced in later runs
+     */
+    public GhostRecorder getGhostRecorder() {
+        return ghostRecorder;
     }
 
-    public void setAchievementUnlocked(String id) {
-        getPreferences().putBoolean(getAchievementUnlockedId(id), true);
+    public boolean isGhostOn() {
+        return getPreferences().getBoolean(GHOST_ON_PREFERENCE, true);
     }
 
-    public void incrementAchievementCount(String id, int steps) {
+    public void toggleGhost() {
         Preferences preferences = getPreferences();
-        int count = preferences.getInteger(getAchievementCountId(id), 0);
-        count += steps;
-        preferences.putInteger(getAchievementCountId(id), count);
+        preferences.putBoolean(GHOST_ON_PREFERENCE, !isGhostOn());
         preferences.flush();
     }
 
-    private int getAchievementCount(String id) {
-        return getPreferences().getInteger(getAchievementCountId(id), 0);
+    public RunHistory getRunHistory() {
+        if (runHistory == null) {
+            runHistory = new RunHistory(Gdx.files.local(Constants.RUN_HISTORY_FILE));
+        }
+        return runHistory;
     }
 
-    private boolean isAchievementUnlocked(String id) {
-        return getPreferences().getBoolean(getAchievementUnlockedId(id), false);
+    /**
+     * Dispatches all staged scores and achievements to the {@link GameEventListener} and
+     * persists the local progress with a single flush
+     */
+    public void commitAchievements() {
+        if (achievementLedger.hasPendingEvents()) {
+            achievementLedger.commit(gameEventListener);
+        }
     }
 
-    private String getAchievementCountId(String id) {
-        return id + ACHIEVEMENT_COUNT_PREFERENCE_SUFFIX;
+    /**
+     * Called by the platform once an unlock went through, possibly from the event delivery thread
+     */
+    public void setAchievementUnlocked(final String id) {
+        Gdx.app.postRunnable(new Runnable() {
+            @Override
+            public void run() {
+                achievementLedger.markUnlocked(id);
+            }
+        });
     }
 
-    private String getAchievementUnlockedId(String id) {
-        return id + ACHIEVEMENT_UNLOCKED_PREFERENCE_SUFFIX;
+    /**
+     * Called by the platform once an increment went through, possibly from the event delivery
+     * thread
+     */
+    public void incrementAchievementCount(final String id, final int steps) {
+        Gdx.app.postRunnable(new Runnable() {
+            @Override
+            public void run() {
+                achievementLedger.addCount(id, steps);
+            }
+        });
     }
 }
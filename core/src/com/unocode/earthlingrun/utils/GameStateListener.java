@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.unocode.earthlingrun.utils;
+
+import com.unocode.earthlingrun.enums.GameState;
+
+/**
+ * Subscribers to the {@link GameState} kept by the {@link GameManager}. They are told about each
+ * transition instead of polling the state every frame
+ */
+public interface GameStateListener {
+
+    /**
+     * Called once the state has changed, and right away with the current state when the
+     * listener is added
+     *
+     * @param previous the state that was left, or null when the listener was just added
+     * @param current  the state that was entered
+     */
+    public void onGameStateChanged(GameState previous, GameState current);
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.unocode.earthlingrun.utils;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.unocode.earthlingrun.enums.RunnerPose;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Records the runner's track during a run, in the {@link GhostTrack} format, into a buffer
+ * allocated once. The track is only written to disk when the run is committed and beat the
+ * saved one. A run that outgrows the buffer keeps the part that fit
+ */
+public class GhostRecorder {
+
+    private static final String TAG = GhostRecorder.class.getSimpleName();
+
+    private final byte[] samples = new byte[Constants.GHOST_MAX_TRACK_BYTES];
+    private int size;
+    private int sampleCount;
+    private float nextSampleTime;
+    private boolean full;
+
+    private int quantizedX;
+    private int quantizedY;
+    private int quantizedAngle;
+
+    // Where the last sample starts and what it was encoded against, so it can be replaced
+    private int lastSampleStart;
+    private int previousX;
+    private int previousY;
+    private int previousAngle;
+
+    // Score of the saved track, read from the file on first use
+    private int bestScore;
+    private boolean bestScoreRead;
+
+    public void start() {
+        size = 0;
+        sampleCount = 0;
+        nextSampleTime = 0;
+        full = false;
+        quantizedX = 0;
+        quantizedY = 0;
+        quantizedAngle = 0;
+    }
+
+    /**
+     * Samples the runner once for every interval that started by the given time into the run
+     */
+    public void record(float time, float x, float y, float angle, RunnerPose pose) {
+        while (time >= nextSampleTime) {
+            addSample(x, y, angle, pose);
+            nextSampleTime += Constants.GHOST_SAMPLE_INTERVAL;
+        }
+    }
+
+    /**
+     * Ends the track with the runner as he was hit at the given time into the run. Samples are
+     * played back one interval apart, so the hit goes on the interval nearest to that time,
+     * replacing the last sample when that one is nearer than the next
+     */
+    public void finish(float time, float x, float y, float angle) {
+        float lastSampleTime = nextSampleTime - Constants.GHOST_SAMPLE_INTERVAL;
+        if (!full && sampleCount > 1 && time - lastSampleTime < nextSampleTime - time) {
+            size = lastSampleStart;
+            quantizedX = previousX;
+            quantizedY = previousY;
+            quantizedAngle = previousAngle;
+            sampleCount--;
+        }
+        addSample(x, y, angle, RunnerPose.HIT);
+    }
+
+    /**
+     * Writes the track if its run scored better than the saved one. The track goes to a temporary
+     * file first, so a failed write leaves the saved track intact. A failed write, e.g. on a full
+     * disk, is logged rather than ending the game
+     */
+    public void save(FileHandle file, int score) {
+        if (!bestScoreRead) {
+            bestScore = GhostTrack.readScore(file);
+            bestScoreRead = true;
+        }
+        if (score <= bestScore || sampleCount < 2) {
+            return;
+        }
+
+        FileHandle tmp = file.sibling(file.name() + ".tmp");
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(tmp.write(false, 4096));
+            out.writeInt(GhostTrack.FILE_VERSION);
+            out.writeInt(score);
+            out.writeFloat(Constants.GHOST_SAMPLE_INTERVAL);
+            out.writeFloat(Constants.GHOST_POSITION_QUANTUM);
+            out.writeFloat(Constants.GHOST_ANGLE_QUANTUM);
+            out.writeInt(sampleCount);
+            out.write(samples, 0, size);
+            out.close();
+            out = null;
+            tmp.moveTo(file);
+            bestScore = score;
+        } catch (IOException e) {
+            Gdx.app.error(TAG, "Couldn't save the ghost track", e);
+        } catch (GdxRuntimeException e) {
+            Gdx.app.error(TAG, "Couldn't save the ghost track", e);
+        } finally {
+            StreamUtils.closeQuietly(out);
+        }
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    private void addSample(float x, float y, float angle, RunnerPose pose) {
+        // A flags byte and three varints of at most five bytes each
+        if (full || size + 16 > samples.length) {
+            full = true;
+            return;
+        }
+
+        int newX = Math.round(x / Constants.GHOST_POSITION_QUANTUM);
+        int newY = Math.round(y / Constants.GHOST_POSITION_QUANTUM);
+        int newAngle = Math.round(angle / Constants.GHOST_ANGLE_QUANTUM);
+        int flags = pose.ordinal();
+        if (newX != quantizedX) {
+            flags |= GhostTrack.X_CHANGED;
+        }
+        if (newY != quantizedY) {
+            flags |= GhostTrack.Y_CHANGED;
+        }
+        if (newAngle != quantizedAngle) {
+            flags |= GhostTrack.ANGLE_CHANGED;
+        }
+
+        lastSampleStart = size;
+        previousX = quantizedX;
+        previousY = quantizedY;
+        previousAngle = quantizedAngle;
+        samples[size++] = (byte) flags;
+        if (newX != quantizedX) {
+            writeVarint(newX - quantizedX);
+        }
+        if (newY != quantizedY) {
+            writeVarint(newY - quantizedY);
+        }
+        if (newAngle != quantizedAngle) {
+            writeVarint(newAngle - quantizedAngle);
+        }
+        quantizedX = newX;
+        quantizedY = newY;
+        quantizedAngle = newAngle;
+        sampleCount++;
+    }
+
+    /**
+     * Writes a zigzag encoded varint, so small deltas of either sign take a byte
+     */
+    private void writeVarint(int value) {
+        int zigzag = (value << 1) ^ (value >> 31);
+        while ((zigzag & ~0x7F) != 0) {
+            samples[size++] = (byte) ((zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        samples[size++] = (byte) zigzag;
+    }
+
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.unocode.earthlingrun.utils;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.unocode.earthlingrun.enums.RunnerPose;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Plays back the runner's track from the best run, as written by {@link GhostRecorder}. The file
+ * holds a short header and then one sample per interval: a flags byte with the pose and which of
+ * x, y and angle changed, followed by the changes as zigzag varints counted in quanta. Samples
+ * are read from disk as playback reaches them, so only the two around the current time are held
+ * in memory, and the position in between is interpolated.
+ */
+public class GhostTrack {
+
+    private static final String TAG = GhostTrack.class.getSimpleName();
+    static final int FILE_VERSION = 1;
+
+    static final int POSE_MASK = 0x03;
+    static final int X_CHANGED = 0x04;
+    static final int Y_CHANGED = 0x08;
+    static final int ANGLE_CHANGED = 0x10;
+
+    private static final RunnerPose[] POSES = RunnerPose.values();
+
+    private DataInputStream in;
+    private int score;
+    private float sampleInterval;
+    private float positionQuantum;
+    private float angleQuantum;
+    private int remainingSamples;
+
+    // Running totals of the deltas read so far, in quanta
+    private int quantizedX;
+    private int quantizedY;
+    private int quantizedAngle;
+
+    private float previousTime;
+    private float previousX, previousY, previousAngle;
+    private RunnerPose previousPose;
+    private float nextX, nextY, nextAngle;
+    private RunnerPose nextPose;
+
+    private float x, y, angle;
+    private RunnerPose pose;
+
+    /**
+     * @return the score of the run saved in the file, or -1 if there is no usable one
+     */
+    public static int readScore(FileHandle file) {
+        if (!file.exists()) {
+            return -1;
+        }
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(file.read());
+            return in.readInt() == FILE_VERSION ? in.readInt() : -1;
+        } catch (IOException e) {
+            return -1;
+        } catch (GdxRuntimeException e) {
+            return -1;
+        } finally {
+            StreamUtils.closeQuietly(in);
+        }
+    }
+
+    /**
+     * Starts playing a track from its beginning
+     *
+     * @return whether there is a track to play
+     */
+    public boolean open(FileHandle file) {
+        close();
+        if (!file.exists()) {
+            return false;
+        }
+        try {
+            in = new DataInputStream(file.read(Constants.GHOST_READ_BUFFER_SIZE));
+            if (in.readInt() != FILE_VERSION) {
+                close();
+                return false;
+            }
+            score = in.readInt();
+            sampleInterval = in.readFloat();
+            positionQuantum = in.readFloat();
+            angleQuantum = in.readFloat();
+            remainingSamples = in.readInt();
+            quantizedX = 0;
+            quantizedY = 0;
+            quantizedAngle = 0;
+            // The first sample is where the ghost starts, the second one where it heads to
+            if (!readSample() || !readSample()) {
+                close();
+                return false;
+            }
+            previousTime = 0;
+            advance(0);
+            return true;
+        } catch (IOException e) {
+            Gdx.app.error(TAG, "Couldn't read the ghost track", e);
+            close();
+            return false;
+        } catch (GdxRuntimeException e) {
+            Gdx.app.error(TAG, "Couldn't read the ghost track", e);
+            close();
+            return false;
+        }
+    }
+
+    /**
+     * Moves playback to the given time into the run, reading the samples it passes
+     *
+     * @return false once the track has ended
+     */
+    public boolean advance(float time) {
+        if (in == null) {
+            return false;
+        }
+        while (time > previousTime + sampleInterval) {
+            if (!readSample()) {
+                close();
+                return false;
+            }
+            previousTime += sampleInterval;
+        }
+        float alpha = (time - previousTime) / sampleInterval;
+        x = previousX + (nextX - previousX) * alpha;
+        y = previousY + (nextY - previousY) * alpha;
+        angle = previousAngle + (nextAngle - previousAngle) * alpha;
+        pose = previousPose;
+        return true;
+    }
+
+    public void close() {
+        StreamUtils.closeQuietly(in);
+        in = null;
+    }
+
+    public boolean isOpen() {
+        return in != null;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public float getX() {
+        return x;
+    }
+
+    public float getY() {
+        return y;
+    }
+
+    public float getAngle() {
+        return angle;
+    }
+
+    public RunnerPose getPose() {
+        return pose;
+    }
+
+    /**
+     * Shifts the next sample to the previous one and reads a new next sample
+     */
+    private boolean readSample() {
+        if (remainingSamples == 0) {
+            return false;
+        }
+        try {
+            int flags = in.readUnsignedByte();
+            if ((flags & X_CHANGED) != 0) {
+                quantizedX += readVarint(in);
+            }
+            if ((flags & Y_CHANGED) != 0) {
+                quantizedY += readVarint(in);
+            }
+            if ((flags & ANGLE_CHANGED) != 0) {
+                quantizedAngle += readVarint(in);
+            }
+            previousX = nextX;
+            previousY = nextY;
+            previousAngle = nextAngle;
+            previousPose = nextPose;
+            nextX = quantizedX * positionQuantum;
+            nextY = quantizedY * positionQuantum;
+            nextAngle = quantizedAngle * angleQuantum;
+            nextPose = POSES[flags & POSE_MASK];
+            remainingSamples--;
+            return true;
+        } catch (IOException e) {
+            Gdx.app.error(TAG, "Couldn't read the ghost track", e);
+            return false;
+        }
+    }
+
+    /**
+     * Reads a zigzag encoded varint
+     */
+    static int readVarint(InputStream in) throws IOException {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.read();
+            if (b < 0) {
+                throw new IOException("Ghost track ends in the middle of a sample");
+            }
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+}
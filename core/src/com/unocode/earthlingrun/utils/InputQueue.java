@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.unocode.earthlingrun.utils;
+
+import com.unocode.earthlingrun.enums.RunnerCommand;
+
+/**
+ * Runner commands stamped with the time of the input event behind them, waiting for the physics
+ * step that time falls in. This is a single-producer single-consumer ring: the input callbacks
+ * offer and the stage polls, each side only writing its own index, so neither ever waits on a
+ * lock. When it is full new commands are dropped
+ */
+public class InputQueue {
+
+    private final RunnerCommand[] commands;
+    private final long[] times;
+    // Next slot to poll, only written by the consumer
+    private volatile int head;
+    // Next slot to fill, only written by the producer
+    private volatile int tail;
+
+    public InputQueue(int capacity) {
+        // One slot stays empty to tell a full ring from an empty one
+        commands = new RunnerCommand[capacity + 1];
+        times = new long[capacity + 1];
+    }
+
+    /**
+     * @return false if the queue is full and the command was dropped
+     */
+    public boolean offer(RunnerCommand command, long timeNanos) {
+        int next = (tail + 1) % commands.length;
+        if (next == head) {
+            return false;
+        }
+        commands[tail] = command;
+        times[tail] = timeNanos;
+        tail = next;
+        return true;
+    }
+
+    public boolean isEmpty() {
+        return head == tail;
+    }
+
+    /**
+     * @return the time of the oldest command. Only valid if the queue isn't empty
+     */
+    public long peekTime() {
+        return times[head];
+    }
+
+    /**
+     * Moves every queued command that is stamped later than the given time back to it. Called
+     * from the consumer side, which owns the queued slots
+     */
+    public void clampTimes(long latestNanos) {
+        for (int i = head; i != tail; i = (i + 1) % commands.length) {
+            times[i] = Math.min(times[i], latestNanos);
+        }
+    }
+
+    /**
+     * Takes the oldest command off the queue. Only valid if the queue isn't empty
+     */
+    public RunnerCommand poll() {
+        RunnerCommand command = commands[head];
+        commands[head] = null;
+        head = (head + 1) % commands.length;
+        return command;
+    }
+
+    /**
+     * Drops every queued command. Called from the consumer side
+     */
+    public void clear() {
+        while (!isEmpty()) {
+            poll();
+        }
+    }
+
+}
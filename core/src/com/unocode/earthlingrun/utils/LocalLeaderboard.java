@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.utils;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.StreamUtils;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Local leaderboard of the best K scores plus a quantile sketch of every score ever recorded.
+ * <p/>
+ * The best scores live in a min-heap, so keeping them costs O(log K) per run. The rank a run
+ * takes is counted over the K scores, so {@link #add(int, long)} costs O(K), which is nothing for
+ * a board of ten. The sketch is a histogram with logarithmic buckets (each bucket spans about
+ * {@value #RELATIVE_ACCURACY_PERCENT}% of its lower bound), so percentiles are estimated within
+ * that relative error from a few KB of counts instead of scanning the {@link RunHistory}. Only
+ * non-empty buckets are saved.
+ */
+public class LocalLeaderboard {
+
+    private static final String TAG = LocalLeaderboard.class.getSimpleName();
+    private static final int FILE_VERSION = 1;
+    private static final String UNREADABLE_SUFFIX = ".unreadable";
+
+    private static final int RELATIVE_ACCURACY_PERCENT = 2;
+    private static final double LOG_GAMMA = Math.log(1 + RELATIVE_ACCURACY_PERCENT / 100.0);
+    private static final int BUCKET_COUNT = 1024;
+
+    private final int capacity;
+    private final int[] topScores;
+    private final long[] topTimestamps;
+    private int topSize;
+
+    private final int[] buckets = new int[BUCKET_COUNT];
+    private long totalRuns;
+
+    public LocalLeaderboard(int capacity) {
+        this.capacity = capacity;
+        topScores = new int[capacity];
+        topTimestamps = new long[capacity];
+    }
+
+    /**
+     * Records a run's score
+     *
+     * @return the rank it took among the best K scores, see {@link #getRank(int)}
+     */
+    public int add(int score, long timestamp) {
+        int rank = getRank(score);
+        buckets[bucketOf(score)]++;
+        totalRuns++;
+        offerTopScore(score, timestamp);
+        return rank;
+    }
+
+    /**
+     * @return 1-based rank the score would take among the best K scores, or 0 if it wouldn't make
+     * it. Like {@link #add(int, long)}, a full board only takes scores above its lowest
+     */
+    public int getRank(int score) {
+        if (topSize == capacity && score <= topScores[0]) {
+            return 0;
+        }
+
+        int rank = 1;
+        for (int i = 0; i < topSize; i++) {
+            if (topScores[i] > score) {
+                rank++;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * @return estimated fraction of recorded runs that scored below the given score, in [0, 1]
+     */
+    public float getPercentile(int score) {
+        if (totalRuns == 0) {
+            return 0f;
+        }
+
+        int bucket = bucketOf(score);
+        long below = 0;
+        for (int i = 0; i < bucket; i++) {
+            below += buckets[i];
+        }
+        // Assume the runs sharing the bucket are evenly spread around the score
+        return (below + buckets[bucket] / 2f) / totalRuns;
+    }
+
+    public long getTotalRuns() {
+        return totalRuns;
+    }
+
+    public int getBestScore() {
+        int best = 0;
+        for (int i = 0; i < topSize; i++) {
+            best = Math.max(best, topScores[i]);
+        }
+        return best;
+    }
+
+    private void offerTopScore(int score, long timestamp) {
+        if (topSize < capacity) {
+            topScores[topSize] = score;
+            topTimestamps[topSize] = timestamp;
+            siftUp(topSize++);
+        } else if (score > topScores[0]) {
+            topScores[0] = score;
+            topTimestamps[0] = timestamp;
+            siftDown(0);
+        }
+    }
+
+    private static int bucketOf(int score) {
+        if (score <= 0) {
+            return 0;
+        }
+        return Math.min(BUCKET_COUNT - 1, 1 + (int) (Math.log(score) / LOG_GAMMA));
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (topScores[parent] <= topScores[index]) {
+                return;
+            }
+            swap(parent, index);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < topSize && topScores[left] < topScores[smallest]) {
+                smallest = left;
+            }
+            if (right < topSize && topScores[right] < topScores[smallest]) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(smallest, index);
+            index = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int score = topScores[i];
+        topScores[i] = topScores[j];
+        topScores[j] = score;
+        long timestamp = topTimestamps[i];
+        topTimestamps[i] = topTimestamps[j];
+        topTimestamps[j] = timestamp;
+    }
+
+    /**
+     * Writes to a temporary file first and renames it over the old one, so an interrupted save
+     * leaves the previous leaderboard intact
+     */
+    public void save(FileHandle file) {
+        FileHandle tmp = file.sibling(file.name() + ".tmp");
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(tmp.write(false, 4096));
+            out.writeInt(FILE_VERSION);
+            out.writeInt(topSize);
+            for (int i = 0; i < topSize; i++) {
+                out.writeInt(topScores[i]);
+                out.writeLong(topTimestamps[i]);
+            }
+
+            int usedBuckets = 0;
+            for (int count : buckets) {
+                if (count > 0) {
+                    usedBuckets++;
+                }
+            }
+            out.writeShort(usedBuckets);
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                if (buckets[i] > 0) {
+                    out.writeShort(i);
+                    out.writeInt(buckets[i]);
+                }
+            }
+            out.close();
+            out = null;
+            tmp.moveTo(file);
+        } catch (IOException e) {
+            Gdx.app.error(TAG, "Couldn't save the local leaderboard", e);
+        } catch (GdxRuntimeException e) {
+            Gdx.app.error(TAG, "Couldn't save the local leaderboard", e);
+        } finally {
+            StreamUtils.closeQuietly(out);
+        }
+    }
+
+    /**
+     * Replaces the leaderboard with the one saved in the file. A file that can't be decoded is
+     * moved aside and the leaderboard starts empty
+     */
+    public void load(FileHandle file) {
+        clear();
+        if (!file.exists()) {
+            return;
+        }
+
+        boolean readable;
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(file.read(4096));
+            readable = read(in);
+        } catch (EOFException e) {
+            readable = false;
+        } catch (IOException e) {
+            Gdx.app.error(TAG, "Couldn't load the local leaderboard", e);
+            clear();
+            return;
+        } catch (GdxRuntimeException e) {
+            Gdx.app.error(TAG, "Couldn't load the local leaderboard", e);
+            clear();
+            return;
+        } finally {
+            StreamUtils.closeQuietly(in);
+        }
+
+        if (!readable) {
+            clear();
+            FileHandle unreadable = file.sibling(file.name() + UNREADABLE_SUFFIX);
+            Gdx.app.error(TAG, "Unreadable local leaderboard " + file + ", moved to " +
+                    unreadable + " and starting a new one");
+            try {
+                file.moveTo(unreadable);
+            } catch (GdxRuntimeException e) {
+                Gdx.app.error(TAG, "Couldn't move the local leaderboard aside", e);
+            }
+        }
+    }
+
+    /**
+     * @return false if the data isn't a leaderboard this version wrote
+     */
+    private boolean read(DataInputStream in) throws IOException {
+        if (in.readInt() != FILE_VERSION) {
+            return false;
+        }
+
+        int size = in.readInt();
+        if (size < 0) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            int score = in.readInt();
+            offerTopScore(score, in.readLong());
+        }
+
+        int usedBuckets = in.readShort();
+        if (usedBuckets < 0 || usedBuckets > BUCKET_COUNT) {
+            return false;
+        }
+        for (int i = 0; i < usedBuckets; i++) {
+            int bucket = in.readShort();
+            int count = in.readInt();
+            if (bucket < 0 || bucket >= BUCKET_COUNT || count <= 0 || buckets[bucket] != 0) {
+                return false;
+            }
+            buckets[bucket] = count;
+            totalRuns += count;
+        }
+        return true;
+    }
+
+    private void clear() {
+        topSize = 0;
+        Arrays.fill(buckets, 0);
+        totalRuns = 0;
+    }
+
+}
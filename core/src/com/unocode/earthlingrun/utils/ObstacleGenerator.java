@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.utils;
+
+import com.badlogic.gdx.utils.TimeUtils;
+import com.unocode.earthlingrun.enums.EnemyType;
+import com.unocode.earthlingrun.enums.ObstaclePattern;
+
+/**
+ * Streams the enemies of a run. Patterns are drawn from the {@link ObstaclePattern} library and
+ * queued ahead of the spawn point a few at a time, so deciding what comes next is a lookup. The
+ * gap in front of each enemy is worked out when it spawns, from {@link ObstacleSpacing} and the
+ * difficulty the caller expects, so queued enemies follow the difficulty curve
+ */
+public class ObstacleGenerator {
+
+    // Queued enemies and their slack, as a ring
+    private final EnemyType[] enemies;
+    private final float[] slack;
+    private int head;
+    private int size;
+
+    private EnemyType previous;
+
+    public ObstacleGenerator() {
+        int capacity = Constants.OBSTACLE_LOOKAHEAD + ObstaclePattern.getMaxLength();
+        enemies = new EnemyType[capacity];
+        slack = new float[capacity];
+    }
+
+    /**
+     * Drops the queue for a new run. Call after seeding {@link RandomUtils}
+     */
+    public void reset() {
+        head = 0;
+        size = 0;
+        previous = null;
+    }
+
+    /**
+     * Queues patterns until the lookahead is full or the time budget is spent
+     */
+    public void generate(long budgetNanos) {
+        long start = TimeUtils.nanoTime();
+        while (size < Constants.OBSTACLE_LOOKAHEAD) {
+            queue(RandomUtils.getRandomObstaclePattern());
+            if (TimeUtils.nanoTime() - start >= budgetNanos) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * @return the enemy that spawns next
+     */
+    public EnemyType peek() {
+        ensureQueued();
+        return enemies[head];
+    }
+
+    /**
+     * @return the distance, in world units, to leave between the back of the last enemy and the
+     * front of the next
+     */
+    public float getNextGap(Difficulty difficulty) {
+        ensureQueued();
+        float gap = slack[head] * ObstacleSpacing.getSpeed(difficulty);
+        if (previous != null) {
+            gap += ObstacleSpacing.getMinimumGap(previous, enemies[head], difficulty);
+        }
+        return gap;
+    }
+
+    /**
+     * Takes the next enemy off the queue
+     */
+    public EnemyType next() {
+        ensureQueued();
+        previous = enemies[head];
+        enemies[head] = null;
+        head = (head + 1) % enemies.length;
+        size--;
+        return previous;
+    }
+
+    public int getQueued() {
+        return size;
+    }
+
+    /**
+     * The budget is only a cap, spawning never waits on it
+     */
+    private void ensureQueued() {
+        if (size == 0) {
+            queue(RandomUtils.getRandomObstaclePattern());
+        }
+    }
+
+    private void queue(ObstaclePattern pattern) {
+        for (int i = 0; i < pattern.getLength(); i++) {
+            int tail = (head + size) % enemies.length;
+            enemies[tail] = pattern.getEnemy(i);
+            slack[tail] = pattern.getSlack(i);
+            size++;
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.utils;
+
+import com.unocode.earthlingrun.enums.EnemyType;
+
+/**
+ * Works out from the runner's jump how close enemies can follow each other and still be
+ * survived. Times are in seconds from the moment an enemy's front edge reaches the runner, and
+ * the runner is taken to be as wide as when he lies down to dodge
+ */
+public class ObstacleSpacing {
+
+    private static final float RUNNER_MASS = Constants.RUNNER_DENSITY * Constants.RUNNER_WIDTH *
+            Constants.RUNNER_HEIGHT;
+    private static final float RUNNER_BOTTOM = Constants.RUNNER_Y - Constants.RUNNER_HEIGHT / 2;
+    private static final float RUNNER_EXTENT = Math.max(Constants.RUNNER_WIDTH,
+            Constants.RUNNER_HEIGHT);
+
+    public static float getSpeed(Difficulty difficulty) {
+        return -difficulty.getEnemyLinearVelocity().x;
+    }
+
+    /**
+     * @return the seconds between the runner taking off and landing
+     */
+    public static float getAirTime(Difficulty difficulty) {
+        return 2 * getTakeOffSpeed(difficulty) / getGravity(difficulty);
+    }
+
+    /**
+     * @return the seconds from take-off until the runner is high enough to pass over the enemy,
+     * or NaN if he never gets that high
+     */
+    public static float getRiseTime(EnemyType enemyType, Difficulty difficulty) {
+        float height = enemyType.getY() + enemyType.getHeight() / 2 - RUNNER_BOTTOM +
+                Constants.OBSTACLE_JUMP_CLEARANCE;
+        float takeOffSpeed = getTakeOffSpeed(difficulty);
+        float gravity = getGravity(difficulty);
+        float discriminant = takeOffSpeed * takeOffSpeed - 2 * gravity * height;
+        if (discriminant < 0) {
+            return Float.NaN;
+        }
+        return (takeOffSpeed - (float) Math.sqrt(discriminant)) / gravity;
+    }
+
+    /**
+     * @return the seconds the enemy takes to pass the runner
+     */
+    public static float getPassTime(EnemyType enemyType, Difficulty difficulty) {
+        return (enemyType.getWidth() + RUNNER_EXTENT) / getSpeed(difficulty);
+    }
+
+    /**
+     * @return whether the runner can get past a lone enemy of the type at all
+     */
+    public static boolean isPassable(EnemyType enemyType, Difficulty difficulty) {
+        if (enemyType.isFlying()) {
+            return true;
+        }
+        // He has to stay above the enemy from the rise until the same height on the way down
+        float riseTime = getRiseTime(enemyType, difficulty);
+        return !Float.isNaN(riseTime) &&
+                getAirTime(difficulty) - 2 * riseTime >= getPassTime(enemyType, difficulty);
+    }
+
+    /**
+     * @return the smallest distance, in world units, between the back of the previous enemy and
+     * the front of the next one that leaves the runner time to get past both
+     */
+    public static float getMinimumGap(EnemyType previous, EnemyType next, Difficulty difficulty) {
+        if (previous.isFlying() && next.isFlying()) {
+            // He can stay down for both
+            return 0;
+        }
+
+        // When the runner is free to move again, after landing or getting up
+        float readyTime = previous.isFlying() ? getPassTime(previous, difficulty) :
+                getAirTime(difficulty) - getRiseTime(previous, difficulty);
+        // When he has to move for the next enemy
+        float leadTime = next.isFlying() ? 0 : getRiseTime(next, difficulty);
+        float gap = getSpeed(difficulty) * (readyTime + Constants.OBSTACLE_REACTION_TIME + leadTime)
+                - previous.getWidth();
+        return Math.max(gap, 0);
+    }
+
+    private static float getTakeOffSpeed(Difficulty difficulty) {
+        return difficulty.getRunnerJumpingLinearImpulse().y / RUNNER_MASS;
+    }
+
+    private static float getGravity(Difficulty difficulty) {
+        return -Constants.WORLD_GRAVITY.y * difficulty.getRunnerGravityScale();
+    }
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.utils;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Preferences;
+import com.unocode.earthlingrun.enums.PhysicsProfile;
+
+/**
+ * Picks the {@link PhysicsProfile} from the physics time measured during runs. When physics takes
+ * more than its share of the frame the next cheaper profile is chosen; when the next more
+ * accurate profile would comfortably fit, it is chosen instead. A new profile only takes effect
+ * when the next run starts, so every run is simulated with a single profile, and it is saved so
+ * the game starts with it next time.
+ */
+public class PhysicsStepController {
+
+    private static PhysicsStepController ourInstance = new PhysicsStepController();
+
+    private static final String PHYSICS_PROFILE_PREFERENCE = "physics_profile";
+    private static final PhysicsProfile[] PROFILES = PhysicsProfile.values();
+
+    private PhysicsProfile profile;
+    private PhysicsProfile nextProfile;
+    private boolean adaptive = true;
+
+    private int windowFrames;
+    private long windowNanos;
+
+    private PhysicsStepController() {
+    }
+
+    public static PhysicsStepController getInstance() {
+        return ourInstance;
+    }
+
+    /**
+     * @return the profile used by the current run
+     */
+    public PhysicsProfile getProfile() {
+        if (profile == null) {
+            profile = loadProfile();
+            nextProfile = profile;
+        }
+        return profile;
+    }
+
+    /**
+     * Uses the given profile right away and keeps it until adaptation is turned back on
+     */
+    public void setProfile(PhysicsProfile profile) {
+        this.profile = profile;
+        nextProfile = profile;
+        adaptive = false;
+        resetWindow();
+    }
+
+    /**
+     * Box2D's integrator puts a body launched upwards below the true arc by half a step's worth of
+     * gravity per second of flight, so a lower step rate gives a lower jump. Adding the returned
+     * speed to a take-off from rest puts the body exactly on the {@link PhysicsProfile#HIGH} arc
+     * at every step both profiles share, which includes the end of every 60 FPS frame. Added when
+     * the gravity on a body in the air changes, by the difference in gravity, it keeps the body on
+     * that arc too.
+     *
+     * @param gravity the vertical gravity acting on the body, including its gravity scale
+     */
+    public float getTakeOffCompensation(float gravity) {
+        return gravity * (PhysicsProfile.HIGH.getTimeStep() - getProfile().getTimeStep()) / 2;
+    }
+
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    public void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+        resetWindow();
+    }
+
+    /**
+     * Switches to the profile chosen during the previous run. Call this before a run starts
+     */
+    public void applyPendingProfile() {
+        if (getProfile() == nextProfile) {
+            return;
+        }
+        profile = nextProfile;
+        Preferences preferences = getPreferences();
+        preferences.putString(PHYSICS_PROFILE_PREFERENCE, profile.name());
+        preferences.flush();
+        resetWindow();
+    }
+
+    /**
+     * Records the time spent stepping the world during one frame of a run
+     */
+    public void recordFrame(long physicsNanos) {
+        if (!adaptive) {
+            return;
+        }
+        windowFrames++;
+        windowNanos += physicsNanos;
+        if (windowFrames < Constants.PHYSICS_PROFILE_WINDOW_FRAMES) {
+            return;
+        }
+
+        long average = windowNanos / windowFrames;
+        resetWindow();
+
+        PhysicsProfile current = getProfile();
+        int ordinal = current.ordinal();
+        if (average > Constants.PHYSICS_FRAME_BUDGET_NANOS) {
+            if (ordinal < PROFILES.length - 1) {
+                nextProfile = PROFILES[ordinal + 1];
+            }
+        } else if (ordinal > 0) {
+            // Assume the cost grows with the number of steps and solver iterations
+            PhysicsProfile better = PROFILES[ordinal - 1];
+            long estimate = average * cost(better) / cost(current);
+            if (estimate < Constants.PHYSICS_FRAME_BUDGET_NANOS / 2) {
+                nextProfile = better;
+            }
+        }
+    }
+
+    private static long cost(PhysicsProfile profile) {
+        return (long) profile.getStepsPerSecond() *
+                (profile.getVelocityIterations() + profile.getPositionIterations());
+    }
+
+    private void resetWindow() {
+        windowFrames = 0;
+        windowNanos = 0;
+    }
+
+    private PhysicsProfile loadProfile() {
+        String name = getPreferences().getString(PHYSICS_PROFILE_PREFERENCE,
+                PhysicsProfile.HIGH.name());
+        for (PhysicsProfile physicsProfile : PROFILES) {
+            if (physicsProfile.name().equals(name)) {
+                return physicsProfile;
+            }
+        }
+        return PhysicsProfile.HIGH;
+    }
+
+    private Preferences getPreferences() {
+        return Gdx.app.getPreferences(GameManager.PREFERENCES_NAME);
+    }
+
+}
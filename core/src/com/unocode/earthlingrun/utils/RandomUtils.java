@@ -16,38 +16,35 @@
 
 package com.unocode.earthlingrun.utils;
 
-import com.unocode.earthlingrun.enums.EnemyType;
+import com.unocode.earthlingrun.enums.ObstaclePattern;
 
 import java.util.Random;
 
 public class RandomUtils {
 
+    private static final Random RANDOM = new Random();
+    private static final ObstaclePattern[] OBSTACLE_PATTERNS = ObstaclePattern.values();
+    private static final int OBSTACLE_PATTERNS_WEIGHT = ObstaclePattern.getTotalWeight();
+
     /**
-     * @return a random {@link EnemyType}
+     * Seeds the generator so a run's sequence of enemies can be reproduced
      */
-    public static EnemyType getRandomEnemyType() {
-        RandomEnum<EnemyType> randomEnum = new RandomEnum<EnemyType>(EnemyType.class);
-        return randomEnum.random();
+    public static void setSeed(long seed) {
+        RANDOM.setSeed(seed);
     }
 
     /**
-     * @see <a href="http://stackoverflow.com/a/1973018">Stack Overflow</a>
+     * @return a random {@link ObstaclePattern}, picked in proportion to its weight
      */
-    private static class RandomEnum<E extends Enum> {
-
-        private static final Random RND = new Random();
-        private final E[] values;
-
-        public RandomEnum(Class<E> token) {
-            values = token.getEnumConstants();
-        }
-
-        /**
-         * @return a random value for the given enum
-         */
-        public E random() {
-            return values[RND.nextInt(values.length)];
+    public static ObstaclePattern getRandomObstaclePattern() {
+        int pick = RANDOM.nextInt(OBSTACLE_PATTERNS_WEIGHT);
+        for (ObstaclePattern pattern : OBSTACLE_PATTERNS) {
+            pick -= pattern.getWeight();
+            if (pick < 0) {
+                return pattern;
+            }
         }
+        return OBSTACLE_PATTERNS[OBSTACLE_PATTERNS.length - 1];
     }
 
 }
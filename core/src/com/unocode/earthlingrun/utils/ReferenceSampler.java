@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.utils;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.unocode.earthlingrun.actors.Enemies;
+import com.unocode.earthlingrun.actors.Runner;
+import com.unocode.earthlingrun.box2d.EnemyUserData;
+import com.unocode.earthlingrun.enums.PhysicsProfile;
+
+/**
+ * Finds where the runner and the enemies were at the instants {@link PhysicsProfile#HIGH} steps
+ * to, when the world steps at a lower rate. Coins are collected and enemy hits found at those
+ * samples, so a profile that steps less often still picks up the same coins and ends on the same
+ * hit. Enemies move at a constant speed within a frame and the runner, once airborne, on the same
+ * arc as at the reference rate, so a sample between two steps is found from the bodies at either
+ * end of the step. Box2D's own runner and enemy contacts only push the runner once he is hit.
+ * <p>
+ * A step's samples are those after its start up to and including its end. Hits are found the way
+ * Box2D reports them at the reference rate: a contact that begins at a sample is reported by the
+ * next reference step, after the coins at that sample are collected, while one that begins in
+ * between is stopped by continuous collision and reported before them.
+ */
+public class ReferenceSampler {
+
+    // Box2D reports a contact once two polygons are within twice b2_polygonRadius of each other
+    private static final float TOUCHING_DISTANCE = 0.02f;
+    // Continuous collision stops two polygons closing in on each other at b2TimeOfImpact's target
+    // of b2_linearSlop. A sweep that ends within its tolerance of a quarter of that is only
+    // touching at the end of the step, which Box2D leaves to the next step
+    private static final float IMPACT_DISTANCE = 0.00375f;
+    // The runner is airborne for a whole step when gravity is all that changed his speed
+    private static final float AIRBORNE_TOLERANCE = 0.0001f;
+    private static final int IMPACT_SEARCH_ITERATIONS = 24;
+    private static final float GROUND_TOP = Constants.GROUND_Y + Constants.GROUND_HEIGHT / 2;
+
+    private int stepsPerSecond = Constants.PHYSICS_STEPS_PER_SECOND;
+    private float timeStep;
+    // Steps since the run started, so samples line up with the reference steps
+    private long step;
+
+    private boolean tracking;
+    private final Rectangle bounds = new Rectangle();
+    private float startX, startY, startVelocityY;
+    private float endX, endY;
+    private float gravity;
+    private boolean airborne;
+    // The time the enemies' bodies are at, from the start of the step
+    private float bodyTime;
+
+    // The runner at the current and the previous sample, timed from the start of the step
+    private float sampleTime, sampleX, sampleY;
+    private float previousTime, previousX, previousY;
+    private boolean stepEnd;
+    private boolean touchingGround;
+
+    /**
+     * Starts sampling a new run stepped at the given profile's rate
+     */
+    public void reset(PhysicsProfile profile) {
+        stepsPerSecond = profile.getStepsPerSecond();
+        timeStep = profile.getTimeStep();
+        step = 0;
+        tracking = false;
+        touchingGround = false;
+    }
+
+    /**
+     * @return whether the world steps slower than the reference rate, so this has to sample it
+     */
+    public boolean isActive() {
+        return stepsPerSecond < Constants.PHYSICS_STEPS_PER_SECOND;
+    }
+
+    /**
+     * Takes the runner, or null when there's no run to follow, as the step is about to start
+     *
+     * @return whether the step starts on a sample
+     */
+    public boolean beginStep(Runner runner) {
+        boolean onSample = step * Constants.PHYSICS_STEPS_PER_SECOND % stepsPerSecond == 0;
+        // The last sample was in the previous step
+        sampleTime -= timeStep;
+        tracking = runner != null;
+        if (!tracking) {
+            return onSample;
+        }
+        runner.getBounds(bounds);
+        Vector2 position = runner.getPosition();
+        startX = position.x;
+        startY = position.y;
+        startVelocityY = runner.getVelocity().y;
+        gravity = runner.getGravity();
+        bodyTime = 0;
+        if (onSample) {
+            // Box2D doesn't sweep a body across a jump to a new position
+            sampleTime = 0;
+            sampleX = startX;
+            sampleY = startY;
+        }
+        return onSample;
+    }
+
+    /**
+     * Takes the runner, or null, once the world has stepped
+     *
+     * @return the number of samples in the step
+     */
+    public int endStep(Runner runner) {
+        long reference = Constants.PHYSICS_STEPS_PER_SECOND;
+        int samples = (int) ((step + 1) * reference / stepsPerSecond - step * reference /
+                stepsPerSecond);
+        tracking &= runner != null;
+        if (tracking) {
+            Vector2 position = runner.getPosition();
+            endX = position.x;
+            endY = position.y;
+            airborne = Math.abs(runner.getVelocity().y - startVelocityY - gravity * timeStep) <
+                    AIRBORNE_TOLERANCE;
+            bodyTime = timeStep;
+        }
+        return samples;
+    }
+
+    /**
+     * Moves the runner to the given sample of the step that just ended
+     */
+    public void moveTo(int sample) {
+        long reference = Constants.PHYSICS_STEPS_PER_SECOND;
+        long index = step * reference / stepsPerSecond + 1 + sample;
+        previousTime = sampleTime;
+        previousX = sampleX;
+        previousY = sampleY;
+        sampleTime = (float) ((double) (index * stepsPerSecond - step * reference) /
+                (reference * stepsPerSecond));
+        stepEnd = index * stepsPerSecond == (step + 1) * reference;
+        if (!tracking) {
+            return;
+        }
+        sampleX = stepEnd ? endX : startX + (endX - startX) * sampleTime / timeStep;
+        if (airborne && stepEnd) {
+            sampleY = endY;
+        } else if (airborne) {
+            // The one arc with the runner's gravity through both ends of the step
+            float velocity = (endY - startY) / timeStep - gravity * timeStep / 2;
+            sampleY = startY + velocity * sampleTime + gravity * sampleTime * sampleTime / 2;
+        } else {
+            // A contact stopped him during the step, and up to then he fell as he was falling
+            float velocity = startVelocityY + gravity * timeStep / 2;
+            sampleY = startY + velocity * sampleTime + gravity * sampleTime * sampleTime / 2;
+            settle();
+        }
+    }
+
+    /**
+     * Keeps the runner out of the ground once he has landed on it
+     */
+    private void settle() {
+        if (touchingGround && !airborne) {
+            sampleY = Math.max(sampleY, Math.min(startY, endY));
+        }
+    }
+
+    /**
+     * Ends the step. Call once its samples are done
+     */
+    public void finishStep() {
+        step++;
+    }
+
+    /**
+     * @return whether the current sample is where the step ends
+     */
+    public boolean isStepEnd() {
+        return stepEnd;
+    }
+
+    /**
+     * Sets the given rectangle to the runner's box at the current sample
+     */
+    public Rectangle getRunnerBounds(Rectangle runnerBounds) {
+        return runnerBounds.set(sampleX - bounds.width / 2, sampleY - bounds.height / 2,
+                bounds.width, bounds.height);
+    }
+
+    /**
+     * @return whether continuous collision stops the runner on the ground between the previous
+     * sample and the current one
+     */
+    public boolean findLandingImpact() {
+        if (!tracking || touchingGround) {
+            return false;
+        }
+        // The ground is static and wider than anywhere the runner goes, so the gap is linear
+        float gap = Math.min(previousY, sampleY) - bounds.height / 2 - GROUND_TOP;
+        touchingGround = gap < IMPACT_DISTANCE;
+        settle();
+        return touchingGround;
+    }
+
+    /**
+     * @return whether the runner starts touching the ground at the current sample
+     */
+    public boolean findLanding() {
+        if (!tracking) {
+            return false;
+        }
+        boolean touching = sampleY - bounds.height / 2 - GROUND_TOP <= TOUCHING_DISTANCE;
+        boolean landed = touching && !touchingGround;
+        touchingGround = touching;
+        return landed;
+    }
+
+    /**
+     * Finds an enemy that continuous collision stops the runner on between the previous sample
+     * and the current one
+     *
+     * @return its index, or -1
+     */
+    public int findImpact(Enemies enemies) {
+        if (!tracking) {
+            return -1;
+        }
+        for (int i = 0; i < enemies.getSize(); i++) {
+            EnemyUserData userData = enemies.getUserData(i);
+            if (userData.isTouchingRunner()) {
+                continue;
+            }
+            Body body = enemies.getBody(i);
+            float halfWidth = (bounds.width + userData.getWidth()) / 2;
+            float halfHeight = (bounds.height + userData.getHeight()) / 2;
+            float fromX = enemyX(body, previousTime) - previousX;
+            float fromY = enemyY(body, previousTime) - previousY;
+            float toX = enemyX(body, sampleTime) - sampleX;
+            float toY = enemyY(body, sampleTime) - sampleY;
+            if (Math.min(Math.abs(fromX), Math.abs(toX)) - halfWidth > TOUCHING_DISTANCE &&
+                    Math.signum(fromX) == Math.signum(toX) ||
+                    Math.min(Math.abs(fromY), Math.abs(toY)) - halfHeight > TOUCHING_DISTANCE &&
+                    Math.signum(fromY) == Math.signum(toY)) {
+                continue;
+            }
+            // The distance between two boxes is convex along a straight sweep
+            float low = 0;
+            float high = 1;
+            for (int j = 0; j < IMPACT_SEARCH_ITERATIONS; j++) {
+                float a = low + (high - low) / 3;
+                float b = high - (high - low) / 3;
+                if (distance(fromX, fromY, toX, toY, a, halfWidth, halfHeight) <
+                        distance(fromX, fromY, toX, toY, b, halfWidth, halfHeight)) {
+                    high = b;
+                } else {
+                    low = a;
+                }
+            }
+            if (distance(fromX, fromY, toX, toY, (low + high) / 2, halfWidth, halfHeight) <
+                    IMPACT_DISTANCE) {
+                userData.setTouchingRunner(true);
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds an enemy the runner starts touching at the current sample
+     *
+     * @return its index, or -1
+     */
+    public int findTouch(Enemies enemies) {
+        if (!tracking) {
+            return -1;
+        }
+        int touched = -1;
+        for (int i = 0; i < enemies.getSize(); i++) {
+            EnemyUserData userData = enemies.getUserData(i);
+            Body body = enemies.getBody(i);
+            float separation = Math.max(
+                    Math.abs(enemyX(body, sampleTime) - sampleX) -
+                            (bounds.width + userData.getWidth()) / 2,
+                    Math.abs(enemyY(body, sampleTime) - sampleY) -
+                            (bounds.height + userData.getHeight()) / 2);
+            boolean touching = separation <= TOUCHING_DISTANCE;
+            if (touching && !userData.isTouchingRunner() && touched < 0) {
+                touched = i;
+            }
+            userData.setTouchingRunner(touching);
+        }
+        return touched;
+    }
+
+    private float enemyX(Body body, float time) {
+        return body.getPosition().x - body.getLinearVelocity().x * (bodyTime - time);
+    }
+
+    private float enemyY(Body body, float time) {
+        return body.getPosition().y - body.getLinearVelocity().y * (bodyTime - time);
+    }
+
+    private static float distance(float fromX, float fromY, float toX, float toY, float t,
+            float halfWidth, float halfHeight) {
+        float gapX = Math.max(Math.abs(fromX + (toX - fromX) * t) - halfWidth, 0);
+        float gapY = Math.max(Math.abs(fromY + (toY - fromY) * t) - halfHeight, 0);
+        return (float) Math.sqrt(gapX * gapX + gapY * gapY);
+    }
+
+}
@@ -0,0 +1,445 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.utils;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.unocode.earthlingrun.enums.EnemyType;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Append-only log of every finished run, stored as fixed-size binary records after a short
+ * header. Fixed records make the number of runs and the offset of any run a matter of
+ * arithmetic, so tail reads only touch the records they need and aggregate queries stream the
+ * file through a single reused {@link RunRecord} instead of loading it into the heap.
+ * <p/>
+ * The file is memory-mapped on desktop and streamed through a buffered input on other platforms.
+ * The header is checked the first time the log is touched. A log written by an older version is
+ * rewritten in the current format. One that isn't a run history, or comes from a newer version,
+ * is moved aside and a new log started, so a bad file never stops the game. A record that doesn't
+ * decode, e.g. with a killer this version doesn't know, is skipped as corrupt.
+ */
+public class RunHistory {
+
+    public interface Visitor {
+        public void visit(RunRecord record);
+    }
+
+    private static final String TAG = RunHistory.class.getSimpleName();
+
+    private static final int MAGIC = 0x45525248; // "ERRH"
+    private static final short VERSION = 2;
+    private static final int HEADER_SIZE = 8;
+    public static final int RECORD_SIZE = 48;
+    // Version 1 records had no coins
+    private static final int VERSION_1_RECORD_SIZE = 44;
+    private static final int STREAM_BUFFER_SIZE = RECORD_SIZE * 256;
+    private static final byte NO_KILLER = -1;
+    private static final String UNREADABLE_SUFFIX = ".unreadable";
+    private static final EnemyType[] ENEMY_TYPES = EnemyType.values();
+
+    private final FileHandle file;
+    private final boolean mapped;
+    private final byte[] buffer = new byte[RECORD_SIZE];
+    private final ByteBuffer recordBuffer = ByteBuffer.wrap(buffer);
+    private final RunRecord record = new RunRecord();
+    private boolean formatChecked;
+
+    /**
+     * Memory-maps the log on desktop and streams it elsewhere
+     */
+    public RunHistory(FileHandle file) {
+        this(file, Gdx.app.getType() == Application.ApplicationType.Desktop);
+    }
+
+    public RunHistory(FileHandle file, boolean mapped) {
+        this.file = file;
+        this.mapped = mapped;
+    }
+
+    /**
+     * @return the number of complete records in the log
+     */
+    public int size() {
+        checkFormat();
+        if (!file.exists()) {
+            return 0;
+        }
+        return (int) Math.max(0, (file.length() - HEADER_SIZE) / RECORD_SIZE);
+    }
+
+    /**
+     * Adds a run to the end of the log. A failed write, e.g. on a full disk, is logged and the run
+     * dropped rather than ending the game
+     */
+    public void append(RunRecord run) {
+        try {
+            prepareForAppend();
+            recordBuffer.clear();
+            write(run, recordBuffer);
+            file.writeBytes(buffer, true);
+        } catch (GdxRuntimeException e) {
+            Gdx.app.error(TAG, "Couldn't save the run to " + file, e);
+        }
+    }
+
+    /**
+     * Visits the last {@code count} runs, oldest first
+     */
+    public void readTail(int count, Visitor visitor) {
+        int size = size();
+        int first = Math.max(0, size - count);
+        read(first, size - first, visitor);
+    }
+
+    /**
+     * Visits every run, oldest first
+     */
+    public void readAll(Visitor visitor) {
+        read(0, size(), visitor);
+    }
+
+    /**
+     * Aggregates every run in the log in a single pass
+     */
+    public Summary summarize() {
+        Summary summary = new Summary();
+        readAll(summary);
+        return summary;
+    }
+
+    private void read(int first, int count, Visitor visitor) {
+        if (count <= 0) {
+            return;
+        }
+
+        if (mapped) {
+            readMapped(first, count, visitor);
+        } else {
+            readStreamed(first, count, visitor);
+        }
+    }
+
+    private void readMapped(int first, int count, Visitor visitor) {
+        // FileHandle.map hands back a buffer in native order, the log is big endian
+        ByteBuffer mapped = file.map(FileChannel.MapMode.READ_ONLY);
+        mapped.order(ByteOrder.BIG_ENDIAN);
+        mapped.position(HEADER_SIZE + first * RECORD_SIZE);
+        int corrupt = 0;
+        for (int i = 0; i < count; i++) {
+            if (read(mapped, record)) {
+                visitor.visit(record);
+            } else {
+                corrupt++;
+            }
+        }
+        logCorrupt(corrupt);
+    }
+
+    private void readStreamed(int first, int count, Visitor visitor) {
+        InputStream in = null;
+        try {
+            in = file.read(STREAM_BUFFER_SIZE);
+            skipFully(in, HEADER_SIZE + (long) first * RECORD_SIZE);
+            DataInputStream data = new DataInputStream(in);
+            int corrupt = 0;
+            for (int i = 0; i < count; i++) {
+                data.readFully(buffer);
+                recordBuffer.clear();
+                if (read(recordBuffer, record)) {
+                    visitor.visit(record);
+                } else {
+                    corrupt++;
+                }
+            }
+            logCorrupt(corrupt);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Error reading run history: " + file, e);
+        } finally {
+            StreamUtils.closeQuietly(in);
+        }
+    }
+
+    /**
+     * Writes the header of a new log, or drops a partial record left by an interrupted write so
+     * the next record stays aligned
+     */
+    private void prepareForAppend() {
+        checkFormat();
+        if (!file.exists() || file.length() < HEADER_SIZE) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putShort(VERSION).putShort((short) RECORD_SIZE);
+            file.writeBytes(header.array(), false);
+            return;
+        }
+
+        long length = file.length();
+        long aligned = length - (length - HEADER_SIZE) % RECORD_SIZE;
+        if (aligned != length) {
+            Gdx.app.error(TAG, "Dropping a partial record from " + file);
+            RandomAccessFile randomAccessFile = null;
+            try {
+                randomAccessFile = new RandomAccessFile(file.file(), "rw");
+                randomAccessFile.setLength(aligned);
+            } catch (IOException e) {
+                throw new GdxRuntimeException("Error repairing run history: " + file, e);
+            } finally {
+                StreamUtils.closeQuietly(randomAccessFile);
+            }
+        }
+    }
+
+    /**
+     * Validates the header before any record is decoded, upgrading a log from an older version and
+     * moving an unreadable one aside. Only checked once per instance
+     */
+    private void checkFormat() {
+        if (formatChecked) {
+            return;
+        }
+        formatChecked = true;
+        if (!file.exists() || file.length() < HEADER_SIZE) {
+            return;
+        }
+
+        int magic;
+        short version;
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(file.read());
+            magic = in.readInt();
+            version = in.readShort();
+        } catch (IOException e) {
+            Gdx.app.error(TAG, "Couldn't read the run history header: " + file, e);
+            return;
+        } finally {
+            StreamUtils.closeQuietly(in);
+        }
+
+        if (magic == MAGIC && version == VERSION) {
+            return;
+        }
+        if (magic == MAGIC && version == 1 && upgradeFormat()) {
+            return;
+        }
+        FileHandle unreadable = file.sibling(file.name() + UNREADABLE_SUFFIX);
+        Gdx.app.error(TAG, "Unreadable run history " + file + ", moved to " + unreadable +
+                " and starting a new one");
+        file.moveTo(unreadable);
+    }
+
+    /**
+     * Rewrites a log from version 1 in the current format. Records are streamed one at a time into
+     * a temporary file, which only replaces the log once it is complete
+     *
+     * @return false if the log couldn't be upgraded
+     */
+    private boolean upgradeFormat() {
+        FileHandle tmp = file.sibling(file.name() + ".tmp");
+        int count = (int) ((file.length() - HEADER_SIZE) / VERSION_1_RECORD_SIZE);
+        DataInputStream in = null;
+        OutputStream out = null;
+        try {
+            in = new DataInputStream(file.read(STREAM_BUFFER_SIZE));
+            out = tmp.write(false, STREAM_BUFFER_SIZE);
+            skipFully(in, HEADER_SIZE);
+            recordBuffer.clear();
+            recordBuffer.putInt(MAGIC).putShort(VERSION).putShort((short) RECORD_SIZE);
+            out.write(buffer, 0, HEADER_SIZE);
+            for (int i = 0; i < count; i++) {
+                in.readFully(buffer, 0, VERSION_1_RECORD_SIZE);
+                recordBuffer.clear();
+                if (!read(recordBuffer, record, false)) {
+                    Gdx.app.error(TAG, "Couldn't upgrade run history, record " + i +
+                            " is corrupt: " + file);
+                    return false;
+                }
+                recordBuffer.clear();
+                write(record, recordBuffer);
+                out.write(buffer);
+            }
+            out.close();
+            out = null;
+        } catch (IOException e) {
+            Gdx.app.error(TAG, "Couldn't upgrade run history: " + file, e);
+            return false;
+        } catch (GdxRuntimeException e) {
+            Gdx.app.error(TAG, "Couldn't upgrade run history: " + file, e);
+            return false;
+        } finally {
+            StreamUtils.closeQuietly(in);
+            StreamUtils.closeQuietly(out);
+        }
+        tmp.moveTo(file);
+        Gdx.app.log(TAG, "Upgraded " + count + " runs in " + file + " to version " + VERSION);
+        return true;
+    }
+
+    private static void write(RunRecord run, ByteBuffer out) {
+        out.putLong(run.timestamp);
+        out.putLong(run.seed);
+        out.putInt(run.score);
+        out.putInt(run.multiplier);
+        out.putInt(run.jumpCount);
+        out.putInt(run.doubleJumpCount);
+        out.putInt(run.powerStompCount);
+        out.putInt(run.durationMillis);
+        out.putInt(run.coins);
+        out.putShort((short) run.difficulty);
+        out.put(run.killer != null ? (byte) run.killer.ordinal() : NO_KILLER);
+        out.put((byte) 0);
+    }
+
+    private static boolean read(ByteBuffer in, RunRecord run) {
+        return read(in, run, true);
+    }
+
+    /**
+     * Reads a whole record into the given run
+     *
+     * @return false if the record is corrupt
+     */
+    private static boolean read(ByteBuffer in, RunRecord run, boolean hasCoins) {
+        run.timestamp = in.getLong();
+        run.seed = in.getLong();
+        run.score = in.getInt();
+        run.multiplier = in.getInt();
+        run.jumpCount = in.getInt();
+        run.doubleJumpCount = in.getInt();
+        run.powerStompCount = in.getInt();
+        run.durationMillis = in.getInt();
+        run.coins = hasCoins ? in.getInt() : 0;
+        run.difficulty = in.getShort();
+        byte killer = in.get();
+        in.get();
+        if (killer == NO_KILLER) {
+            run.killer = null;
+            return true;
+        }
+        if (killer < 0 || killer >= ENEMY_TYPES.length) {
+            return false;
+        }
+        run.killer = ENEMY_TYPES[killer];
+        return true;
+    }
+
+    private void logCorrupt(int corrupt) {
+        if (corrupt > 0) {
+            Gdx.app.error(TAG, "Skipped " + corrupt + " corrupt runs in " + file);
+        }
+    }
+
+    private static void skipFully(InputStream in, long bytes) throws IOException {
+        while (bytes > 0) {
+            long skipped = in.skip(bytes);
+            if (skipped <= 0) {
+                throw new IOException("Unexpected end of run history");
+            }
+            bytes -= skipped;
+        }
+    }
+
+    /**
+     * Totals over a set of runs
+     */
+    public static class Summary implements Visitor {
+
+        private int runs;
+        private long totalScore;
+        private int bestScore;
+        private long totalJumps;
+        private long totalDoubleJumps;
+        private long totalPowerStomps;
+        private long totalDurationMillis;
+        private long totalCoins;
+        private int maxDifficulty;
+        private final int[] deathsByEnemyType = new int[ENEMY_TYPES.length];
+
+        @Override
+        public void visit(RunRecord record) {
+            runs++;
+            totalScore += record.score;
+            bestScore = Math.max(bestScore, record.score);
+            totalJumps += record.jumpCount;
+            totalDoubleJumps += record.doubleJumpCount;
+            totalPowerStomps += record.powerStompCount;
+            totalDurationMillis += record.durationMillis;
+            totalCoins += record.coins;
+            maxDifficulty = Math.max(maxDifficulty, record.difficulty);
+            if (record.killer != null) {
+                deathsByEnemyType[record.killer.ordinal()]++;
+            }
+        }
+
+        public int getRuns() {
+            return runs;
+        }
+
+        public long getTotalScore() {
+            return totalScore;
+        }
+
+        public int getBestScore() {
+            return bestScore;
+        }
+
+        public float getAverageScore() {
+            return runs > 0 ? (float) totalScore / runs : 0f;
+        }
+
+        public long getTotalJumps() {
+            return totalJumps;
+        }
+
+        public long getTotalDoubleJumps() {
+            return totalDoubleJumps;
+        }
+
+        public long getTotalPowerStomps() {
+            return totalPowerStomps;
+        }
+
+        public long getTotalDurationMillis() {
+            return totalDurationMillis;
+        }
+
+        public long getTotalCoins() {
+            return totalCoins;
+        }
+
+        public int getMaxDifficulty() {
+            return maxDifficulty;
+        }
+
+        public int getDeaths(EnemyType enemyType) {
+            return deathsByEnemyType[enemyType.ordinal()];
+        }
+
+    }
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2014. William Mora
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.unocode.earthlingrun.utils;
+
+import com.unocode.earthlingrun.enums.EnemyType;
+
+/**
+ * Stats of a single finished run. Instances are reused, both when a run ends and when the
+ * {@link RunHistory} is read back
+ */
+public class RunRecord {
+
+    public long timestamp;
+    public long seed;
+    public int score;
+    public int multiplier;
+    public int jumpCount;
+    public int doubleJumpCount;
+    public int powerStompCount;
+    public int difficulty;
+    public int durationMillis;
+    public int coins;
+    public EnemyType killer;
+
+    public RunRecord set(RunRecord other) {
+        timestamp = other.timestamp;
+        seed = other.seed;
+        score = other.score;
+        multiplier = other.multiplier;
+        jumpCount = other.jumpCount;
+        doubleJumpCount = other.doubleJumpCount;
+        powerStompCount = other.powerStompCount;
+        difficulty = other.difficulty;
+        durationMillis = other.durationMillis;
+        coins = other.coins;
+        killer = other.killer;
+        return this;
+    }
+
+}
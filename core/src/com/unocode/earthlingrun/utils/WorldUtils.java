@@ -25,22 +25,38 @@ import com.unocode.earthlingrun.box2d.EnemyUserData;
 import com.unocode.earthlingrun.box2d.GroundUserData;
 import com.unocode.earthlingrun.box2d.RunnerUserData;
 import com.unocode.earthlingrun.enums.EnemyType;
+import com.unocode.earthlingrun.metrics.Box2DTracker;
 
 public class WorldUtils {
 
     public static World createWorld() {
-        return new World(Constants.WORLD_GRAVITY, true);
+        World world = new World(Constants.WORLD_GRAVITY, true);
+        Box2DTracker.worldCreated();
+        return world;
+    }
+
+    /**
+     * Disposes the world along with every body left in it. Must not be called during a step
+     */
+    public static void disposeWorld(World world) {
+        Box2DTracker.worldDisposed(world);
+        world.dispose();
+    }
+
+    public static void destroyBody(World world, Body body) {
+        Box2DTracker.bodyDestroyed(body);
+        world.destroyBody(body);
     }
 
     public static Body createGround(World world) {
         BodyDef bodyDef = new BodyDef();
         bodyDef.position.set(new Vector2(Constants.GROUND_X, Constants.GROUND_Y));
         Body body = world.createBody(bodyDef);
-        PolygonShape shape = new PolygonShape();
-        shape.setAsBox(Constants.GROUND_WIDTH / 2, Constants.GROUND_HEIGHT / 2);
+        PolygonShape shape = createBoxShape(Constants.GROUND_WIDTH, Constants.GROUND_HEIGHT);
         body.createFixture(shape, Constants.GROUND_DENSITY);
         body.setUserData(new GroundUserData(Constants.GROUND_WIDTH, Constants.GROUND_HEIGHT));
-        shape.dispose();
+        disposeShape(shape);
+        Box2DTracker.bodyCreated(body);
         return body;
     }
 
@@ -48,32 +64,44 @@ public class WorldUtils {
         BodyDef bodyDef = new BodyDef();
         bodyDef.type = BodyDef.BodyType.DynamicBody;
         bodyDef.position.set(new Vector2(Constants.RUNNER_X, Constants.RUNNER_Y));
-        PolygonShape shape = new PolygonShape();
-        shape.setAsBox(Constants.RUNNER_WIDTH / 2, Constants.RUNNER_HEIGHT / 2);
+        PolygonShape shape = createBoxShape(Constants.RUNNER_WIDTH, Constants.RUNNER_HEIGHT);
         Body body = world.createBody(bodyDef);
         body.setGravityScale(Constants.RUNNER_GRAVITY_SCALE);
+        // When a resting body falls asleep depends on the step rate
+        body.setSleepingAllowed(false);
         body.createFixture(shape, Constants.RUNNER_DENSITY);
         body.resetMassData();
         body.setUserData(new RunnerUserData(Constants.RUNNER_WIDTH, Constants.RUNNER_HEIGHT));
-        shape.dispose();
+        disposeShape(shape);
+        Box2DTracker.bodyCreated(body);
         return body;
     }
 
-    public static Body createEnemy(World world) {
-        EnemyType enemyType = RandomUtils.getRandomEnemyType();
+    public static Body createEnemy(World world, EnemyType enemyType) {
         BodyDef bodyDef = new BodyDef();
         bodyDef.type = BodyDef.BodyType.KinematicBody;
         bodyDef.position.set(new Vector2(enemyType.getX(), enemyType.getY()));
-        PolygonShape shape = new PolygonShape();
-        shape.setAsBox(enemyType.getWidth() / 2, enemyType.getHeight() / 2);
+        PolygonShape shape = createBoxShape(enemyType.getWidth(), enemyType.getHeight());
         Body body = world.createBody(bodyDef);
         body.createFixture(shape, enemyType.getDensity());
         body.resetMassData();
-        EnemyUserData userData = new EnemyUserData(enemyType.getWidth(), enemyType.getHeight(),
-                enemyType.getAnimationAssetId());
+        EnemyUserData userData = new EnemyUserData(enemyType);
         body.setUserData(userData);
-        shape.dispose();
+        disposeShape(shape);
+        Box2DTracker.bodyCreated(body);
         return body;
     }
 
+    private static PolygonShape createBoxShape(float width, float height) {
+        PolygonShape shape = new PolygonShape();
+        shape.setAsBox(width / 2, height / 2);
+        Box2DTracker.shapeCreated();
+        return shape;
+    }
+
+    private static void disposeShape(PolygonShape shape) {
+        shape.dispose();
+        Box2DTracker.shapeDisposed();
+    }
+
 }